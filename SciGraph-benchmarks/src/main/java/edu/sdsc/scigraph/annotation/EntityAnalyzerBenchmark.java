@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+/***
+ * Tokenizes a paragraph as the annotation path does, with a new analysis chain per call
+ * (tokenStream) or with the reused chain of the current thread (reusableTokenStream).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityAnalyzerBenchmark {
+
+  static final int SENTENCE_COUNT = 256;
+
+  EntityAnalyzer analyzer = new EntityAnalyzer();
+  String[] sentences = new String[SENTENCE_COUNT];
+  int counter;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkGraphs graphs = BenchmarkGraphs.create(SENTENCE_COUNT, BenchmarkGraphs.DEFAULT_SEED);
+    List<String> labels = graphs.getLabels();
+    graphs.shutdown();
+    Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+    for (int i = 0; i < SENTENCE_COUNT; i++) {
+      StringBuilder sentence = new StringBuilder("The patient's ");
+      sentence.append(labels.get(i)).append(" (");
+      sentence.append(labels.get(random.nextInt(SENTENCE_COUNT))).append(") was observed, with ");
+      sentence.append(EntityProcessorImplBenchmark.FILLER[random.nextInt(EntityProcessorImplBenchmark.FILLER.length)]);
+      sentences[i] = sentence.append(".").toString();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    analyzer.close();
+  }
+
+  static int consume(TokenStream stream) throws IOException {
+    CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    int length = 0;
+    stream.reset();
+    while (stream.incrementToken()) {
+      length += term.length();
+    }
+    stream.end();
+    stream.close();
+    return length;
+  }
+
+  @Benchmark
+  public int tokenStream() throws IOException {
+    return consume(analyzer.tokenStream("", new StringReader(sentences[counter++ % SENTENCE_COUNT])));
+  }
+
+  @Benchmark
+  public int reusableTokenStream() throws IOException {
+    return consume(analyzer.reusableTokenStream("", new StringReader(sentences[counter++ % SENTENCE_COUNT])));
+  }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Supplier;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+import edu.sdsc.scigraph.vocabulary.VocabularyNeo4jImpl;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityProcessorImplBenchmark {
+
+  static final String[] FILLER = {"the", "of", "in", "and", "was", "observed", "with", "patients",
+    "expression", "increased", "a", "study", "shows"};
+
+  @Param({"10000"})
+  int conceptCount;
+
+  @Param({"200"})
+  int wordCount;
+
+  @Param({"vocabulary", "cached", "dictionary"})
+  String recognizer;
+
+  BenchmarkGraphs graphs;
+  EntityProcessorImpl processor;
+  String text;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+    VocabularyNeo4jImpl<Concept> vocabulary = new VocabularyNeo4jImpl<Concept>(graphs.getGraph(), null);
+    if ("dictionary".equals(recognizer)) {
+      DictionaryEntityRecognizer dictionaryRecognizer =
+          new DictionaryEntityRecognizer(vocabulary, graphs.getGraph());
+      // Build the dictionary outside of the measurement
+      dictionaryRecognizer.getDictionary();
+      processor = new EntityProcessorImpl(dictionaryRecognizer);
+    } else if ("cached".equals(recognizer)) {
+      final Graph<Concept> graph = graphs.getGraph();
+      processor = new EntityProcessorImpl(new CachingEntityRecognizer(vocabulary,
+          100_000, new Supplier<Long>() {
+        @Override
+        public Long get() {
+          return graph.getVersion();
+        }
+      }));
+    } else {
+      processor = new EntityProcessorImpl(new EntityRecognizer(vocabulary));
+    }
+
+    // Roughly one in five words starts a concept label
+    Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+    List<String> labels = graphs.getLabels();
+    StringBuilder builder = new StringBuilder("<html><body><p>");
+    for (int i = 0; i < wordCount; i++) {
+      if (random.nextInt(5) == 0) {
+        builder.append(labels.get(random.nextInt(conceptCount)));
+      } else {
+        builder.append(FILLER[random.nextInt(FILLER.length)]);
+      }
+      builder.append(i % 20 == 19 ? ". " : " ");
+    }
+    builder.append("</p></body></html>");
+    text = builder.toString();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    graphs.shutdown();
+  }
+
+  @Benchmark
+  public String annotateEntities() throws IOException {
+    StringWriter writer = new StringWriter();
+    EntityFormatConfiguration config = new EntityFormatConfiguration.Builder(new StringReader(text))
+        .writeTo(writer).get();
+    processor.annotateEntities(config);
+    return writer.toString();
+  }
+
+}
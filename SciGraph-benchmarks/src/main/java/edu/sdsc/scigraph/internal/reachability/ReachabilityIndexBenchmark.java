@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.reachability;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Predicates;
+
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReachabilityIndexBenchmark {
+
+  static final int PAIR_COUNT = 1024;
+
+  @State(Scope.Benchmark)
+  public static class IndexedGraph {
+
+    @Param({"10000"})
+    int conceptCount;
+
+    BenchmarkGraphs graphs;
+    ReachabilityIndex index;
+    Node[] starts = new Node[PAIR_COUNT];
+    Node[] ends = new Node[PAIR_COUNT];
+    List<Entry<Node, Node>> pairs = new ArrayList<>();
+    int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+      graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+      index = new ReachabilityIndex(graphs.getGraphDb());
+      index.createIndex();
+      Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+      for (int i = 0; i < PAIR_COUNT; i++) {
+        starts[i] = graphs.getGraph().getOrCreateNode(BenchmarkGraphs.getUri(random.nextInt(conceptCount)));
+        ends[i] = graphs.getGraph().getOrCreateNode(BenchmarkGraphs.getUri(random.nextInt(conceptCount)));
+        pairs.add(new AbstractMap.SimpleImmutableEntry<>(starts[i], ends[i]));
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+      graphs.shutdown();
+    }
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class UnindexedGraph {
+
+    @Param({"10000"})
+    int conceptCount;
+
+    BenchmarkGraphs graphs;
+    ReachabilityIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+      index = new ReachabilityIndex(graphs.getGraphDb());
+    }
+
+    @Setup(Level.Invocation)
+    public void dropIndex() {
+      if (index.indexExists()) {
+        index.dropIndex();
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+      graphs.shutdown();
+    }
+
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public ReachabilityIndex createIndex(UnindexedGraph state) throws InterruptedException {
+    state.index.createIndex();
+    return state.index;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public HopCoverages getHopCoverages(UnindexedGraph state) throws InterruptedException {
+    return state.index.getHopCoverages(Predicates.<Node>alwaysTrue());
+  }
+
+  @Benchmark
+  public boolean canReach(IndexedGraph state) {
+    int i = state.counter++ % PAIR_COUNT;
+    return state.index.canReach(state.starts[i], state.ends[i]);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Set<Entry<Node, Node>> getConnectedPairs(IndexedGraph state) {
+    return state.index.getConnectedPairs(state.pairs);
+  }
+
+}
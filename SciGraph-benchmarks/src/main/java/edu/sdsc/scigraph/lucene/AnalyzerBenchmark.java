@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.lucene;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+/***
+ * Analyzes concept labels as the loader (index analyzer) and vocabulary queries (query analyzer)
+ * do. tokenStream builds a new analysis chain per label while reusableTokenStream reuses the
+ * chain of the current thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+  static final int LABEL_COUNT = 1024;
+
+  @Param({"index", "query", "exact"})
+  String analyzerType;
+
+  Analyzer analyzer;
+  String field = NodeProperties.LABEL;
+  List<String> labels;
+  int counter;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, URISyntaxException {
+    switch (analyzerType) {
+      case "index":
+        analyzer = new VocabularyIndexAnalyzer();
+        break;
+      case "query":
+        analyzer = new VocabularyQueryAnalyzer();
+        break;
+      default:
+        analyzer = new ExactAnalyzer();
+    }
+    BenchmarkGraphs graphs = BenchmarkGraphs.create(LABEL_COUNT, BenchmarkGraphs.DEFAULT_SEED);
+    labels = new ArrayList<>(graphs.getLabels());
+    graphs.shutdown();
+    // Punctuation and possessives exercise the pattern filters
+    Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+    for (int i = 0; i < labels.size(); i++) {
+      if (random.nextInt(4) == 0) {
+        labels.set(i, "(" + labels.get(i) + "'s)");
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    analyzer.close();
+  }
+
+  static int consume(TokenStream stream) throws IOException {
+    CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    int length = 0;
+    stream.reset();
+    while (stream.incrementToken()) {
+      length += term.length();
+    }
+    stream.end();
+    stream.close();
+    return length;
+  }
+
+  @Benchmark
+  public int tokenStream() throws IOException {
+    String label = labels.get(counter++ % LABEL_COUNT);
+    return consume(analyzer.tokenStream(field, new StringReader(label)));
+  }
+
+  @Benchmark
+  public int reusableTokenStream() throws IOException {
+    String label = labels.get(counter++ % LABEL_COUNT);
+    return consume(analyzer.reusableTokenStream(field, new StringReader(label)));
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.neo4j;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GraphBenchmark {
+
+  @Param({"10000"})
+  int conceptCount;
+
+  BenchmarkGraphs graphs;
+  Graph<Concept> graph;
+  Transaction tx;
+  int counter;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+    graph = graphs.getGraph();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    graphs.shutdown();
+  }
+
+  @Setup(Level.Iteration)
+  public void beginTx() {
+    tx = graphs.getGraphDb().beginTx();
+  }
+
+  @TearDown(Level.Iteration)
+  public void finishTx() {
+    tx.success();
+    tx.finish();
+  }
+
+  @Benchmark
+  public Node getExistingNode() {
+    return graph.getOrCreateNode(BenchmarkGraphs.getUri(counter++ % conceptCount));
+  }
+
+  @Benchmark
+  public Node createNode() {
+    return graph.getOrCreateNode(BenchmarkGraphs.BASE_URI + "new" + counter++);
+  }
+
+  @Benchmark
+  public Object getOrCreateRelationship() {
+    int i = counter++;
+    Node a = graph.getOrCreateNode(BenchmarkGraphs.getUri(i % conceptCount));
+    Node b = graph.getOrCreateNode(BenchmarkGraphs.getUri((i * 31 + 7) % conceptCount));
+    return graph.getOrCreateRelationship(a, b, EdgeType.EQUIVALENT_TO);
+  }
+
+  @Benchmark
+  public Node addProperty() {
+    Node node = graph.getOrCreateNode(BenchmarkGraphs.getUri(counter % conceptCount));
+    graph.addProperty(node, Concept.SYNONYM, "synonym " + counter++);
+    return node;
+  }
+
+}
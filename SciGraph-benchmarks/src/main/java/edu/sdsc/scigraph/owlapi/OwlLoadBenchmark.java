@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.owlapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+/***
+ * Measures loading a generated ontology into an empty graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OwlLoadBenchmark {
+
+  @Param({"10000"})
+  int classCount;
+
+  OntologyGenerator generator;
+  File location;
+  GraphDatabaseService graphDb;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    generator = new OntologyGenerator.Builder().classCount(classCount)
+        .seed(BenchmarkGraphs.DEFAULT_SEED).build();
+  }
+
+  @Setup(Level.Invocation)
+  public void createGraph() throws IOException {
+    location = Files.createTempDirectory("scigraph-benchmark").toFile();
+    graphDb = new GraphDatabaseFactory().newEmbeddedDatabase(location.getAbsolutePath());
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteGraph() throws IOException {
+    graphDb.shutdown();
+    FileUtils.deleteDirectory(location);
+  }
+
+  @Benchmark
+  public void load() throws OWLOntologyCreationException {
+    generator.generate(new Graph<Concept>(graphDb, Concept.class));
+  }
+
+}
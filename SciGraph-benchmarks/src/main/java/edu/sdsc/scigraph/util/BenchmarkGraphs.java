@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.util;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+
+import com.google.common.base.Joiner;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.neo4j.EdgeType;
+import edu.sdsc.scigraph.neo4j.Graph;
+
+/***
+ * Builds reproducible concept graphs for benchmarks.
+ * 
+ * <p>The same seed and size always produce the same labels, categories and subclass DAG so that
+ * results can be compared before and after a change.
+ */
+public class BenchmarkGraphs {
+
+  public static final long DEFAULT_SEED = 42;
+  public static final String BASE_URI = "http://example.org/benchmark#";
+  public static final String CURIE_PREFIX = "BM";
+
+  private static final int TRANSACTION_SIZE = 10000;
+
+  private static final String[] SYLLABLES = {"ad", "al", "an", "ar", "bra", "cer", "co", "cor",
+    "cyt", "den", "derm", "ep", "gan", "gli", "hip", "lo", "mus", "my", "neu", "no", "ol", "os",
+    "pa", "po", "ron", "sa", "sy", "te", "to", "um", "va", "ze"};
+
+  private static final String[] CATEGORIES = {"anatomical entity", "cell", "disease", "gene",
+    "molecular entity", "phenotype", "quality", "subcellular entity"};
+
+  private final File location;
+  private final List<String> labels = new ArrayList<>();
+  private GraphDatabaseService graphDb;
+  private Graph<Concept> graph;
+
+  private BenchmarkGraphs(File location) {
+    this.location = location;
+    open();
+  }
+
+  private void open() {
+    graphDb = new GraphDatabaseFactory().newEmbeddedDatabase(location.getAbsolutePath());
+    graph = new Graph<Concept>(graphDb, Concept.class);
+  }
+
+  /***
+   * Create a populated graph in a new temporary directory.
+   * 
+   * @param conceptCount the number of concepts to create
+   * @param seed
+   * @return the populated graph
+   * @throws IOException
+   */
+  public static BenchmarkGraphs create(int conceptCount, long seed) throws IOException {
+    BenchmarkGraphs graphs = new BenchmarkGraphs(Files.createTempDirectory("scigraph-benchmark").toFile());
+    graphs.populate(conceptCount, new Random(seed));
+    // Reopen so that the lucene indices are flushed to disk, as they would be after a load
+    graphs.graphDb.shutdown();
+    graphs.open();
+    return graphs;
+  }
+
+  public static String getUri(int i) {
+    return BASE_URI + i;
+  }
+
+  public static String getCurie(int i) {
+    return String.format("%s:%07d", CURIE_PREFIX, i);
+  }
+
+  static String getWord(Random random) {
+    StringBuilder word = new StringBuilder();
+    int syllables = 2 + random.nextInt(3);
+    for (int i = 0; i < syllables; i++) {
+      word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    return word.toString();
+  }
+
+  static String getLabel(Random random) {
+    List<String> words = newArrayList();
+    int wordCount = 1 + random.nextInt(3);
+    for (int i = 0; i < wordCount; i++) {
+      words.add(getWord(random));
+    }
+    return Joiner.on(' ').join(words);
+  }
+
+  void populate(int conceptCount, Random random) {
+    Transaction tx = graphDb.beginTx();
+    try {
+      Node[] nodes = new Node[conceptCount];
+      for (int i = 0; i < conceptCount; i++) {
+        if (i > 0 && i % TRANSACTION_SIZE == 0) {
+          tx.success();
+          tx.finish();
+          tx = graphDb.beginTx();
+        }
+        Node node = graph.getOrCreateNode(getUri(i));
+        nodes[i] = node;
+        String label = getLabel(random);
+        labels.add(label);
+        graph.addProperty(node, NodeProperties.LABEL, label);
+        graph.setProperty(node, CommonProperties.CURIE, getCurie(i));
+        graph.setProperty(node, CommonProperties.TYPE, "OWLClass");
+        graph.addProperty(node, Concept.CATEGORY, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        if (random.nextInt(4) == 0) {
+          graph.addProperty(node, Concept.SYNONYM, getLabel(random));
+        }
+        // A DAG: parents are always created before their children
+        if (i > 0) {
+          int parentCount = 1 + (random.nextInt(10) == 0 ? 1 : 0);
+          for (int j = 0; j < parentCount; j++) {
+            graph.getOrCreateRelationship(node, nodes[random.nextInt(i)], EdgeType.SUBCLASS_OF);
+          }
+        }
+      }
+      tx.success();
+    } finally {
+      tx.finish();
+    }
+  }
+
+  public File getLocation() {
+    return location;
+  }
+
+  public GraphDatabaseService getGraphDb() {
+    return graphDb;
+  }
+
+  public Graph<Concept> getGraph() {
+    return graph;
+  }
+
+  /***
+   * @return the label of each concept, indexed by concept number
+   */
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  public void shutdown() throws IOException {
+    graphDb.shutdown();
+    FileUtils.deleteDirectory(location);
+  }
+
+}
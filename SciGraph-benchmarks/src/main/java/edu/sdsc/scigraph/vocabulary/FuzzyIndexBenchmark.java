@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Predicates;
+
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FuzzyIndexBenchmark {
+
+  static final int QUERY_COUNT = 1024;
+
+  @Param({"10000", "200000"})
+  int conceptCount;
+
+  BenchmarkGraphs graphs;
+  FuzzyIndex index;
+  String[] misspellings = new String[QUERY_COUNT];
+  int counter;
+
+  /***
+   * @return term with one character replaced, as a typo would
+   */
+  static String misspell(String term, Random random) {
+    char[] chars = term.toCharArray();
+    chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+    return new String(chars);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+    index = FuzzyIndex.build(graphs.getGraphDb(), 0);
+    Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+    List<String> labels = graphs.getLabels();
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      misspellings[i] = misspell(labels.get(random.nextInt(conceptCount)), random);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    graphs.shutdown();
+  }
+
+  @Benchmark
+  public List<Long> lookup() {
+    return index.lookup(misspellings[counter++ % QUERY_COUNT], 10, true,
+        Predicates.<Long>alwaysTrue());
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.util.BenchmarkGraphs;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VocabularyNeo4jImplBenchmark {
+
+  static final int QUERY_COUNT = 1024;
+
+  @Param({"10000"})
+  int conceptCount;
+
+  BenchmarkGraphs graphs;
+  VocabularyNeo4jImpl<Concept> vocabulary;
+  String[] terms = new String[QUERY_COUNT];
+  String[] curies = new String[QUERY_COUNT];
+  int counter;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, InterruptedException {
+    graphs = BenchmarkGraphs.create(conceptCount, BenchmarkGraphs.DEFAULT_SEED);
+    vocabulary = new VocabularyNeo4jImpl<Concept>(graphs.getGraph(),
+        graphs.getLocation().getAbsolutePath());
+    vocabulary.awaitSuggestions(1, TimeUnit.MINUTES);
+    Random random = new Random(BenchmarkGraphs.DEFAULT_SEED);
+    List<String> labels = graphs.getLabels();
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      int concept = random.nextInt(conceptCount);
+      terms[i] = labels.get(concept);
+      curies[i] = BenchmarkGraphs.getCurie(concept);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    graphs.shutdown();
+  }
+
+  String nextTerm() {
+    return terms[counter++ % QUERY_COUNT];
+  }
+
+  @Benchmark
+  public Collection<Concept> getConceptFromId() {
+    return vocabulary.getConceptFromId(new Query.Builder(curies[counter++ % QUERY_COUNT]).build());
+  }
+
+  @Benchmark
+  public List<Concept> getConceptsFromTerm() {
+    return vocabulary.getConceptsFromTerm(new Query.Builder(nextTerm()).build());
+  }
+
+  @Benchmark
+  public List<Concept> getConceptsFromPrefix() {
+    String term = nextTerm();
+    return vocabulary.getConceptsFromPrefix(new Query.Builder(term.substring(0, Math.min(4, term.length()))).build());
+  }
+
+  @Benchmark
+  public List<Concept> searchConcepts() {
+    return vocabulary.searchConcepts(new Query.Builder(nextTerm()).build());
+  }
+
+  @Benchmark
+  public List<String> getSuggestions() {
+    return vocabulary.getSuggestions(nextTerm() + "x");
+  }
+
+}
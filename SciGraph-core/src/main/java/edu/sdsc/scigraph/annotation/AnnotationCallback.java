@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.util.List;
+
+/***
+ * Notified as each document of a bulk annotation finishes.
+ * <p>
+ * Methods are called from the threads that annotate documents, so implementations must be thread
+ * safe.
+ * 
+ * @param <T> the type of documents
+ */
+public interface AnnotationCallback<T> {
+
+  /***
+   * @param document the annotated document
+   * @param annotations the entities found in the document
+   */
+  void onSuccess(T document, List<EntityAnnotation> annotations);
+
+  /***
+   * @param document the document that could not be annotated
+   * @param cause the reason
+   */
+  void onFailure(T document, Throwable cause);
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
+import edu.sdsc.scigraph.vocabulary.VocabularyNeo4jImpl;
+
+/***
+ * An {@link EntityRecognizer} that caches the entities of candidates across requests.
+ * 
+ * <p>Candidates are keyed by their tokens as the vocabulary queries them, so candidates that only
+ * differ in case or surrounding punctuation share an entry, and by the configuration that filters
+ * entities. Candidates without entities are cached as well since most candidates in a text are
+ * not concepts. The cache is bounded by weight where each entry weighs one plus the number of
+ * entities it holds. The cache is cleared whenever the graph version changes.
+ */
+public class CachingEntityRecognizer extends EntityRecognizer {
+
+  private static final Logger logger = Logger.getLogger(CachingEntityRecognizer.class.getName());
+
+  private static final Joiner TOKEN_JOINER = Joiner.on(' ');
+
+  private static final Weigher<Candidate, Collection<Entity>> RESULT_WEIGHER =
+      new Weigher<Candidate, Collection<Entity>>() {
+    @Override
+    public int weigh(Candidate key, Collection<Entity> value) {
+      return value.size() + 1;
+    }
+  };
+
+  static class Candidate {
+    final String term;
+    final Set<String> includeCategories;
+    final Set<String> excludeCategories;
+    final boolean includeNumbers;
+
+    Candidate(String term, EntityFormatConfiguration config) {
+      this.term = term;
+      this.includeCategories = ImmutableSet.copyOf(config.getIncludeCategories());
+      this.excludeCategories = ImmutableSet.copyOf(config.getExcludeCategories());
+      this.includeNumbers = config.isIncludeNumbers();
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(term, includeCategories, excludeCategories, includeNumbers);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Candidate)) {
+        return false;
+      }
+      Candidate other = (Candidate) obj;
+      return term.equals(other.term) && includeNumbers == other.includeNumbers
+          && includeCategories.equals(other.includeCategories)
+          && excludeCategories.equals(other.excludeCategories);
+    }
+  }
+
+  private final Cache<Candidate, Collection<Entity>> cache;
+  private final Supplier<Long> graphVersion;
+  private final AtomicLong cachedVersion = new AtomicLong();
+  private final AtomicLong emptyHits = new AtomicLong();
+
+  /***
+   * @param vocabulary the vocabulary to recognize entities with
+   * @param maximumWeight the maximum total weight of the cached candidates
+   * @param graphVersion the version of the graph backing vocabulary
+   */
+  public CachingEntityRecognizer(Vocabulary<Concept> vocabulary, long maximumWeight,
+      Supplier<Long> graphVersion) throws IOException {
+    super(vocabulary);
+    this.graphVersion = graphVersion;
+    cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher(RESULT_WEIGHER)
+        .recordStats().build();
+    cachedVersion.set(graphVersion.get());
+    logger.info("Caching recognized entities with a maximum weight of " + maximumWeight);
+  }
+
+  /***
+   * Clears the cache if the graph changed since the last lookup.
+   */
+  public void checkGraphVersion() {
+    long version = graphVersion.get();
+    if (cachedVersion.getAndSet(version) != version) {
+      logger.fine("Graph version changed to " + version + ", invalidating recognition cache");
+      cache.invalidateAll();
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /***
+   * @return the number of cache hits for candidates without entities
+   */
+  public long emptyHitCount() {
+    return emptyHits.get();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  static String getKey(String token) {
+    List<String> tokens = VocabularyNeo4jImpl.getTokens(NodeProperties.LABEL, token);
+    return TOKEN_JOINER.join(tokens);
+  }
+
+  @Override
+  public Collection<Entity> getEntities(String token, EntityFormatConfiguration config) {
+    checkGraphVersion();
+    Candidate candidate = new Candidate(getKey(token), config);
+    Collection<Entity> entities = cache.getIfPresent(candidate);
+    if (null == entities) {
+      entities = Collections.unmodifiableCollection(super.getEntities(token, config));
+      cache.put(candidate, entities);
+    } else if (entities.isEmpty()) {
+      emptyHits.incrementAndGet();
+    }
+    return entities;
+  }
+
+}
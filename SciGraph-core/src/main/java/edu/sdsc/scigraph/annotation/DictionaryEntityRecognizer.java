@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.neo4j.graphdb.NotFoundException;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.neo4j.VersionedIndex;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
+
+/***
+ * Recognizes entities with an in memory {@link EntityDictionary} instead of index queries.
+ * 
+ * <p>The tokens of a text are scanned once and every match is annotated, without the shingle size
+ * limit of a lookup per candidate. The dictionary is rebuilt in the background when the graph
+ * version changes.
+ */
+public class DictionaryEntityRecognizer extends EntityRecognizer {
+
+  private final Graph<Concept> graph;
+  private final Analyzer analyzer = new EntityAnalyzer();
+  private final VersionedIndex<EntityDictionary> dictionary;
+
+  @Inject
+  DictionaryEntityRecognizer(Vocabulary<Concept> vocabulary, final Graph<Concept> graph) throws IOException {
+    super(vocabulary);
+    this.graph = graph;
+    this.dictionary = new VersionedIndex<EntityDictionary>(graph) {
+      @Override
+      protected EntityDictionary build(long version) {
+        return EntityDictionary.build(graph.getGraphDb(), version);
+      }
+    };
+  }
+
+  /***
+   * Builds the dictionary so the first annotation request doesn't pay for a full scan of the graph.
+   */
+  public void prewarm() {
+    dictionary.get();
+  }
+
+  EntityDictionary getDictionary() {
+    return dictionary.get();
+  }
+
+  Collection<Entity> getEntities(long[] ids, EntityFormatConfiguration config) {
+    Set<Entity> entities = newHashSet();
+    for (long id: ids) {
+      Concept concept;
+      try {
+        concept = graph.getOrCreateFramedNode(graph.getGraphDb().getNodeById(id));
+      } catch (NotFoundException e) {
+        // The node was deleted since the dictionary was built
+        continue;
+      }
+      if (shouldAnnotate(concept, config)) {
+        entities.add(new Entity(concept));
+      }
+    }
+    return entities;
+  }
+
+  @Override
+  public Collection<Entity> getEntities(String token, EntityFormatConfiguration config) {
+    List<String> tokens = LuceneUtils.getTokenization(analyzer, (CharSequence) token);
+    return getEntities(getDictionary().lookup(tokens), config);
+  }
+
+  /***
+   * @return the length of the candidate text of a match, with its tokens separated by spaces
+   */
+  static int getLength(List<Token<String>> tokens, int start, int end) {
+    int length = end - start;
+    for (int i = start; i <= end; i++) {
+      length += tokens.get(i).getToken().length();
+    }
+    return length;
+  }
+
+  @Override
+  List<EntityAnnotation> getAnnotations(List<Token<String>> tokens, EntityFormatConfiguration config) {
+    List<String> terms = new ArrayList<>(tokens.size());
+    for (Token<String> token: tokens) {
+      terms.add(token.getToken());
+    }
+    List<EntityAnnotation> annotations = new ArrayList<>();
+    for (EntityDictionary.Match match: getDictionary().scan(terms)) {
+      if (getLength(tokens, match.getStart(), match.getEnd()) < config.getMinLength()) {
+        continue;
+      }
+      int start = tokens.get(match.getStart()).getStart();
+      int end = tokens.get(match.getEnd()).getEnd();
+      for (Entity entity: getEntities(match.getIds(), config)) {
+        annotations.add(new EntityAnnotation(entity, start, end));
+      }
+    }
+    return annotations;
+  }
+
+}
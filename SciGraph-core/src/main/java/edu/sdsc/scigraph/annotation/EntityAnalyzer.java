@@ -16,9 +16,8 @@
 package edu.sdsc.scigraph.annotation;
 
 import java.io.Reader;
-import java.util.regex.Pattern;
 
-import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.WhitespaceTokenizer;
@@ -26,15 +25,15 @@ import org.apache.lucene.analysis.WhitespaceTokenizer;
 import edu.sdsc.scigraph.lucene.LuceneUtils;
 import edu.sdsc.scigraph.lucene.PatternReplaceFilter;
 
-final class EntityAnalyzer extends Analyzer {
+final class EntityAnalyzer extends ReusableAnalyzerBase {
 
   @Override
-  public TokenStream tokenStream(String fieldName, Reader reader) {
+  protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
     Tokenizer tokenizer = new WhitespaceTokenizer(LuceneUtils.getVersion(), reader);
-    TokenStream result = new PatternReplaceFilter(tokenizer,
-        Pattern.compile("^([\\.!\\?,:;\"'\\(\\)]*)(.*?)([\\.!\\?,:;\"'\\(\\)]*)$"), "$2", true);
-    result = new PatternReplaceFilter(result, Pattern.compile("'s"), "s", true);
-    return result;
+    TokenStream result = new PatternReplaceFilter(tokenizer, LuceneUtils.SURROUNDING_PUNCTUATION,
+        "$2", true);
+    result = new PatternReplaceFilter(result, LuceneUtils.POSSESSIVE, "s", true);
+    return new TokenStreamComponents(tokenizer, result);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.primitives.Longs;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+import edu.sdsc.scigraph.vocabulary.CompletionIndex;
+
+/***
+ * An in memory token automaton over the labels and synonyms of a graph.
+ * 
+ * <p>Labels are split with the same analysis as annotated text and each token is normalized
+ * (lower cased, ASCII folded, apostrophes removed). Stop words are not part of an entry, so
+ * "nucleus of the cell" and "nucleus of cell" reach the same state. Every state that completes an
+ * entry carries the ids of its nodes. A text is scanned once by walking the automaton from each
+ * token, which finds every entry in the text without querying the index.
+ * 
+ * <p>Lemmatized forms that the vocabulary index adds as synonyms at index time are not entries.
+ */
+public class EntityDictionary {
+
+  private static final Logger logger = Logger.getLogger(EntityDictionary.class.getName());
+
+  private static final long[] NO_IDS = new long[0];
+
+  private final State root;
+  private final long version;
+  private final int size;
+
+  static final class State {
+
+    private Map<String, State> transitions;
+    private long[] ids = NO_IDS;
+
+    State next(String token) {
+      return (null == transitions) ? null : transitions.get(token);
+    }
+
+    State add(String token) {
+      if (null == transitions) {
+        transitions = new HashMap<>(4);
+      }
+      State state = transitions.get(token);
+      if (null == state) {
+        state = new State();
+        transitions.put(token, state);
+      }
+      return state;
+    }
+
+    boolean addId(long id) {
+      if (Longs.contains(ids, id)) {
+        return false;
+      }
+      ids = Longs.concat(ids, new long[] {id});
+      return true;
+    }
+
+  }
+
+  /***
+   * The tokens from start to end (inclusive) of a scanned text matched an entry.
+   */
+  public static final class Match {
+
+    private final int start;
+    private final int end;
+    private final long[] ids;
+
+    Match(int start, int end, long[] ids) {
+      this.start = start;
+      this.end = end;
+      this.ids = ids;
+    }
+
+    /***
+     * @return the index of the first token of the match
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /***
+     * @return the index of the last token of the match
+     */
+    public int getEnd() {
+      return end;
+    }
+
+    /***
+     * @return the ids of the nodes with this entry
+     */
+    public long[] getIds() {
+      return ids;
+    }
+
+  }
+
+  EntityDictionary(State root, long version, int size) {
+    this.root = root;
+    this.version = version;
+    this.size = size;
+  }
+
+  /***
+   * @return the graph version this dictionary was built from
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /***
+   * @return the number of node entries in the dictionary
+   */
+  public int size() {
+    return size;
+  }
+
+  /***
+   * @param token an analyzed token
+   * @return the normalized token or null if the token is skipped
+   */
+  static String normalize(String token) {
+    String normalized = LuceneUtils.normalize(token);
+    if (normalized.isEmpty() || LuceneUtils.caseSensitiveStopSet.contains(normalized)) {
+      return null;
+    }
+    return normalized;
+  }
+
+  static String[] normalize(List<String> tokens) {
+    String[] normalized = new String[tokens.size()];
+    for (int i = 0; i < normalized.length; i++) {
+      normalized[i] = normalize(tokens.get(i));
+    }
+    return normalized;
+  }
+
+  /***
+   * Find every entry in a text.
+   * 
+   * <p>Matches start and end on tokens that are not skipped, and may span skipped tokens.
+   * 
+   * @param tokens the analyzed tokens of a text
+   * @return the matches ordered by start and then by end
+   */
+  public List<Match> scan(List<String> tokens) {
+    String[] normalized = normalize(tokens);
+    List<Match> matches = new ArrayList<>();
+    for (int start = 0; start < normalized.length; start++) {
+      if (null == normalized[start]) {
+        continue;
+      }
+      State state = root;
+      for (int end = start; end < normalized.length && null != state; end++) {
+        if (null == normalized[end]) {
+          continue;
+        }
+        state = state.next(normalized[end]);
+        if (null != state && state.ids.length > 0) {
+          matches.add(new Match(start, end, state.ids));
+        }
+      }
+    }
+    return matches;
+  }
+
+  /***
+   * @param tokens the analyzed tokens of a term
+   * @return the ids of the nodes with an entry matching the whole term
+   */
+  public long[] lookup(List<String> tokens) {
+    State state = root;
+    boolean empty = true;
+    for (String token: normalize(tokens)) {
+      if (null == token) {
+        continue;
+      }
+      empty = false;
+      state = state.next(token);
+      if (null == state) {
+        return NO_IDS;
+      }
+    }
+    return empty ? NO_IDS : state.ids;
+  }
+
+  static int addEntries(State root, Analyzer analyzer, Node node, String property) {
+    int added = 0;
+    for (String value: CompletionIndex.getValues(node, property)) {
+      State state = root;
+      for (String token: LuceneUtils.getTokenization(analyzer, (CharSequence) value)) {
+        String normalized = normalize(token);
+        if (null != normalized) {
+          state = state.add(normalized);
+        }
+      }
+      if (state != root && state.addId(node.getId())) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /***
+   * Build a dictionary from all nodes in a graph.
+   * 
+   * @param graphDb the graph
+   * @param version the graph version, used to tell when the dictionary is stale
+   * @return the dictionary
+   */
+  public static EntityDictionary build(GraphDatabaseService graphDb, long version) {
+    Stopwatch timer = Stopwatch.createStarted();
+    Analyzer analyzer = new EntityAnalyzer();
+    State root = new State();
+    int size = 0;
+    for (Node node: GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      size += addEntries(root, analyzer, node, NodeProperties.LABEL);
+      size += addEntries(root, analyzer, node, Concept.SYNONYM);
+    }
+    EntityDictionary dictionary = new EntityDictionary(root, version, size);
+    logger.info("Entity dictionary built in " + timer + " with " + size + " entries.");
+    return dictionary;
+  }
+
+}
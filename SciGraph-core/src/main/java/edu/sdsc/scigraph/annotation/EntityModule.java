@@ -15,15 +15,66 @@
  */
 package edu.sdsc.scigraph.annotation;
 
+import java.io.IOException;
+
 import javax.inject.Singleton;
 
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
 
 public class EntityModule extends AbstractModule {
 
+  private final boolean dictionaryRecognition;
+  private final Optional<Long> recognitionCacheWeight;
+
+  public EntityModule() {
+    this(false);
+  }
+
+  /***
+   * @param dictionaryRecognition if entities should be recognized with an in memory
+   *        {@link EntityDictionary} rather than with vocabulary queries
+   */
+  public EntityModule(boolean dictionaryRecognition) {
+    this(dictionaryRecognition, Optional.<Long>absent());
+  }
+
+  /***
+   * @param dictionaryRecognition if entities should be recognized with an in memory
+   *        {@link EntityDictionary} rather than with vocabulary queries
+   * @param recognitionCacheWeight if present entities recognized with vocabulary queries are
+   *        cached up to this total weight
+   */
+  public EntityModule(boolean dictionaryRecognition, Optional<Long> recognitionCacheWeight) {
+    this.dictionaryRecognition = dictionaryRecognition;
+    this.recognitionCacheWeight = recognitionCacheWeight;
+  }
+
   @Override
   protected void configure() {
     bind(EntityProcessor.class).to(EntityProcessorImpl.class).in(Singleton.class);
   }
 
-}
+  @Provides
+  @Singleton
+  EntityRecognizer getRecognizer(Vocabulary<Concept> vocabulary, final Graph<Concept> graph) throws IOException {
+    if (dictionaryRecognition) {
+      return new DictionaryEntityRecognizer(vocabulary, graph);
+    } else if (recognitionCacheWeight.isPresent()) {
+      return new CachingEntityRecognizer(vocabulary, recognitionCacheWeight.get(), new Supplier<Long>() {
+        @Override
+        public Long get() {
+          return graph.getVersion();
+        }
+      });
+    }
+    return new EntityRecognizer(vocabulary);
+  }
+
+}
\ No newline at end of file
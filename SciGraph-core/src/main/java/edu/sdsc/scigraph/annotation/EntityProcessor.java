@@ -16,7 +16,11 @@
 package edu.sdsc.scigraph.annotation;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.google.common.base.Function;
 
 /***
  * EntityProcessor processes content looking for text that can be annotated.
@@ -31,4 +35,22 @@ public interface EntityProcessor {
   public List<EntityAnnotation> annotateEntities(EntityFormatConfiguration configuration)
       throws IOException;
 
+  /***
+   * Annotate many documents concurrently.
+   * <p>
+   * Documents are only taken from the iterator while fewer than maxConcurrent documents are being
+   * annotated, so a large corpus is never held in memory. The callback is notified in completion
+   * order, from the executor's threads.
+   * 
+   * @param documents the documents to annotate
+   * @param configurations the configuration to annotate each document with
+   * @param executor the executor to annotate documents on
+   * @param maxConcurrent the maximum number of documents annotated at once
+   * @param callback notified of the annotations or the failure of each document
+   * @throws InterruptedException if interrupted while waiting for documents to finish
+   */
+  public <T> void annotateEntities(Iterator<T> documents,
+      Function<? super T, EntityFormatConfiguration> configurations, Executor executor,
+      int maxConcurrent, AnnotationCallback<? super T> callback) throws InterruptedException;
+
 }
\ No newline at end of file
@@ -16,11 +16,9 @@
 package edu.sdsc.scigraph.annotation;
 
 import static com.google.common.base.Joiner.on;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.google.common.collect.Iterables.getFirst;
-import static com.google.common.collect.Iterables.getLast;
-import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
@@ -28,6 +26,7 @@ import static java.lang.String.format;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
@@ -38,8 +37,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
@@ -53,15 +53,17 @@ import net.htmlparser.jericho.StartTagType;
 import net.htmlparser.jericho.StreamedSource;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.PeekingIterator;
 
-import edu.sdsc.scigraph.lucene.LuceneUtils;
-
 class EntityProcessorImpl implements EntityProcessor {
 
   private static final Logger logger = Logger.getLogger(EntityProcessorImpl.class.getName());
@@ -75,51 +77,37 @@ class EntityProcessorImpl implements EntityProcessor {
     analyzer = new EntityAnalyzer();
   }
 
-  BlockingQueue<List<Token<String>>> startShingleProducer(String content) {
-    BlockingQueue<List<Token<String>>> queue = new LinkedBlockingQueue<List<Token<String>>>();
-    ShingleProducer producer = new ShingleProducer(analyzer, new StringReader(content), queue);
-    Thread t = new Thread(producer, "Shingle Producer Thread");
-    t.start();
-    return queue;
+  /***
+   * @return the analyzed tokens of content
+   */
+  List<Token<String>> getTokens(String content) throws IOException {
+    List<Token<String>> tokens = new ArrayList<>();
+    TokenStream stream = analyzer.reusableTokenStream("", new StringReader(content));
+    OffsetAttribute offset = stream.getAttribute(OffsetAttribute.class);
+    CharTermAttribute term = stream.getAttribute(CharTermAttribute.class);
+    stream.reset();
+    while (stream.incrementToken()) {
+      tokens.add(new Token<String>(term.toString(), offset.startOffset(), offset.endOffset()));
+    }
+    stream.end();
+    stream.close();
+    return tokens;
   }
 
-  String combineTokens(List<Token<String>> tokens) {
-    return on(' ').join(transform(tokens, new Function<Token<String>, String>() {
-      @Override
-      public String apply(Token<String> input) {
-        return input.getToken();
-      }
-    }));
+  /***
+   * @return the annotation groups of content, in descending order of their offsets
+   */
+  List<EntityAnnotationGroup> getAnnotationGroups(String content, EntityFormatConfiguration config)
+      throws IOException {
+    checkNotNull(content);
+    List<EntityAnnotation> annotations = recognizer.getAnnotations(getTokens(content), config);
+    return getAnnotationGroups(annotations, config.isLongestOnly());
   }
 
   protected List<EntityAnnotation> getAnnotations(String content, EntityFormatConfiguration config)
-      throws InterruptedException {
-    checkNotNull(content);
-    BlockingQueue<List<Token<String>>> queue = startShingleProducer(content);
-    List<EntityAnnotation> annotations = new ArrayList<>();
-    while (true) {
-      List<Token<String>> tokens = queue.take();
-      if (tokens.equals(ShingleProducer.END_TOKEN)) {
-        break;
-      }
-      if (LuceneUtils.isStopword(getFirst(tokens, null).getToken()) || 
-          LuceneUtils.isStopword(getLast(tokens).getToken())) {
-        continue;
-      } 
-
-      String candidate = combineTokens(tokens);
-      if (candidate.length() < config.getMinLength()) {
-        continue;
-      }
-      int start = tokens.get(0).getStart();
-      int end = tokens.get(tokens.size() - 1).getEnd();
-      for (Entity entity: recognizer.getEntities(candidate, config)) {
-        annotations.add(new EntityAnnotation(entity, start, end));
-      }
-    }
-
+      throws IOException {
     List<EntityAnnotation> ret = newArrayList();
-    for (EntityAnnotationGroup group : getAnnotationGroups(annotations, config.isLongestOnly())) {
+    for (EntityAnnotationGroup group : getAnnotationGroups(content, config)) {
       ret.addAll(group);
     }
     Collections.sort(ret);
@@ -181,12 +169,26 @@ class EntityProcessorImpl implements EntityProcessor {
    */
   protected final String insertSpans(List<EntityAnnotation> annotationList, String content,
       EntityFormatConfiguration config) throws IOException {
-    StringBuilder buffer = new StringBuilder(content);
+    StringWriter writer = new StringWriter();
+    writeSpans(getAnnotationGroups(annotationList, config.isLongestOnly()), content, config, writer);
+    return writer.toString();
+  }
 
+  /***
+   * Write content with markup around each annotation group in a single forward pass, copying the
+   * text between groups straight to writer.
+   * 
+   * @param groups the annotation groups, in descending order of their offsets as returned by
+   *        {@link #getAnnotationGroups(List, boolean)}
+   * @throws IOException
+   */
+  protected final void writeSpans(List<EntityAnnotationGroup> groups, String content,
+      EntityFormatConfiguration config, Writer writer) throws IOException {
     Set<String> terms = newHashSet();
     Set<String> attrs = newHashSet();
     Set<String> cssClasses = newHashSet();
-    for (EntityAnnotationGroup group : getAnnotationGroups(annotationList, config.isLongestOnly())) {
+    int position = 0;
+    for (EntityAnnotationGroup group : Lists.reverse(groups)) {
       cssClasses.clear();
       attrs.clear();
       terms.clear();
@@ -202,11 +204,19 @@ class EntityProcessorImpl implements EntityProcessor {
         attrs.add(format("%s=\"%s\"", config.getDataAttrName(), on("|").join(terms)));
       }
 
-      buffer.insert(group.getEnd(), "</span>");
-      buffer.insert(group.getStart(),
-          format("<span class=\"%s\" %s>", on(" ").join(cssClasses), on(" ").join(attrs)));
+      int start = group.getStart();
+      int end = group.getEnd();
+      writer.write(content, position, start - position);
+      writer.write("<span class=\"");
+      writer.write(on(" ").join(cssClasses));
+      writer.write("\" ");
+      writer.write(on(" ").join(attrs));
+      writer.write(">");
+      writer.write(content, start, end - start);
+      writer.write("</span>");
+      position = end;
     }
-    return buffer.toString();
+    writer.write(content, position, content.length() - position);
   }
 
   /***
@@ -309,17 +319,20 @@ class EntityProcessorImpl implements EntityProcessor {
           eltStack.pop();
         } else if (segment.getClass().equals(Segment.class)) {
           if (shouldAnnotate(eltStack, config)) {
+            String text = segment.toString();
+            List<EntityAnnotationGroup> groups;
             try {
-              List<EntityAnnotation> annotationList = getAnnotations(segment.toString(), config);
-
-              entities.addAll(annotationList);
-              config.getWriter().write(insertSpans(annotationList, segment.toString(), config));
+              groups = getAnnotationGroups(text, config);
             } catch (IOException e) {
-              config.getWriter().write(segment.toString());
+              // Only analysis failures are recovered from: the segment is then written unannotated
+              config.getWriter().write(text);
               logger.warning(e.getMessage());
-            } catch (InterruptedException e) {
-              Thread.currentThread().interrupt();
+              continue;
+            }
+            for (EntityAnnotationGroup group : groups) {
+              entities.addAll(group);
             }
+            writeSpans(groups, text, config, config.getWriter());
           } else {
             config.getWriter().write(segment.toString());
           }
@@ -335,6 +348,53 @@ class EntityProcessorImpl implements EntityProcessor {
     }
   }
 
+  @Override
+  public <T> void annotateEntities(Iterator<T> documents,
+      Function<? super T, EntityFormatConfiguration> configurations, Executor executor,
+      int maxConcurrent, final AnnotationCallback<? super T> callback) throws InterruptedException {
+    checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+    final Semaphore permits = new Semaphore(maxConcurrent);
+    try {
+      while (documents.hasNext()) {
+        permits.acquire();
+        final T document;
+        final EntityFormatConfiguration configuration;
+        try {
+          document = documents.next();
+          configuration = configurations.apply(document);
+        } catch (RuntimeException e) {
+          permits.release();
+          throw e;
+        }
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                List<EntityAnnotation> annotations;
+                try {
+                  annotations = annotateEntities(configuration);
+                } catch (Exception e) {
+                  callback.onFailure(document, e);
+                  return;
+                }
+                callback.onSuccess(document, annotations);
+              } finally {
+                permits.release();
+              }
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          callback.onFailure(document, e);
+        }
+      }
+    } finally {
+      // Wait for the documents that are still being annotated
+      permits.acquire(maxConcurrent);
+    }
+  }
+
   private static class Element extends ForwardingMap<String, String> {
 
     String name;
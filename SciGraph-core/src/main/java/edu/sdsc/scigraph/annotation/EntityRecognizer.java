@@ -16,24 +16,37 @@
 package edu.sdsc.scigraph.annotation;
 
 import static com.google.common.collect.Iterables.getFirst;
+import static com.google.common.collect.Lists.transform;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Collections.disjoint;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
 
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
 
 import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
 import edu.sdsc.scigraph.vocabulary.Vocabulary;
 import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
 
 public class EntityRecognizer {
 
+  private static final Function<Token<String>, String> TOKEN_TEXT =
+      new Function<Token<String>, String>() {
+    @Override
+    public String apply(Token<String> token) {
+      return token.getToken();
+    }
+  };
+
   private final Vocabulary<Concept> vocabulary;
 
   @Inject
@@ -77,4 +90,33 @@ public class EntityRecognizer {
     return entities;
   }
 
+  /***
+   * Looks up the entities of every shingle of up to {@link ShingleIterator#DEFAULT_SHINGLE_COUNT}
+   * tokens that neither starts nor ends with a stop word. Recognizers that can find the entities
+   * of a text in one pass over its tokens override this.
+   * 
+   * @param tokens the analyzed tokens of a text
+   * @return the annotations of every entity in the tokens
+   */
+  List<EntityAnnotation> getAnnotations(List<Token<String>> tokens, EntityFormatConfiguration config) {
+    List<EntityAnnotation> annotations = new ArrayList<>();
+    ShingleIterator shingles = new ShingleIterator(tokens.iterator());
+    while (shingles.hasNext()) {
+      List<Token<String>> shingle = shingles.next();
+      Token<String> first = shingle.get(0);
+      Token<String> last = shingle.get(shingle.size() - 1);
+      if (LuceneUtils.isStopword(first.getToken()) || LuceneUtils.isStopword(last.getToken())) {
+        continue;
+      }
+      String candidate = Joiner.on(' ').join(transform(shingle, TOKEN_TEXT));
+      if (candidate.length() < config.getMinLength()) {
+        continue;
+      }
+      for (Entity entity: getEntities(candidate, config)) {
+        annotations.add(new EntityAnnotation(entity, first.getStart(), last.getEnd()));
+      }
+    }
+    return annotations;
+  }
+
 }
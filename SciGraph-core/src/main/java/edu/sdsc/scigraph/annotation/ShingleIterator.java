@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.collect.AbstractIterator;
+
+/***
+ * Iterates over the shingles of a sequence of tokens.
+ * <p>
+ * For each token, produces every shingle of up to shingleCount tokens that starts with it, from
+ * the shortest to the longest. Tokens are pulled from the underlying iterator only as they are
+ * needed and kept in a ring buffer of shingleCount tokens.
+ * <p>
+ * The returned shingles are views of the ring buffer and are only valid until the next shingle is
+ * requested. Callers that keep a shingle must copy it.
+ */
+@NotThreadSafe
+public class ShingleIterator extends AbstractIterator<List<Token<String>>> {
+
+  final static int DEFAULT_SHINGLE_COUNT = 4;
+
+  private final Iterator<? extends Token<String>> tokens;
+  private final Token<String>[] buffer;
+
+  /*** the index of the first token of the buffer */
+  private int head = 0;
+  /*** the number of tokens in the buffer */
+  private int count = 0;
+  /*** the number of shingles produced from the first token of the buffer */
+  private int produced = 0;
+
+  public ShingleIterator(Iterator<? extends Token<String>> tokens) {
+    this(tokens, DEFAULT_SHINGLE_COUNT);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ShingleIterator(Iterator<? extends Token<String>> tokens, int shingleCount) {
+    this.tokens = tokens;
+    this.buffer = new Token[shingleCount];
+  }
+
+  private final class Shingle extends AbstractList<Token<String>> {
+
+    private final int start;
+    private final int size;
+
+    Shingle(int start, int size) {
+      this.start = start;
+      this.size = size;
+    }
+
+    @Override
+    public Token<String> get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return buffer[(start + index) % buffer.length];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+  }
+
+  private void fill() {
+    // Fill the buffer first, before producing any shingle from it
+    while (count < buffer.length && tokens.hasNext()) {
+      buffer[(head + count) % buffer.length] = tokens.next();
+      count++;
+    }
+  }
+
+  @Override
+  protected List<Token<String>> computeNext() {
+    if (produced == count) {
+      if (count > 0) {
+        buffer[head] = null;
+        head = (head + 1) % buffer.length;
+        count--;
+        produced = 0;
+      }
+      fill();
+      if (0 == count) {
+        return endOfData();
+      }
+    }
+    produced++;
+    return new Shingle(head, produced);
+  }
+
+}
@@ -17,6 +17,8 @@ package edu.sdsc.scigraph.frames;
 
 import com.tinkerpop.frames.Property;
 
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
 public interface Concept extends NodeProperties {
 
   public static final String PREFERRED_LABEL = "preferedLabel";
@@ -38,6 +40,12 @@ public interface Concept extends NodeProperties {
   @Property(SYNONYM)
   public void addSynonym(String synonym);
 
+  /***
+   * @return the normalized form of each synonym, in the same order as {@link #getSynonyms()}
+   */
+  @Property(SYNONYM + LuceneUtils.NORMALIZED_SUFFIX)
+  public Iterable<String> getNormalizedSynonyms();
+
   @Property(ACRONYM)
   public Iterable<String> getAcronyms();
 
@@ -0,0 +1,300 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.frames;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.neo4j.graphdb.Node;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.frames.FramedGraph;
+import com.tinkerpop.frames.VertexFrame;
+
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
+/***
+ * A {@link Concept} that reads the properties of a Neo4j node directly.
+ * 
+ * <p>Getters avoid the Frames proxy and its method handlers: single values are returned as stored
+ * and multi-valued properties are only decoded when requested, as a view of the stored array.
+ * Setters, adjacencies, and {@link #asVertex()} are delegated to a Frames proxy which is
+ * created on first use. Views are equal to Frames proxies of the same node.
+ */
+public class ConceptView implements Concept {
+
+  private final Node node;
+  private final Supplier<Concept> frame;
+
+  public ConceptView(final Node node, final FramedGraph<?> framedGraph) {
+    this.node = node;
+    this.frame = Suppliers.memoize(new Supplier<Concept>() {
+      @Override
+      public Concept get() {
+        return framedGraph.getVertex(node.getId(), Concept.class);
+      }
+    });
+  }
+
+  public Node getNode() {
+    return node;
+  }
+
+  String getSingle(String property) {
+    Object value = node.getProperty(property, null);
+    if (value instanceof String[]) {
+      throw new IllegalStateException("Can't get " + property + " when it is multivalued");
+    }
+    return (String) value;
+  }
+
+  Iterable<String> getMultiple(String property) {
+    Object value = node.getProperty(property, null);
+    if (null == value) {
+      return Collections.emptyList();
+    } else if (value instanceof String[]) {
+      return Arrays.asList((String[]) value);
+    } else {
+      return Collections.singletonList((String) value);
+    }
+  }
+
+  boolean getBoolean(String property) {
+    return (Boolean) node.getProperty(property, false);
+  }
+
+  @Override
+  public String getUri() {
+    return getSingle(URI);
+  }
+
+  @Override
+  public String getFragment() {
+    return getSingle(FRAGMENT);
+  }
+
+  @Override
+  public String getCurie() {
+    return getSingle(CURIE);
+  }
+
+  @Override
+  public boolean isNegated() {
+    return getBoolean(NEGATED);
+  }
+
+  @Override
+  public String getParentOntology() {
+    return getSingle(PARENT_ONTOLOGY);
+  }
+
+  @Override
+  public String getOntology() {
+    return getSingle(ONTOLOGY);
+  }
+
+  @Override
+  public String getOntologyVersion() {
+    return getSingle(ONTOLOGY_VERSION);
+  }
+
+  @Override
+  public Iterable<String> getTypes() {
+    return getMultiple(TYPE);
+  }
+
+  @Override
+  public Iterable<String> getLabels() {
+    return getMultiple(LABEL);
+  }
+
+  @Override
+  public Iterable<String> getNormalizedLabels() {
+    return getMultiple(LABEL + LuceneUtils.NORMALIZED_SUFFIX);
+  }
+
+  @Override
+  public void isInferred() {
+  }
+
+  @Override
+  public boolean isAnonymous() {
+    return getBoolean(ANONYMOUS);
+  }
+
+  @Override
+  public String getPreferredLabel() {
+    return getSingle(PREFERRED_LABEL);
+  }
+
+  @Override
+  public Iterable<String> getSynonyms() {
+    return getMultiple(SYNONYM);
+  }
+
+  @Override
+  public Iterable<String> getNormalizedSynonyms() {
+    return getMultiple(SYNONYM + LuceneUtils.NORMALIZED_SUFFIX);
+  }
+
+  @Override
+  public Iterable<String> getAcronyms() {
+    return getMultiple(ACRONYM);
+  }
+
+  @Override
+  public Iterable<String> getAbbreviations() {
+    return getMultiple(ABREVIATION);
+  }
+
+  @Override
+  public String getDefinition() {
+    return getSingle(DEFINITION);
+  }
+
+  @Override
+  public Iterable<String> getCategories() {
+    return getMultiple(CATEGORY);
+  }
+
+  @Override
+  public void setUri(String uri) {
+    frame.get().setUri(uri);
+  }
+
+  @Override
+  public void setFragment(String uri) {
+    frame.get().setFragment(uri);
+  }
+
+  @Override
+  public void setCurie(String curie) {
+    frame.get().setCurie(curie);
+  }
+
+  @Override
+  public void setNegated(boolean negated) {
+    frame.get().setNegated(negated);
+  }
+
+  @Override
+  public void setParentOntology(String ontology) {
+    frame.get().setParentOntology(ontology);
+  }
+
+  @Override
+  public void setOntology(String ontology) {
+    frame.get().setOntology(ontology);
+  }
+
+  @Override
+  public void setOntologyVersion(String version) {
+    frame.get().setOntologyVersion(version);
+  }
+
+  @Override
+  public void addType(String type) {
+    frame.get().addType(type);
+  }
+
+  @Override
+  public void addLabel(String label) {
+    frame.get().addLabel(label);
+  }
+
+  @Override
+  public void setInferred(boolean inferred) {
+    frame.get().setInferred(inferred);
+  }
+
+  @Override
+  public void setAnonymous(boolean anonymous) {
+    frame.get().setAnonymous(anonymous);
+  }
+
+  @Override
+  public void setPreferredLabel(String preferredLabel) {
+    frame.get().setPreferredLabel(preferredLabel);
+  }
+
+  @Override
+  public void addSynonym(String synonym) {
+    frame.get().addSynonym(synonym);
+  }
+
+  @Override
+  public void addAcronym(String acronym) {
+    frame.get().addAcronym(acronym);
+  }
+
+  @Override
+  public void addAbbreviation(String abbreviation) {
+    frame.get().addAbbreviation(abbreviation);
+  }
+
+  @Override
+  public void setDefinition(String term) {
+    frame.get().setDefinition(term);
+  }
+
+  @Override
+  public void addCategory(String category) {
+    frame.get().addCategory(category);
+  }
+
+  @Override
+  public Iterable<Concept> getSubclasses() {
+    return frame.get().getSubclasses();
+  }
+
+  @Override
+  public Iterable<Concept> getSuperclasses() {
+    return frame.get().getSuperclasses();
+  }
+
+  @Override
+  public Iterable<Concept> getEquivalentClasses() {
+    return frame.get().getEquivalentClasses();
+  }
+
+  @Override
+  public Vertex asVertex() {
+    return frame.get().asVertex();
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.valueOf(node.getId()).hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof ConceptView) {
+      return node.getId() == ((ConceptView) obj).node.getId();
+    } else if (obj instanceof VertexFrame) {
+      return Long.valueOf(node.getId()).equals(((VertexFrame) obj).asVertex().getId());
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "v[" + node.getId() + "]";
+  }
+
+}
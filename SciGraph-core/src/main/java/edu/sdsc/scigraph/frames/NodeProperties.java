@@ -19,6 +19,8 @@ import com.tinkerpop.frames.Adjacency;
 import com.tinkerpop.frames.Property;
 import com.tinkerpop.frames.VertexFrame;
 
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
 public interface NodeProperties extends CommonProperties, VertexFrame {
 
   public static final String LABEL = "label";
@@ -31,6 +33,13 @@ public interface NodeProperties extends CommonProperties, VertexFrame {
   @Property(LABEL)
   public Iterable<String> getLabels();
 
+  /***
+   * @return the normalized form of each label, in the same order as {@link #getLabels()}.
+   * Empty if the labels were not added through {@link edu.sdsc.scigraph.neo4j.Graph}.
+   */
+  @Property(LABEL + LuceneUtils.NORMALIZED_SUFFIX)
+  public Iterable<String> getNormalizedLabels();
+
   @Property(INFERRED)
   public void setInferred(boolean inferred);
 
@@ -18,9 +18,11 @@ package edu.sdsc.scigraph.internal;
 import static com.google.common.collect.Collections2.transform;
 import static com.google.common.collect.Iterables.getOnlyElement;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -37,31 +39,59 @@ import org.neo4j.graphdb.traversal.Evaluator;
 import org.neo4j.graphdb.traversal.Evaluators;
 import org.neo4j.graphdb.traversal.TraversalDescription;
 import org.neo4j.kernel.Traversal;
+import org.neo4j.kernel.Uniqueness;
 import org.neo4j.tooling.GlobalGraphOperations;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
 
 import edu.sdsc.scigraph.frames.CommonProperties;
 import edu.sdsc.scigraph.frames.Concept;
 import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.internal.hierarchy.HierarchyIndex;
+import edu.sdsc.scigraph.internal.reachability.ReachabilityIndex;
 import edu.sdsc.scigraph.neo4j.EdgeType;
 import edu.sdsc.scigraph.neo4j.Graph;
 
 public class GraphApi {
 
   private final Graph<Concept> graph;
+  private final ReachabilityIndex reachabilityIndex;
+  private final HierarchyIndex hierarchyIndex;
 
   @Inject
   GraphApi(Graph<Concept> graph) {
     this.graph = graph;
+    this.reachabilityIndex = new ReachabilityIndex(graph.getGraphDb());
+    this.hierarchyIndex = new HierarchyIndex(graph.getGraphDb());
   }
 
   public boolean classIsInCategory(Node candidate, Node parentConcept) {
     return classIsInCategory(candidate, parentConcept, EdgeType.SUBCLASS_OF);
   }
 
+  /***
+   * Check if candidate is a descendant of parent along relationships.
+   * 
+   * <p>Subclass checks between indexed classes are answered directly by the hierarchy index as
+   * long as the graph hasn't changed since it was created.
+   * Otherwise, if a current reachability index exists it is consulted first. The index covers every
+   * relationship type so it can only rule a parent out; pairs it can't rule out are confirmed by
+   * traversal.
+   */
   public boolean classIsInCategory(Node candidate, Node parent, RelationshipType... relationships) {
+    if (relationships.length == 1 && EdgeType.SUBCLASS_OF.name().equals(relationships[0].name())
+        && hierarchyIndex.isCurrent()
+        && hierarchyIndex.isIndexed(candidate) && hierarchyIndex.isIndexed(parent)) {
+      return hierarchyIndex.isSubclassOf(candidate, parent);
+    }
+    if (!candidate.equals(parent) && reachabilityIndex.isCurrent()
+        && reachabilityIndex.isIndexed(candidate) && reachabilityIndex.isIndexed(parent)
+        && !reachabilityIndex.canReach(candidate, parent)) {
+      return false;
+    }
     TraversalDescription description = Traversal.description().depthFirst()
         .evaluator(new Evaluator() {
           @Override
@@ -87,6 +117,64 @@ public class GraphApi {
     return false;
   }
 
+  /***
+   * Evaluate directed reachability (over any relationship type) for many pairs at once.
+   * 
+   * <p>The reachability index is used when it exists and the graph hasn't changed since it was
+   * created. Otherwise a single traversal is done per distinct start node.
+   * 
+   * @param pairs (start, end) node pairs
+   * @return the subset of pairs where start can reach end
+   */
+  public Set<Entry<Node, Node>> getReachablePairs(Collection<? extends Entry<Node, Node>> pairs) {
+    if (reachabilityIndex.isCurrent()) {
+      return reachabilityIndex.getConnectedPairs(pairs);
+    }
+    Multimap<Node, Node> targets = HashMultimap.create();
+    for (Entry<Node, Node> pair: pairs) {
+      targets.put(pair.getKey(), pair.getValue());
+    }
+    Set<Entry<Node, Node>> reachablePairs = new HashSet<>();
+    for (Node start: targets.keySet()) {
+      reachablePairs.addAll(traverseToTargets(start, targets.get(start)));
+    }
+    return reachablePairs;
+  }
+
+  /***
+   * Evaluate directed reachability (over any relationship type) from every start node to every
+   * end node, with the reachability index when it is current.
+   * 
+   * @param starts
+   * @param ends
+   * @return the (start, end) pairs where start can reach end
+   */
+  public Set<Entry<Node, Node>> getReachablePairs(Collection<Node> starts, Collection<Node> ends) {
+    if (reachabilityIndex.isCurrent()) {
+      return reachabilityIndex.getConnectedPairs(starts, ends);
+    }
+    Set<Entry<Node, Node>> reachablePairs = new HashSet<>();
+    for (Node start: new HashSet<>(starts)) {
+      reachablePairs.addAll(traverseToTargets(start, ends));
+    }
+    return reachablePairs;
+  }
+
+  Set<Entry<Node, Node>> traverseToTargets(Node start, Collection<Node> ends) {
+    Set<Node> remaining = new HashSet<>(ends);
+    Set<Entry<Node, Node>> reachablePairs = new HashSet<>();
+    for (Path path: Traversal.description().breadthFirst().uniqueness(Uniqueness.NODE_GLOBAL)
+        .expand(Traversal.expanderForAllTypes(Direction.OUTGOING)).traverse(start)) {
+      if (remaining.remove(path.endNode())) {
+        reachablePairs.add(new AbstractMap.SimpleImmutableEntry<>(start, path.endNode()));
+        if (remaining.isEmpty()) {
+          break;
+        }
+      }
+    }
+    return reachablePairs;
+  }
+
   /***
    * TODO: Add a boolean for equivalent classes
    * 
@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.facets;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.GraphContentVersion;
+
+/***
+ * Concept counts for each category and ontology in the graph.
+ * 
+ * <p>The counts are computed with a single pass over the graph and stored on the metadata node so
+ * that they can be served without scanning the graph again. Loaders should drop and recreate the
+ * index whenever the graph changes. {@link #getCurrentFacets()} only uses the stored counts while
+ * the graph hasn't changed since they were computed.
+ */
+public class FacetIndex {
+
+  private static final Logger logger = Logger.getLogger(FacetIndex.class.getName());
+
+  private static final String INDEX_EXISTS_PROPERTY = "FacetIndexExists";
+  private static final String CATEGORIES_PROPERTY = "FacetIndexCategories";
+  private static final String CATEGORY_COUNTS_PROPERTY = "FacetIndexCategoryCounts";
+  private static final String ONTOLOGIES_PROPERTY = "FacetIndexOntologies";
+  private static final String ONTOLOGY_COUNTS_PROPERTY = "FacetIndexOntologyCounts";
+  private static final String VERSION_PROPERTY = "FacetIndexVersion";
+
+  private static final String[] NO_NAMES = new String[0];
+  private static final int[] NO_COUNTS = new int[0];
+
+  private final GraphDatabaseService graphDb;
+
+  private final GraphContentVersion contentVersion;
+
+  /***
+   * Manage a facet index on a graph
+   * @param graphDb The graph on which to build the facet index
+   */
+  public FacetIndex(GraphDatabaseService graphDb) {
+    this.graphDb = graphDb;
+    this.contentVersion = new GraphContentVersion(graphDb);
+  }
+
+  Node getMetaDataNode() {
+    return graphDb.getNodeById(0);
+  }
+
+  /***
+   * @return if a facet index has already been created on this graph.
+   */
+  public boolean indexExists() {
+    try {
+      return (boolean)getMetaDataNode().getProperty(INDEX_EXISTS_PROPERTY, false);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  /***
+   * @return if a facet index exists and the content of the graph has not changed since it was
+   *         created
+   */
+  public boolean isCurrent() {
+    try {
+      return indexExists()
+          && contentVersion.get() == (long)getMetaDataNode().getProperty(VERSION_PROPERTY, -1L);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  static class Counts {
+    final Multiset<String> categories = HashMultiset.create();
+    final Multiset<String> ontologies = HashMultiset.create();
+  }
+
+  /***
+   * Add each distinct value of a (possibly multi valued) property to counts.
+   */
+  static void count(Multiset<String> counts, Object value) {
+    if (value instanceof String[]) {
+      for (String item: new HashSet<>(Arrays.asList((String[])value))) {
+        counts.add(item);
+      }
+    } else if (null != value) {
+      counts.add(value.toString());
+    }
+  }
+
+  Counts countFacets() {
+    Counts counts = new Counts();
+    for (Node n : GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      count(counts.categories, n.getProperty(Concept.CATEGORY, null));
+      count(counts.ontologies, n.getProperty(CommonProperties.ONTOLOGY, null));
+    }
+    return counts;
+  }
+
+  /***
+   * Create a facet index on a graph.
+   */
+  public void createIndex() {
+    if (indexExists()) {
+      throw new IllegalStateException("Facet index already exists. Drop it first and then recreate it.");
+    }
+    Stopwatch timer = Stopwatch.createStarted();
+    long version = contentVersion.get();
+    Counts counts = countFacets();
+    Transaction tx = graphDb.beginTx();
+    try {
+      Node metaDataNode = getMetaDataNode();
+      setCounts(metaDataNode, CATEGORIES_PROPERTY, CATEGORY_COUNTS_PROPERTY, counts.categories);
+      setCounts(metaDataNode, ONTOLOGIES_PROPERTY, ONTOLOGY_COUNTS_PROPERTY, counts.ontologies);
+      metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, true);
+      metaDataNode.setProperty(VERSION_PROPERTY, version);
+      contentVersion.markIndexTransaction();
+      tx.success();
+    } finally {
+      tx.finish();
+    }
+    logger.info("Facet index created in " + timer + " for " + counts.categories.elementSet().size()
+        + " categories and " + counts.ontologies.elementSet().size() + " ontologies.");
+  }
+
+  static void setCounts(Node node, String namesProperty, String countsProperty, Multiset<String> counts) {
+    String[] names = new String[counts.elementSet().size()];
+    int[] values = new int[names.length];
+    int i = 0;
+    for (Multiset.Entry<String> entry: counts.entrySet()) {
+      names[i] = entry.getElement();
+      values[i++] = entry.getCount();
+    }
+    node.setProperty(namesProperty, names);
+    node.setProperty(countsProperty, values);
+  }
+
+  public void dropIndex() {
+    if (indexExists()) {
+      Transaction tx = graphDb.beginTx();
+      try {
+        Node metaDataNode = getMetaDataNode();
+        metaDataNode.removeProperty(CATEGORIES_PROPERTY);
+        metaDataNode.removeProperty(CATEGORY_COUNTS_PROPERTY);
+        metaDataNode.removeProperty(ONTOLOGIES_PROPERTY);
+        metaDataNode.removeProperty(ONTOLOGY_COUNTS_PROPERTY);
+        metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, false);
+        metaDataNode.removeProperty(VERSION_PROPERTY);
+        contentVersion.markIndexTransaction();
+        tx.success();
+      } finally {
+        tx.finish();
+      }
+      logger.info("Facet index dropped.");
+    } else {
+      logger.warning("There was no facet index to drop.");
+    }
+  }
+
+  static SortedMap<String, Integer> toMap(Multiset<String> counts) {
+    SortedMap<String, Integer> map = new TreeMap<>();
+    for (Multiset.Entry<String> entry: counts.entrySet()) {
+      map.put(entry.getElement(), entry.getCount());
+    }
+    return Collections.unmodifiableSortedMap(map);
+  }
+
+  SortedMap<String, Integer> readCounts(String namesProperty, String countsProperty) {
+    Node metaDataNode = getMetaDataNode();
+    String[] names = (String[])metaDataNode.getProperty(namesProperty, NO_NAMES);
+    int[] counts = (int[])metaDataNode.getProperty(countsProperty, NO_COUNTS);
+    SortedMap<String, Integer> map = new TreeMap<>();
+    for (int i = 0; i < names.length; i++) {
+      map.put(names[i], counts[i]);
+    }
+    return Collections.unmodifiableSortedMap(map);
+  }
+
+  /***
+   * Falls back to scanning the graph if there is no index.
+   * @return the number of concepts in each category, sorted by category
+   */
+  public SortedMap<String, Integer> getCategoryCounts() {
+    if (indexExists()) {
+      return readCounts(CATEGORIES_PROPERTY, CATEGORY_COUNTS_PROPERTY);
+    }
+    return toMap(countFacets().categories);
+  }
+
+  /***
+   * Falls back to scanning the graph if there is no index.
+   * @return the number of concepts in each ontology, sorted by ontology
+   */
+  public SortedMap<String, Integer> getOntologyCounts() {
+    if (indexExists()) {
+      return readCounts(ONTOLOGIES_PROPERTY, ONTOLOGY_COUNTS_PROPERTY);
+    }
+    return toMap(countFacets().ontologies);
+  }
+
+  /***
+   * Category and ontology counts of the graph at one point in time.
+   */
+  public static class Facets {
+    private final SortedMap<String, Integer> categories;
+    private final SortedMap<String, Integer> ontologies;
+
+    Facets(SortedMap<String, Integer> categories, SortedMap<String, Integer> ontologies) {
+      this.categories = categories;
+      this.ontologies = ontologies;
+    }
+
+    public SortedMap<String, Integer> getCategories() {
+      return categories;
+    }
+
+    public SortedMap<String, Integer> getOntologies() {
+      return ontologies;
+    }
+  }
+
+  /***
+   * Reads the stored counts if they are current, otherwise counts both facets with a single scan.
+   * @return the current counts of the graph
+   */
+  public Facets getCurrentFacets() {
+    if (isCurrent()) {
+      return new Facets(readCounts(CATEGORIES_PROPERTY, CATEGORY_COUNTS_PROPERTY),
+          readCounts(ONTOLOGIES_PROPERTY, ONTOLOGY_COUNTS_PROPERTY));
+    }
+    Counts counts = countFacets();
+    return new Facets(toMap(counts.categories), toMap(counts.ontologies));
+  }
+
+}
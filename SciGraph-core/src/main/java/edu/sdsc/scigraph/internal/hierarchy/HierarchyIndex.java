@@ -0,0 +1,383 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.primitives.Ints;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.neo4j.EdgeType;
+import edu.sdsc.scigraph.neo4j.GraphContentVersion;
+
+/***
+ * An interval encoding of the SUBCLASS_OF hierarchy between OWL classes.
+ * 
+ * <p>Classes are numbered in pre-order over a spanning forest of the hierarchy. Each class stores
+ * its own number and the sorted, merged intervals of numbers of all its subclasses. The tree
+ * interval covers the spanning tree and any extra intervals are the exceptions introduced by
+ * multiple inheritance. Checking subsumption is then a binary search over a (usually single
+ * element) interval list rather than a traversal.
+ */
+public class HierarchyIndex {
+
+  private static final Logger logger = Logger.getLogger(HierarchyIndex.class.getName());
+
+  private static final String INDEX_EXISTS_PROPERTY = "HierarchyIndexExists";
+  private static final String PREORDER_PROPERTY = "HierarchyIndexPreorder";
+  private static final String INTERVALS_PROPERTY = "HierarchyIndexIntervals";
+  private static final String VERSION_PROPERTY = "HierarchyIndexVersion";
+
+  private static final String CLASS_TYPE = "OWLClass";
+
+  private final GraphDatabaseService graphDb;
+
+  private final GraphContentVersion contentVersion;
+
+  private int transactionBatchSize = 500000;
+
+  /***
+   * Manage a hierarchy index on a graph
+   * @param graphDb The graph on which to build the hierarchy index
+   */
+  public HierarchyIndex(GraphDatabaseService graphDb) {
+    this.graphDb = graphDb;
+    this.contentVersion = new GraphContentVersion(graphDb);
+  }
+
+  Node getMetaDataNode() {
+    return graphDb.getNodeById(0);
+  }
+
+  /***
+   * @return if a hierarchy index has already been created on this graph.
+   */
+  public boolean indexExists() {
+    try {
+      return (boolean)getMetaDataNode().getProperty(INDEX_EXISTS_PROPERTY, false);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  /***
+   * @return if a hierarchy index exists and the content of the graph has not changed since it was
+   *         created
+   */
+  public boolean isCurrent() {
+    try {
+      return indexExists()
+          && contentVersion.get() == (long)getMetaDataNode().getProperty(VERSION_PROPERTY, -1L);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  public void setTransactionBatchSize(int size) { this.transactionBatchSize = size;}
+
+  static boolean isClass(Node node) {
+    Object type = node.getProperty(CommonProperties.TYPE, null);
+    if (type instanceof String[]) {
+      return Arrays.asList((String[])type).contains(CLASS_TYPE);
+    }
+    return CLASS_TYPE.equals(type);
+  }
+
+  /***
+   * Create a hierarchy index on a graph.
+   */
+  public void createIndex() {
+    if (indexExists()) {
+      throw new IllegalStateException("Hierarchy index already exists. Drop it first and then recreate it.");
+    }
+    Stopwatch timer = Stopwatch.createStarted();
+    long version = contentVersion.get();
+
+    List<Long> classIds = new ArrayList<>();
+    for (Node n : GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      if (n.getId() > 0 && isClass(n)) {
+        classIds.add(n.getId());
+      }
+    }
+    long[] nodeIds = new long[classIds.size()];
+    Map<Long, Integer> positions = new HashMap<>();
+    for (int i = 0; i < nodeIds.length; i++) {
+      nodeIds[i] = classIds.get(i);
+      positions.put(nodeIds[i], i);
+    }
+
+    int[][] children = getChildren(nodeIds, positions);
+    Encoding encoding = encode(children);
+
+    commitIndexToGraph(nodeIds, encoding, version);
+    logger.info("Hierarchy index created in " + timer + " for " + nodeIds.length + " classes.");
+  }
+
+  int[][] getChildren(long[] nodeIds, Map<Long, Integer> positions) {
+    List<List<Integer>> children = new ArrayList<>();
+    for (int i = 0; i < nodeIds.length; i++) {
+      children.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < nodeIds.length; i++) {
+      Node child = graphDb.getNodeById(nodeIds[i]);
+      for (Relationship r: child.getRelationships(Direction.OUTGOING, EdgeType.SUBCLASS_OF)) {
+        Integer parent = positions.get(r.getEndNode().getId());
+        if (null != parent && parent != i) {
+          children.get(parent).add(i);
+        }
+      }
+    }
+    int[][] childArrays = new int[nodeIds.length][];
+    for (int i = 0; i < nodeIds.length; i++) {
+      childArrays[i] = Ints.toArray(children.get(i));
+    }
+    return childArrays;
+  }
+
+  static class Encoding {
+    final int[] preorder;
+    final int[][] intervals;
+
+    Encoding(int[] preorder, int[][] intervals) {
+      this.preorder = preorder;
+      this.intervals = intervals;
+    }
+  }
+
+  /***
+   * @param children the children of each class
+   * @return the pre-order number and subclass intervals of each class
+   */
+  static Encoding encode(int[][] children) {
+    int size = children.length;
+    boolean[] hasParent = new boolean[size];
+    for (int[] childList: children) {
+      for (int child: childList) {
+        hasParent[child] = true;
+      }
+    }
+
+    int[] preorder = new int[size];
+    int[] treeEnd = new int[size];
+    Arrays.fill(preorder, -1);
+    boolean[] onStack = new boolean[size];
+    int[] finishOrder = new int[size];
+    int finished = 0;
+    int counter = 0;
+    boolean hasCycle = false;
+
+    int[] stack = new int[size];
+    int[] cursor = new int[size];
+    // Roots first, then anything left over, which must be part of a cycle
+    for (int pass = 0; pass < 2; pass++) {
+      for (int root = 0; root < size; root++) {
+        if (preorder[root] >= 0 || (pass == 0 && hasParent[root])) {
+          continue;
+        }
+        int depth = 0;
+        stack[0] = root;
+        cursor[0] = 0;
+        preorder[root] = counter++;
+        onStack[root] = true;
+        while (depth >= 0) {
+          int node = stack[depth];
+          if (cursor[depth] < children[node].length) {
+            int child = children[node][cursor[depth]++];
+            if (preorder[child] < 0) {
+              preorder[child] = counter++;
+              onStack[child] = true;
+              depth++;
+              stack[depth] = child;
+              cursor[depth] = 0;
+            } else if (onStack[child]) {
+              hasCycle = true;
+            }
+          } else {
+            treeEnd[node] = counter - 1;
+            onStack[node] = false;
+            finishOrder[finished++] = node;
+            depth--;
+          }
+        }
+      }
+    }
+
+    // Children finish before their parents so one pass suffices unless there are cycles
+    int[][] intervals = new int[size][];
+    for (int i = 0; i < size; i++) {
+      intervals[i] = new int[] {preorder[i], treeEnd[i]};
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < size; i++) {
+        int node = finishOrder[i];
+        int[] merged = merge(intervals[node], children[node], intervals);
+        if (!Arrays.equals(merged, intervals[node])) {
+          intervals[node] = merged;
+          changed = true;
+        }
+      }
+      changed &= hasCycle;
+    }
+    return new Encoding(preorder, intervals);
+  }
+
+  /***
+   * @return the sorted union of own and the intervals of each child
+   */
+  static int[] merge(int[] own, int[] children, int[][] intervals) {
+    int count = own.length / 2;
+    for (int child: children) {
+      count += intervals[child].length / 2;
+    }
+    long[] packed = new long[count];
+    int k = 0;
+    for (int j = 0; j < own.length; j += 2) {
+      packed[k++] = ((long)own[j] << 32) | own[j + 1];
+    }
+    for (int child: children) {
+      int[] childIntervals = intervals[child];
+      for (int j = 0; j < childIntervals.length; j += 2) {
+        packed[k++] = ((long)childIntervals[j] << 32) | childIntervals[j + 1];
+      }
+    }
+    // Interval bounds are non-negative so sorting packed longs sorts by start
+    Arrays.sort(packed);
+    int[] merged = new int[count * 2];
+    int length = 0;
+    for (long interval: packed) {
+      int start = (int)(interval >>> 32);
+      int end = (int)interval;
+      if (length > 0 && start <= merged[length - 1] + 1) {
+        merged[length - 1] = Math.max(merged[length - 1], end);
+      } else {
+        merged[length++] = start;
+        merged[length++] = end;
+      }
+    }
+    return Arrays.copyOf(merged, length);
+  }
+
+  void commitIndexToGraph(long[] nodeIds, Encoding encoding, long version) {
+    Transaction tx = graphDb.beginTx();
+    try {
+      for (int i = 0; i < nodeIds.length; i++) {
+        if (i > 0 && i % transactionBatchSize == 0) {
+          contentVersion.markIndexTransaction();
+          tx.success();
+          tx.finish();
+          tx = graphDb.beginTx();
+        }
+        Node node = graphDb.getNodeById(nodeIds[i]);
+        node.setProperty(PREORDER_PROPERTY, encoding.preorder[i]);
+        node.setProperty(INTERVALS_PROPERTY, encoding.intervals[i]);
+      }
+      getMetaDataNode().setProperty(INDEX_EXISTS_PROPERTY, true);
+      getMetaDataNode().setProperty(VERSION_PROPERTY, version);
+      contentVersion.markIndexTransaction();
+      tx.success();
+    } finally {
+      tx.finish();
+    }
+  }
+
+  public void dropIndex() {
+    if (indexExists()) {
+      Transaction tx = graphDb.beginTx();
+      try {
+        int counter = 0;
+        for (Node n : GlobalGraphOperations.at(graphDb).getAllNodes()) {
+          n.removeProperty(PREORDER_PROPERTY);
+          n.removeProperty(INTERVALS_PROPERTY);
+          if (++counter % transactionBatchSize == 0) {
+            contentVersion.markIndexTransaction();
+            tx.success();
+            tx.finish();
+            tx = graphDb.beginTx();
+          }
+        }
+        getMetaDataNode().setProperty(INDEX_EXISTS_PROPERTY, false);
+        getMetaDataNode().removeProperty(VERSION_PROPERTY);
+        contentVersion.markIndexTransaction();
+        tx.success();
+      } finally {
+        tx.finish();
+      }
+      logger.info("Hierarchy index dropped.");
+    } else {
+      logger.warning("There was no hierarchy index to drop.");
+    }
+  }
+
+  /***
+   * @param node
+   * @return true if node was encoded when the index was created
+   */
+  public boolean isIndexed(Node node) {
+    return node.hasProperty(PREORDER_PROPERTY);
+  }
+
+  /***
+   * @param candidate
+   * @param parent
+   * @return true if candidate is parent or one of its (transitive) subclasses
+   */
+  public boolean isSubclassOf(Node candidate, Node parent) {
+    if (!indexExists()) {
+      throw new IllegalStateException("Hierarchy index must be created first."); 
+    }
+    int preorder = (int)candidate.getProperty(PREORDER_PROPERTY);
+    int[] intervals = (int[])parent.getProperty(INTERVALS_PROPERTY);
+    return contains(intervals, preorder);
+  }
+
+  /***
+   * @param intervals sorted, disjoint [start, end] pairs
+   * @param value
+   * @return true if value is inside one of the intervals
+   */
+  static boolean contains(int[] intervals, int value) {
+    int low = 0;
+    int high = intervals.length / 2 - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (value < intervals[2 * middle]) {
+        high = middle - 1;
+      } else if (value > intervals[2 * middle + 1]) {
+        low = middle + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.reachability;
+
+/***
+ * Node ids ordered by descending hop coverage, ties broken by ascending id.
+ * 
+ * <p>Nodes excluded from the index have a coverage of -1 and sort last.
+ */
+class HopCoverages {
+
+  private final long[] nodeIds;
+  private final int[] coverages;
+
+  private HopCoverages(long[] nodeIds, int[] coverages) {
+    this.nodeIds = nodeIds;
+    this.coverages = coverages;
+  }
+
+  int size() {
+    return nodeIds.length;
+  }
+
+  long getNodeId(int i) {
+    return nodeIds[i];
+  }
+
+  int getCoverage(int i) {
+    return coverages[i];
+  }
+
+  /***
+   * Counting sort by coverage. Coverages are bounded by the maximum node degree so this is
+   * linear and avoids boxing every node.
+   * 
+   * @param nodeIds node ids in ascending order
+   * @param coverages the coverage of each node id
+   * @return the sorted coverages
+   */
+  static HopCoverages sort(long[] nodeIds, int[] coverages) {
+    int max = -1;
+    for (int coverage: coverages) {
+      max = Math.max(max, coverage);
+    }
+    // Shift by one so that excluded nodes (-1) get a bucket
+    int[] offsets = new int[max + 2];
+    for (int coverage: coverages) {
+      offsets[coverage + 1]++;
+    }
+    int offset = 0;
+    for (int bucket = max + 1; bucket >= 0; bucket--) {
+      int count = offsets[bucket];
+      offsets[bucket] = offset;
+      offset += count;
+    }
+    long[] sortedIds = new long[nodeIds.length];
+    int[] sortedCoverages = new int[coverages.length];
+    for (int i = 0; i < nodeIds.length; i++) {
+      int position = offsets[coverages[i] + 1]++;
+      sortedIds[position] = nodeIds[i];
+      sortedCoverages[position] = coverages[i];
+    }
+    return new HopCoverages(sortedIds, sortedCoverages);
+  }
+
+}
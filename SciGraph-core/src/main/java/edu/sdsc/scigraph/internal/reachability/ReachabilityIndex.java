@@ -17,20 +17,30 @@ package edu.sdsc.scigraph.internal.reachability;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.size;
+import static com.google.common.collect.Sets.newHashSet;
 import static java.lang.String.format;
 
 import java.util.AbstractMap;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.traversal.TraversalDescription;
@@ -40,8 +50,11 @@ import org.neo4j.tooling.GlobalGraphOperations;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.primitives.Longs;
 
+import edu.sdsc.scigraph.neo4j.GraphContentVersion;
+
 public class ReachabilityIndex {
 
   private static final Logger logger = Logger.getLogger(ReachabilityIndex.class.getName());
@@ -49,10 +62,14 @@ public class ReachabilityIndex {
   private static final String INDEX_EXISTS_PROPERTY = "ReachablilityIndexExists";
   private static final String IN_LIST_PROPERTY  = "ReachablilityIndexInList";
   private static final String OUT_LIST_PROPERTY = "ReachablilityIndexOutList";
+  private static final String VERSION_PROPERTY = "ReachablilityIndexVersion";
+
+  private static final long[] EMPTY_LIST = new long[0];
 
   private final GraphDatabaseService graphDb;
-  private final Node metaDataNode;
-  
+
+  private final GraphContentVersion contentVersion;
+
   private int transactionBatchSize = 500000;   //default transaction size.
 
   /***
@@ -61,14 +78,35 @@ public class ReachabilityIndex {
    */
   public ReachabilityIndex(GraphDatabaseService graphDb) {
     this.graphDb = graphDb;
-    metaDataNode = graphDb.getNodeById(0);
+    this.contentVersion = new GraphContentVersion(graphDb);
+  }
+
+  Node getMetaDataNode() {
+    return graphDb.getNodeById(0);
   }
 
   /***
    * @return if a reachability index has already been created on this graph.
    */
   public boolean indexExists() {
-    return (boolean)metaDataNode.getProperty(INDEX_EXISTS_PROPERTY, false);
+    try {
+      return (boolean)getMetaDataNode().getProperty(INDEX_EXISTS_PROPERTY, false);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  /***
+   * @return if a reachability index exists and the content of the graph has not changed since it
+   *         was created
+   */
+  public boolean isCurrent() {
+    try {
+      return indexExists()
+          && contentVersion.get() == (long)getMetaDataNode().getProperty(VERSION_PROPERTY, -1L);
+    } catch (NotFoundException e) {
+      return false;
+    }
   }
 
   public void createIndex() throws InterruptedException {
@@ -90,8 +128,9 @@ public class ReachabilityIndex {
       throw new IllegalStateException("Reachability index already exists. Drop it first and then recreate it.");
     }
 
+    long version = contentVersion.get();
     long startTime = System.currentTimeMillis();
-    Set<Entry<Long, Integer>> hopCoverages = getHopCoverages(nodePredicate);
+    HopCoverages hopCoverages = getHopCoverages(nodePredicate);
     long endTime = System.currentTimeMillis();
     logger.info(format("Takes %d second(s) to calculate HopCoverage",
         TimeUnit.MILLISECONDS.toSeconds(endTime - startTime)));
@@ -108,12 +147,12 @@ public class ReachabilityIndex {
 
     startTime = System.currentTimeMillis();
     
-    for (Entry<Long, Integer> coverage : hopCoverages) {
-    
-      Node workingNode = graphDb.getNodeById(coverage.getKey());
+    for (int i = 0; i < hopCoverages.size(); i++) {
+      long nodeId = hopCoverages.getNodeId(i);
+      Node workingNode = graphDb.getNodeById(nodeId);
 
-      if ( coverage.getValue()<0 ) {
-    	inMemoryIndex.put(coverage.getKey(), new InOutList()) ; 
+      if ( hopCoverages.getCoverage(i)<0 ) {
+    	inMemoryIndex.put(nodeId, new InOutList()) ; 
       } else {
         InOutListTraverser incomingListTaverser = new InOutListTraverser(incomingTraversal,workingNode);
         incomingListTaverser.start();
@@ -130,11 +169,11 @@ public class ReachabilityIndex {
     endTime = System.currentTimeMillis();
 
     logger.info("InMemoryReachability index building time: " + ((endTime-startTime)/1000) + " sec(s).");
-    commitIndexToGraph(inMemoryIndex);
+    commitIndexToGraph(inMemoryIndex, version);
     logger.info("Reachability index created.");
   }
 
-  void commitIndexToGraph(MemoryReachabilityIndex inMemoryIndex) {
+  void commitIndexToGraph(MemoryReachabilityIndex inMemoryIndex, long version) {
     Transaction tx = graphDb.beginTx();
 
     int operationCount = 0;
@@ -143,6 +182,7 @@ public class ReachabilityIndex {
       operationCount++;
       if ( operationCount % transactionBatchSize == 0 ) {
         logger.fine("commit transaction when populating in-out list.");
+        contentVersion.markIndexTransaction();
         tx.success();
         tx.finish();
         tx = graphDb.beginTx();
@@ -151,7 +191,9 @@ public class ReachabilityIndex {
       node.setProperty(OUT_LIST_PROPERTY, Longs.toArray(e.getValue().getOutList()));
     }
 
-    metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, true);
+    getMetaDataNode().setProperty(INDEX_EXISTS_PROPERTY, true);
+    getMetaDataNode().setProperty(VERSION_PROPERTY, version);
+    contentVersion.markIndexTransaction();
     tx.success();
     tx.finish();
   }
@@ -168,6 +210,7 @@ public class ReachabilityIndex {
     	counter ++;
     	if ( counter % transactionBatchSize == 0) {
     		logger.fine("commit transaction when populating in-out list.");
+            contentVersion.markIndexTransaction();
             tx.success();
             tx.finish();
             tx = graphDb.beginTx();
@@ -175,7 +218,9 @@ public class ReachabilityIndex {
       }
 
       // reset the flag.
-      metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, false);
+      getMetaDataNode().setProperty(INDEX_EXISTS_PROPERTY, false);
+      getMetaDataNode().removeProperty(VERSION_PROPERTY);
+      contentVersion.markIndexTransaction();
 
       tx.success();
       tx.finish();
@@ -188,25 +233,50 @@ public class ReachabilityIndex {
   /**
    * @return The hop coverage for each node sorted in descending order.
    */
-  SortedSet<Entry<Long,Integer>> getHopCoverages(Predicate<Node> nodePredicate){
-    SortedSet<Entry<Long,Integer>> nodeSet = new TreeSet<Entry<Long,Integer>>(
-        new Comparator<Entry<Long,Integer>>() {
-          @Override
-          public int compare(Entry<Long,Integer> a, Entry<Long,Integer> b) {
-            int difference = b.getValue() - a.getValue();
-            return (0 != difference) ? difference : (int)(a.getKey() - b.getKey());
-          }
-        });
+  HopCoverages getHopCoverages(Predicate<Node> nodePredicate) throws InterruptedException {
+    long[] nodeIds = getNodeIds();
+    int[] coverages = new int[nodeIds.length];
+
+    int threadCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), nodeIds.length));
+    int partitionSize = (nodeIds.length + threadCount - 1) / threadCount;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<Void>> counters = new ArrayList<>();
+      for (int from = 0; from < nodeIds.length; from += partitionSize) {
+        counters.add(executor.submit(new HopCoverageCounter(graphDb, nodePredicate,
+            nodeIds, coverages, from, Math.min(from + partitionSize, nodeIds.length))));
+      }
+      for (Future<Void> counter: counters) {
+        try {
+          counter.get();
+        } catch (ExecutionException e) {
+          throw Throwables.propagate(e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return HopCoverages.sort(nodeIds, coverages);
+  }
 
+  /***
+   * @return the sorted ids of every node except the metadata node
+   */
+  long[] getNodeIds() {
+    long[] nodeIds = new long[1024];
+    int count = 0;
     for (Node n : GlobalGraphOperations.at(graphDb).getAllNodes()) {
-      if ( n.getId() > 0 ) {
-        int relationshipCount = nodePredicate.apply(n) ? 	  
-    		  size(n.getRelationships()) : -1;
-        nodeSet.add(new AbstractMap.SimpleEntry<Long, Integer>(n.getId(), relationshipCount));
+      if (n.getId() > 0) {
+        if (count == nodeIds.length) {
+          nodeIds = Arrays.copyOf(nodeIds, count * 2);
+        }
+        nodeIds[count++] = n.getId();
       }
     }
-
-    return nodeSet;
+    nodeIds = Arrays.copyOf(nodeIds, count);
+    Arrays.sort(nodeIds);
+    return nodeIds;
   }
 
   /**
@@ -221,8 +291,84 @@ public class ReachabilityIndex {
 
     long[] outList = (long[])startNode.getProperty(OUT_LIST_PROPERTY);
     long[] inList = (long[])endNode.getProperty(IN_LIST_PROPERTY);
-    int i = 0, j = 0;
+    return intersects(outList, inList);
+  }
 
+  /***
+   * @param node
+   * @return true if node has in and out lists in the index
+   */
+  public boolean isIndexed(Node node) {
+    return node.hasProperty(IN_LIST_PROPERTY) && node.hasProperty(OUT_LIST_PROPERTY);
+  }
+
+  /***
+   * Evaluate many (start, end) pairs together.
+   * 
+   * <p>Each distinct node's in or out list is only loaded from the graph once. Nodes that were
+   * added after the index was created can't reach (or be reached by) anything.
+   * 
+   * @param pairs (startNode, endNode) pairs to check
+   * @return the subset of pairs where startNode can reach endNode
+   */
+  public Set<Entry<Node, Node>> getConnectedPairs(Iterable<? extends Entry<Node, Node>> pairs) {
+    if (!indexExists()) {
+      throw new IllegalStateException("Reachability index must be created first."); 
+    }
+    Map<Node, long[]> outLists = new HashMap<>();
+    Map<Node, long[]> inLists = new HashMap<>();
+    Set<Entry<Node, Node>> connectedPairs = new HashSet<>();
+    for (Entry<Node, Node> pair: pairs) {
+      long[] outList = getList(outLists, pair.getKey(), OUT_LIST_PROPERTY);
+      long[] inList = getList(inLists, pair.getValue(), IN_LIST_PROPERTY);
+      if (intersects(outList, inList)) {
+        connectedPairs.add(new AbstractMap.SimpleImmutableEntry<>(pair.getKey(), pair.getValue()));
+      }
+    }
+    return connectedPairs;
+  }
+
+  /***
+   * Evaluate every start node against every end node.
+   * 
+   * @param startNodes
+   * @param endNodes
+   * @return the (startNode, endNode) pairs where startNode can reach endNode
+   */
+  public Set<Entry<Node, Node>> getConnectedPairs(Iterable<Node> startNodes, Iterable<Node> endNodes) {
+    if (!indexExists()) {
+      throw new IllegalStateException("Reachability index must be created first."); 
+    }
+    Map<Node, long[]> inLists = new HashMap<>();
+    for (Node endNode: endNodes) {
+      getList(inLists, endNode, IN_LIST_PROPERTY);
+    }
+    Set<Entry<Node, Node>> connectedPairs = new HashSet<>();
+    for (Node startNode: newHashSet(startNodes)) {
+      long[] outList = (long[])startNode.getProperty(OUT_LIST_PROPERTY, EMPTY_LIST);
+      for (Entry<Node, long[]> inList: inLists.entrySet()) {
+        if (intersects(outList, inList.getValue())) {
+          connectedPairs.add(new AbstractMap.SimpleImmutableEntry<>(startNode, inList.getKey()));
+        }
+      }
+    }
+    return connectedPairs;
+  }
+
+  private static long[] getList(Map<Node, long[]> cache, Node node, String property) {
+    long[] list = cache.get(node);
+    if (null == list) {
+      list = (long[])node.getProperty(property, EMPTY_LIST);
+      cache.put(node, list);
+    }
+    return list;
+  }
+
+  /***
+   * @return true if the two sorted lists share an element
+   */
+  static boolean intersects(long[] outList, long[] inList) {
+    int i = 0, j = 0;
     while (i < outList.length && j < inList.length) {
       if (outList[i] < inList[j]) { 
         i++;
@@ -235,6 +381,39 @@ public class ReachabilityIndex {
     return false;
   }
 
+  /***
+   * Counts the relationships of a partition of nodes.
+   */
+  static class HopCoverageCounter implements Callable<Void> {
+
+    private final GraphDatabaseService graphDb;
+    private final Predicate<Node> nodePredicate;
+    private final long[] nodeIds;
+    private final int[] coverages;
+    private final int from;
+    private final int to;
+
+    HopCoverageCounter(GraphDatabaseService graphDb, Predicate<Node> nodePredicate,
+        long[] nodeIds, int[] coverages, int from, int to) {
+      this.graphDb = graphDb;
+      this.nodePredicate = nodePredicate;
+      this.nodeIds = nodeIds;
+      this.coverages = coverages;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Void call() {
+      for (int i = from; i < to; i++) {
+        Node n = graphDb.getNodeById(nodeIds[i]);
+        coverages[i] = nodePredicate.apply(n) ? size(n.getRelationships()) : -1;
+      }
+      return null;
+    }
+
+  }
+
   static class InOutListTraverser extends Thread {
 
     private final TraversalDescription traversalDescription;
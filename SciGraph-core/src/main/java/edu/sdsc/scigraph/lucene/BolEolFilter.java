@@ -63,4 +63,11 @@ public final class BolEolFilter extends TokenFilter {
     return false;
   }
 
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    addedBol = false;
+    addedEol = false;
+  }
+
 }
\ No newline at end of file
@@ -19,24 +19,24 @@ import java.io.Reader;
 import java.util.regex.Pattern;
 
 import org.apache.lucene.analysis.ASCIIFoldingFilter;
-import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.KeywordTokenizer;
 import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.util.Version;
 
-public final class ExactAnalyzer extends Analyzer {
+public final class ExactAnalyzer extends ReusableAnalyzerBase {
 
   private static final Pattern pattern = Pattern.compile("'");
 
   @Override
-  public TokenStream tokenStream(String fieldName, Reader reader) {
+  protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
     Tokenizer tokenizer = new KeywordTokenizer(reader);
     TokenStream result = new LowerCaseFilter(Version.LUCENE_36, tokenizer);
     result = new ASCIIFoldingFilter(result);
     result = new PatternReplaceFilter(result, pattern, "", true);
-    return result;
+    return new TokenStreamComponents(tokenizer, result);
   }
 
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import java.io.StringReader;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.StopAnalyzer;
@@ -32,12 +33,29 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.util.Version;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
 public class LuceneUtils {
 
   public static final String EXACT_SUFFIX = "_EXACT";
 
+  /***
+   * Suffix of properties holding the {@link #normalize(String) normalized} form of each value
+   * of another property, in the same order.
+   */
+  public static final String NORMALIZED_SUFFIX = "_NORMALIZED";
+
+  /***
+   * Matches a token with its leading and trailing punctuation, the token itself is group 2.
+   */
+  public static final Pattern SURROUNDING_PUNCTUATION =
+      Pattern.compile("^([\\.!\\?,:;\"'\\(\\)]*)(.*?)([\\.!\\?,:;\"'\\(\\)]*)$");
+
+  public static final Pattern POSSESSIVE = Pattern.compile("'s");
+
+  private static final Analyzer exactAnalyzer = new ExactAnalyzer();
+
   /***
    * @return The current Lucene version in use across the application
    */
@@ -82,6 +100,13 @@ public class LuceneUtils {
     return query;
   }
 
+  /***
+   * @return text as it is analyzed by {@link ExactAnalyzer}
+   */
+  public static String normalize(String text) {
+    return Iterables.getFirst(getTokenization(exactAnalyzer, (CharSequence) text), "");
+  }
+
   public static String getTokenization(Analyzer analyzer, String term) {
     List<String> ret = getTokenization(analyzer, (CharSequence) term);
     return Joiner.on(", ").join(ret);
@@ -91,12 +116,14 @@ public class LuceneUtils {
     List<String> ret = Lists.newArrayList();
 
     try {
-      TokenStream stream = analyzer.tokenStream("", new StringReader(term.toString()));
+      TokenStream stream = analyzer.reusableTokenStream("", new StringReader(term.toString()));
       CharTermAttribute token = stream.getAttribute(CharTermAttribute.class);
       stream.reset();
       while (stream.incrementToken()) {
         ret.add(token.toString());
       }
+      stream.end();
+      stream.close();
     } catch (IOException e) {
       e.printStackTrace();
     }
@@ -40,6 +40,8 @@ public final class PatternReplaceFilter extends TokenFilter {
   private final boolean all;
   private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
   private final Matcher m;
+  /** Reused for every replaced token, Matcher only appends to a StringBuffer */
+  private final StringBuffer transformed = new StringBuffer();
 
   /**
    * Constructs an instance to replace either the first, or all occurrences
@@ -68,8 +70,11 @@ public final class PatternReplaceFilter extends TokenFilter {
     
     m.reset();
     if (m.find()) {
-      // replaceAll/replaceFirst will reset() this previous find.
-      String transformed = all ? m.replaceAll(replacement) : m.replaceFirst(replacement);
+      transformed.setLength(0);
+      do {
+        m.appendReplacement(transformed, replacement);
+      } while (all && m.find());
+      m.appendTail(transformed);
       termAtt.setEmpty().append(transformed);
     }
 
@@ -15,60 +15,203 @@
  */
 package edu.sdsc.scigraph.lucene;
 
-import static com.google.common.collect.Lists.newArrayList;
-
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.fst.ByteSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
 import com.google.common.io.LineProcessor;
 import com.google.common.io.Resources;
 
+/***
+ * Supplies the lemmatization synonym map applied to indexed terms.
+ * 
+ * <p>A dictionary has one comma separated group of lemmas per line. It defaults to
+ * lemmatization.txt and can be swapped with the scigraph.lemmatization system property, either as
+ * a classpath resource or as a file. Building the map adds every pair of a group in both directions
+ * so a map prebuilt by {@link #main(String[])} and stored next to the dictionary with a .synonyms
+ * extension is loaded instead when it is present. The maven build writes the map of the default
+ * dictionary to the classes directory in the process-classes phase.
+ */
 class SynonymMapSupplier implements Supplier<SynonymMap> {
 
   private static final Logger logger = Logger.getLogger(SynonymMapSupplier.class.getName());
 
-  @Override
-  public SynonymMap get() {
-    try {
-      return Resources.readLines(Resources.getResource("lemmatization.txt"), Charsets.UTF_8, new LineProcessor<SynonymMap>() {
-
-        SynonymMap.Builder builder = new SynonymMap.Builder(true);
-
-        @Override
-        public boolean processLine(String line) throws IOException {
-          List<String> synonyms = newArrayList(Splitter.on(',').trimResults().split(line));
-          for (String term: synonyms) {
-            for (String synonym: synonyms) {
-              if (!term.equals(synonym)) {
-                builder.add(new CharsRef(term), new CharsRef(synonym), true);
-              }
+  static final String DICTIONARY_PROPERTY = "scigraph.lemmatization";
+  static final String DEFAULT_DICTIONARY = "lemmatization.txt";
+  static final String PREBUILT_EXTENSION = ".synonyms";
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final String dictionary;
+
+  SynonymMapSupplier() {
+    this(System.getProperty(DICTIONARY_PROPERTY, DEFAULT_DICTIONARY));
+  }
+
+  /***
+   * @param dictionary a classpath resource or file name
+   */
+  SynonymMapSupplier(String dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  static Optional<URL> locate(String name) throws IOException {
+    File file = new File(name);
+    if (file.isFile()) {
+      return Optional.of(file.toURI().toURL());
+    }
+    return Optional.fromNullable(SynonymMapSupplier.class.getClassLoader().getResource(name));
+  }
+
+  static String getPrebuiltName(String dictionary) {
+    int extension = dictionary.lastIndexOf('.');
+    if (extension > Math.max(dictionary.lastIndexOf('/'), dictionary.lastIndexOf(File.separatorChar))) {
+      return dictionary.substring(0, extension) + PREBUILT_EXTENSION;
+    }
+    return dictionary + PREBUILT_EXTENSION;
+  }
+
+  static SynonymMap build(URL dictionary) throws IOException {
+    return Resources.readLines(dictionary, Charsets.UTF_8, new LineProcessor<SynonymMap>() {
+
+      SynonymMap.Builder builder = new SynonymMap.Builder(true);
+
+      @Override
+      public boolean processLine(String line) throws IOException {
+        Set<String> synonyms = new LinkedHashSet<>();
+        for (String term: Splitter.on(',').trimResults().omitEmptyStrings().split(line)) {
+          synonyms.add(term);
+        }
+        for (String term: synonyms) {
+          CharsRef input = new CharsRef(term);
+          for (String synonym: synonyms) {
+            if (!term.equals(synonym)) {
+              builder.add(input, new CharsRef(synonym), true);
             }
           }
-          return true;
         }
+        return true;
+      }
 
-        @Override
-        public SynonymMap getResult() {
-          try {
-            return builder.build();
-          } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-          }
+      @Override
+      public SynonymMap getResult() {
+        try {
+          return builder.build();
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+  }
+
+  static void write(SynonymMap map, OutputStream os) throws IOException {
+    DataOutput out = new OutputStreamDataOutput(os);
+    out.writeInt(FORMAT_VERSION);
+    out.writeVInt(map.maxHorizontalContext);
+    out.writeVInt(map.words.size());
+    BytesRef word = new BytesRef();
+    for (int i = 0; i < map.words.size(); i++) {
+      map.words.get(i, word);
+      out.writeVInt(word.length);
+      out.writeBytes(word.bytes, word.offset, word.length);
+    }
+    map.fst.save(out);
+  }
+
+  /***
+   * Words are added in the order they were written so their ids still match the FST outputs.
+   */
+  static SynonymMap read(InputStream is) throws IOException {
+    DataInput in = new InputStreamDataInput(is);
+    int version = in.readInt();
+    if (FORMAT_VERSION != version) {
+      throw new IOException("Unsupported synonym map format: " + version);
+    }
+    int maxHorizontalContext = in.readVInt();
+    int size = in.readVInt();
+    BytesRefHash words = new BytesRefHash();
+    for (int i = 0; i < size; i++) {
+      byte[] bytes = new byte[in.readVInt()];
+      in.readBytes(bytes, 0, bytes.length);
+      if (words.add(new BytesRef(bytes)) != i) {
+        throw new IOException("Corrupt synonym map: duplicate word " + i);
+      }
+    }
+    FST<BytesRef> fst = new FST<>(in, ByteSequenceOutputs.getSingleton());
+    return new SynonymMap(fst, words, maxHorizontalContext);
+  }
+
+  @Override
+  public SynonymMap get() {
+    Stopwatch timer = Stopwatch.createStarted();
+    try {
+      Optional<URL> prebuilt = locate(getPrebuiltName(dictionary));
+      if (prebuilt.isPresent()) {
+        try (InputStream is = new BufferedInputStream(prebuilt.get().openStream())) {
+          SynonymMap map = read(is);
+          logger.fine("Loaded prebuilt synonym map " + prebuilt.get() + " in " + timer);
+          return map;
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Failed to load prebuilt synonym map, building it instead", e);
         }
-      });
+      }
+      Optional<URL> source = locate(dictionary);
+      if (!source.isPresent()) {
+        logger.warning("Failed to find lemmatization dictionary " + dictionary);
+        return null;
+      }
+      SynonymMap map = build(source.get());
+      logger.info("Built synonym map from " + source.get() + " in " + timer);
+      return map;
     } catch (Exception e) {
       logger.log(Level.WARNING, "Failed to build synonym map", e);
       return null;
     }
   }
 
+  /***
+   * Prebuild a synonym map.
+   * 
+   * @param args the dictionary and the file to write the map to
+   */
+  public static void main(String[] args) throws IOException {
+    if (2 != args.length) {
+      System.err.println("Usage: SynonymMapSupplier <dictionary> <output>");
+      System.exit(1);
+    }
+    Optional<URL> source = locate(args[0]);
+    if (!source.isPresent()) {
+      throw new IOException("Failed to find lemmatization dictionary " + args[0]);
+    }
+    SynonymMap map = build(source.get());
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+      write(map, os);
+    }
+  }
+
 }
@@ -20,13 +20,13 @@ import java.io.Reader;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import org.apache.lucene.analysis.ASCIIFoldingFilter;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.KeywordAnalyzer;
 import org.apache.lucene.analysis.LowerCaseFilter;
 import org.apache.lucene.analysis.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.StopFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
@@ -53,23 +53,23 @@ public final class VocabularyIndexAnalyzer extends Analyzer {
     analyzer = new PerFieldAnalyzerWrapper(new KeywordAnalyzer(), fieldAnalyzers);
   }
 
-  final static class TermAnalyzer extends Analyzer {
+  final static class TermAnalyzer extends ReusableAnalyzerBase {
 
     static SynonymMap map = Suppliers.memoize(new SynonymMapSupplier()).get();
 
     @SuppressWarnings("deprecation")
     @Override
-    public TokenStream tokenStream(String fieldName, Reader reader) {
+    protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
       Tokenizer tokenizer = new WhitespaceTokenizer(LuceneUtils.getVersion(), reader);
-      TokenStream result = new PatternReplaceFilter(tokenizer, Pattern.compile("^([\\.!\\?,:;\"'\\(\\)]*)(.*?)([\\.!\\?,:;\"'\\(\\)]*)$"), "$2", true);
-      result = new PatternReplaceFilter(result, Pattern.compile("'s"), "s", true);
+      TokenStream result = new PatternReplaceFilter(tokenizer, LuceneUtils.SURROUNDING_PUNCTUATION, "$2", true);
+      result = new PatternReplaceFilter(result, LuceneUtils.POSSESSIVE, "s", true);
       result = new BolEolFilter(result);
       result = new SynonymFilter(result, map, true);
       result = new StopFilter(false, result, LuceneUtils.caseSensitiveStopSet);
       result = new LowerCaseFilter(LuceneUtils.getVersion(), result);
       result = new ASCIIFoldingFilter(result);
 
-      return result;
+      return new TokenStreamComponents(tokenizer, result);
     }
 
   }
@@ -79,4 +79,9 @@ public final class VocabularyIndexAnalyzer extends Analyzer {
     return analyzer.tokenStream(fieldName, reader);
   }
 
+  @Override
+  public TokenStream reusableTokenStream(String fieldName, Reader reader) throws IOException {
+    return analyzer.reusableTokenStream(fieldName, reader);
+  }
+
 }
\ No newline at end of file
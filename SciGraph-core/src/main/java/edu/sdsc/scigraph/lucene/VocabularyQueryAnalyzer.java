@@ -15,16 +15,17 @@
  */
 package edu.sdsc.scigraph.lucene;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import org.apache.lucene.analysis.ASCIIFoldingFilter;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.KeywordAnalyzer;
 import org.apache.lucene.analysis.LowerCaseFilter;
 import org.apache.lucene.analysis.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.StopFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
@@ -47,19 +48,19 @@ public final class VocabularyQueryAnalyzer extends Analyzer {
     analyzer = new PerFieldAnalyzerWrapper(new KeywordAnalyzer(), fieldAnalyzers);
   }
 
-  final static class TermAnalyzer extends Analyzer {
+  final static class TermAnalyzer extends ReusableAnalyzerBase {
 
     @SuppressWarnings("deprecation")
     @Override
-    public TokenStream tokenStream(String fieldName, Reader reader) {
+    protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
       Tokenizer tokenizer = new WhitespaceTokenizer(LuceneUtils.getVersion(), reader);
-      TokenStream result = new PatternReplaceFilter(tokenizer, Pattern.compile("^([\\.!\\?,:;\"'\\(\\)]*)(.*?)([\\.!\\?,:;\"'\\(\\)]*)$"), "$2", true);
-      result = new PatternReplaceFilter(result, Pattern.compile("'s"), "s", true);
+      TokenStream result = new PatternReplaceFilter(tokenizer, LuceneUtils.SURROUNDING_PUNCTUATION, "$2", true);
+      result = new PatternReplaceFilter(result, LuceneUtils.POSSESSIVE, "s", true);
       result = new StopFilter(false, result, LuceneUtils.caseSensitiveStopSet);
       result = new LowerCaseFilter(LuceneUtils.getVersion(), result);
       result = new ASCIIFoldingFilter(result);
 
-      return result;
+      return new TokenStreamComponents(tokenizer, result);
     }
 
   }
@@ -69,4 +70,9 @@ public final class VocabularyQueryAnalyzer extends Analyzer {
     return analyzer.tokenStream(fieldName, reader);
   }
 
+  @Override
+  public TokenStream reusableTokenStream(String fieldName, Reader reader) throws IOException {
+    return analyzer.reusableTokenStream(fieldName, reader);
+  }
+
 }
\ No newline at end of file
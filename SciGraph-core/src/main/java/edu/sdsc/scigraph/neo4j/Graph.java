@@ -24,6 +24,7 @@ import java.lang.reflect.Array;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -48,10 +49,13 @@ import org.neo4j.graphdb.index.IndexManager;
 import org.neo4j.graphdb.index.ReadableIndex;
 import org.neo4j.graphdb.index.UniqueFactory;
 import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
 import com.tinkerpop.blueprints.oupls.jung.GraphJung;
 import com.tinkerpop.frames.FramedGraph;
@@ -62,6 +66,7 @@ import com.tinkerpop.frames.modules.AbstractModule;
 
 import edu.sdsc.scigraph.frames.CommonProperties;
 import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.ConceptView;
 import edu.sdsc.scigraph.frames.NodeProperties;
 import edu.sdsc.scigraph.frames.util.MultiPropertyMethodHandler;
 import edu.sdsc.scigraph.lucene.LuceneUtils;
@@ -73,8 +78,11 @@ public class Graph<N extends VertexFrame> {
 
   public static final String UNIQUE_PROPERTY = CommonProperties.URI;
 
-  private static final Set<String> NODE_PROPERTIES_TO_INDEX = 
-      newHashSet(CommonProperties.URI, NodeProperties.LABEL, 
+  /***
+   * The node properties that are indexed for vocabulary lookups.
+   */
+  public static final Set<String> NODE_PROPERTIES_TO_INDEX = 
+      ImmutableSet.of(CommonProperties.URI, NodeProperties.LABEL, 
           NodeProperties.LABEL + LuceneUtils.EXACT_SUFFIX, CommonProperties.CURIE,
           CommonProperties.ONTOLOGY,
           CommonProperties.FRAGMENT, Concept.CATEGORY, Concept.SYNONYM, Concept.SYNONYM + LuceneUtils.EXACT_SUFFIX);
@@ -90,6 +98,7 @@ public class Graph<N extends VertexFrame> {
   private final ReadableIndex<Node> nodeAutoIndex;
   private final FramedGraph<com.tinkerpop.blueprints.Graph> framedGraph;
   private final GraphJung<com.tinkerpop.blueprints.Graph> jungGraph;
+  private final XaDataSourceManager dataSourceManager;
 
   private final Class<?> nodeType;
 
@@ -102,6 +111,8 @@ public class Graph<N extends VertexFrame> {
       setupAutoIndexing();
     }
     this.nodeAutoIndex = graphDb.index().getNodeAutoIndexer().getAutoIndex();
+    this.dataSourceManager = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+        .resolveDependency(XaDataSourceManager.class);
 
     FramedGraphFactory factory = new FramedGraphFactory(new AbstractModule() {
       @Override
@@ -146,6 +157,13 @@ public class Graph<N extends VertexFrame> {
     return graphDb;
   }
 
+  /***
+   * @return the id of the last committed transaction, which changes whenever the graph does
+   */
+  public long getVersion() {
+    return dataSourceManager.getNeoStoreDataSource().getLastCommittedTxId();
+  }
+
   public ExecutionEngine getExecutionEngine() {
     return engine;
   }
@@ -223,8 +241,15 @@ public class Graph<N extends VertexFrame> {
     return (N) framedGraph.getVertex(n.getId(), nodeType);
   }
 
+  /***
+   * Concepts are returned as {@link ConceptView}s which read node properties directly rather than
+   * through Frames.
+   */
   @SuppressWarnings("unchecked")
   public N getOrCreateFramedNode(Node node) {
+    if (Concept.class.equals(nodeType)) {
+      return (N) new ConceptView(node, framedGraph);
+    }
     return (N) framedGraph.getVertex(node.getId(), nodeType);
   }
 
@@ -240,8 +265,9 @@ public class Graph<N extends VertexFrame> {
   }
 
   public Optional<N> getFramedNode(String uri) {
-    if (nodeExists(uri)) {
-      return Optional.of(getOrCreateFramedNode(uri));
+    Node node = nodeAutoIndex.get(CommonProperties.URI, getURI(uri).toString()).getSingle();
+    if (null != node) {
+      return Optional.of(getOrCreateFramedNode(node));
     }
     return Optional.absent();
   }
@@ -325,6 +351,35 @@ public class Graph<N extends VertexFrame> {
     container.setProperty(property, value);
     if (EXACT_PROPERTIES.contains(property)) {
       container.setProperty(property + LuceneUtils.EXACT_SUFFIX, value);
+      // Normalized values stay aligned with the values of property
+      if (value instanceof String) {
+        container.setProperty(property + LuceneUtils.NORMALIZED_SUFFIX, LuceneUtils.normalize((String) value));
+      } else if (value instanceof String[]) {
+        String[] values = (String[]) value;
+        String[] normalized = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+          normalized[i] = LuceneUtils.normalize(values[i]);
+        }
+        container.setProperty(property + LuceneUtils.NORMALIZED_SUFFIX, normalized);
+      } else {
+        container.removeProperty(property + LuceneUtils.NORMALIZED_SUFFIX);
+      }
+    }
+  }
+
+  /***
+   * Append value to property without removing duplicates.
+   */
+  static void appendProperty(PropertyContainer container, String property, String value) {
+    Object origValue = container.getProperty(property, null);
+    if (null == origValue) {
+      container.setProperty(property, value);
+    } else if (origValue instanceof String[]) {
+      String[] values = Arrays.copyOf((String[]) origValue, ((String[]) origValue).length + 1);
+      values[values.length - 1] = value;
+      container.setProperty(property, values);
+    } else {
+      container.setProperty(property, new String[] {(String) origValue, value});
     }
   }
 
@@ -349,6 +404,7 @@ public class Graph<N extends VertexFrame> {
         return;
       }
     }
+    boolean added = true;
     if (container.hasProperty(property)) {
       // We might be creating or updating an array - read everything into a Set<>
       Object origValue = container.getProperty(property);
@@ -361,7 +417,7 @@ public class Graph<N extends VertexFrame> {
       } else {
         valueSet.add(origValue);
       }
-      valueSet.add(value);
+      added = valueSet.add(value);
 
       // Now write the set back if necessary
       if (valueSet.size() > 1) {
@@ -377,6 +433,10 @@ public class Graph<N extends VertexFrame> {
     }
     if (EXACT_PROPERTIES.contains(property)) {
       addProperty(container, property + LuceneUtils.EXACT_SUFFIX, value);
+      // Normalized values stay aligned with the values of property
+      if (added && value instanceof String) {
+        appendProperty(container, property + LuceneUtils.NORMALIZED_SUFFIX, LuceneUtils.normalize((String) value));
+      }
     }
   }
 
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.neo4j;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+
+/***
+ * The version of the content of a graph, as opposed to the indexes derived from it and stored in
+ * it.
+ * <p>
+ * Building or dropping a derived index commits transactions like any other write. Each of those
+ * transactions records itself on the metadata node with {@link #markIndexTransaction()}, and the
+ * content version only moves on with the transactions that were not recorded. An index that
+ * stores the content version it was built from is then current until the content changes, no
+ * matter how many other indexes are built after it.
+ */
+public class GraphContentVersion {
+
+  private static final String CONTENT_VERSION_PROPERTY = "ContentVersion";
+  private static final String INDEX_TRANSACTION_PROPERTY = "ContentVersionIndexTransaction";
+
+  private final GraphDatabaseService graphDb;
+
+  private final XaDataSourceManager dataSourceManager;
+
+  public GraphContentVersion(GraphDatabaseService graphDb) {
+    this.graphDb = graphDb;
+    this.dataSourceManager = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+        .resolveDependency(XaDataSourceManager.class);
+  }
+
+  long getLastCommittedTxId() {
+    return dataSourceManager.getNeoStoreDataSource().getLastCommittedTxId();
+  }
+
+  /***
+   * @return the id of the last committed transaction that was not only a derived index write
+   */
+  public long get() {
+    long lastCommitted = getLastCommittedTxId();
+    try {
+      Node metaDataNode = graphDb.getNodeById(0);
+      if (lastCommitted == (long)metaDataNode.getProperty(INDEX_TRANSACTION_PROPERTY, -1L)) {
+        return (long)metaDataNode.getProperty(CONTENT_VERSION_PROPERTY);
+      }
+    } catch (NotFoundException e) {
+      // Without a metadata node no index transaction was ever recorded
+    }
+    return lastCommitted;
+  }
+
+  /***
+   * Records the current transaction as one that only writes a derived index.
+   * <p>
+   * The transaction is assumed to be the next one committed. If another writer gets in first, its
+   * write looks like an index write until this transaction commits, after which every index is
+   * stale.
+   */
+  public void markIndexTransaction() {
+    long contentVersion = get();
+    Node metaDataNode = graphDb.getNodeById(0);
+    metaDataNode.setProperty(CONTENT_VERSION_PROPERTY, contentVersion);
+    metaDataNode.setProperty(INDEX_TRANSACTION_PROPERTY, getLastCommittedTxId() + 1);
+  }
+
+}
@@ -31,6 +31,7 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
@@ -40,12 +41,14 @@ import com.google.inject.name.Names;
 
 import edu.sdsc.scigraph.frames.Concept;
 import edu.sdsc.scigraph.neo4j.bindings.IndicatesNeo4j;
+import edu.sdsc.scigraph.vocabulary.CachingVocabulary;
 import edu.sdsc.scigraph.vocabulary.Vocabulary;
 import edu.sdsc.scigraph.vocabulary.VocabularyNeo4jImpl;
 
 public class Neo4jModule extends AbstractModule {
 
   private Optional<String> graphLocation = Optional.absent();
+  private Optional<Long> vocabularyCacheWeight = Optional.absent();
 
   /***
    * @deprecated Configuration should now be done with yaml files.
@@ -57,6 +60,15 @@ public class Neo4jModule extends AbstractModule {
     this.graphLocation = Optional.of(configuration.getGraphLocation());
   }
 
+  /***
+   * @param configuration the graph configuration
+   * @param vocabularyCacheWeight if present vocabulary lookups are cached up to this total weight
+   */
+  public Neo4jModule(OntologyConfiguration configuration, Optional<Long> vocabularyCacheWeight) {
+    this(configuration);
+    this.vocabularyCacheWeight = vocabularyCacheWeight;
+  }
+
   @Override
   protected void configure() {
     if (!graphLocation.isPresent()) {
@@ -74,8 +86,17 @@ public class Neo4jModule extends AbstractModule {
 
   @Provides
   @Singleton
-  Vocabulary<Concept> getVocabulary(Graph<Concept> graph, @Named("neo4j.location") String graphLocation) throws IOException {
-    return new VocabularyNeo4jImpl<Concept>(graph, graphLocation);
+  Vocabulary<Concept> getVocabulary(final Graph<Concept> graph, @Named("neo4j.location") String graphLocation) throws IOException {
+    Vocabulary<Concept> vocabulary = new VocabularyNeo4jImpl<Concept>(graph, graphLocation);
+    if (vocabularyCacheWeight.isPresent()) {
+      vocabulary = new CachingVocabulary<Concept>(vocabulary, vocabularyCacheWeight.get(), new Supplier<Long>() {
+        @Override
+        public Long get() {
+          return graph.getVersion();
+        }
+      });
+    }
+    return vocabulary;
   }
 
   @Provides
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.neo4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/***
+ * Holds an in memory index derived from the graph and rebuilds it when the graph version changes.
+ * 
+ * <p>Only the first build happens on the calling thread. Later rebuilds run in the background,
+ * one at a time, and the previous index keeps being served until the new one is swapped in. A
+ * failed rebuild is logged and the previous index is kept until the graph changes again.
+ * 
+ * @param <T> the type of the index
+ */
+public abstract class VersionedIndex<T> {
+
+  private static final Logger logger = Logger.getLogger(VersionedIndex.class.getName());
+
+  private static final Executor BUILDERS = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("index-builder-%d").build());
+
+  private final Supplier<Long> versions;
+  private final Executor executor;
+  private final Object lock = new Object();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile Versioned<T> current;
+  private volatile long failedVersion = -1;
+
+  static class Versioned<T> {
+    final long version;
+    final T index;
+
+    Versioned(long version, T index) {
+      this.version = version;
+      this.index = index;
+    }
+  }
+
+  protected VersionedIndex(final Graph<?> graph) {
+    this(new Supplier<Long>() {
+      @Override
+      public Long get() {
+        return graph.getVersion();
+      }
+    }, BUILDERS);
+  }
+
+  /***
+   * @param versions supplies the current graph version
+   * @param executor runs rebuilds
+   */
+  protected VersionedIndex(Supplier<Long> versions, Executor executor) {
+    this.versions = versions;
+    this.executor = executor;
+  }
+
+  /***
+   * @param version the graph version the index is built from
+   * @return a new index
+   */
+  protected abstract T build(long version) throws Exception;
+
+  /***
+   * @return the index, which may be from an earlier version of the graph while it is rebuilt
+   */
+  public T get() {
+    long version = versions.get();
+    Versioned<T> versioned = current;
+    if (null == versioned) {
+      synchronized (lock) {
+        versioned = current;
+        if (null == versioned) {
+          try {
+            versioned = new Versioned<T>(version, build(version));
+          } catch (Exception e) {
+            throw Throwables.propagate(e);
+          }
+          current = versioned;
+        }
+      }
+    }
+    if (versioned.version != version && failedVersion != version) {
+      rebuild(version);
+    }
+    return current.index;
+  }
+
+  void rebuild(final long version) {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            current = new Versioned<T>(version, build(version));
+          } catch (Exception e) {
+            failedVersion = version;
+            logger.log(Level.WARNING, "Failed to rebuild index for graph version " + version, e);
+          } finally {
+            rebuilding.set(false);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rebuilding.set(false);
+      logger.log(Level.WARNING, "Failed to schedule an index rebuild", e);
+    }
+  }
+
+}
@@ -0,0 +1,522 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.owlapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.neo4j.graphdb.Transaction;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.util.OWLOntologyWalker;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.owlapi.OwlLoadConfiguration.MappedProperty;
+
+/***
+ * Generates seeded synthetic ontologies for load tests and benchmarks.
+ * 
+ * <p>Classes form a subclass DAG of bounded depth. The same configuration and seed always produce
+ * the same ontology. Synonyms use oboInOwl:hasExactSynonym, which should be mapped to
+ * {@link Concept#SYNONYM} when loading the output with {@link OwlLoader}.
+ */
+public class OntologyGenerator {
+
+  private static final Logger logger = Logger.getLogger(OntologyGenerator.class.getName());
+
+  public static final int DEFAULT_TRANSACTION_BATCH_SIZE = 10_000;
+
+  public static final String SYNONYM_PROPERTY = "http://www.geneontology.org/formats/oboInOwl#hasExactSynonym";
+
+  private static final String[] SYLLABLES = {"ad", "al", "an", "ar", "bra", "cer", "co", "cor",
+    "cyt", "den", "derm", "ep", "gan", "gli", "hip", "lo", "mus", "my", "neu", "no", "ol", "os",
+    "pa", "po", "ron", "sa", "sy", "te", "to", "um", "va", "ze"};
+
+  private final String baseIri;
+  private final int classCount;
+  private final int depth;
+  private final int branchingFactor;
+  private final double multipleInheritanceRate;
+  private final int maxSynonyms;
+  private final double restrictionRate;
+  private final int propertyCount;
+  private final double equivalenceRate;
+  private final int cliqueSize;
+  private final int categoryCount;
+  private final List<String> curiePrefixes;
+  private final long seed;
+
+  private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+  private OntologyGenerator(Builder builder) {
+    this.baseIri = builder.baseIri;
+    this.classCount = builder.classCount;
+    this.depth = builder.depth;
+    this.branchingFactor = builder.branchingFactor;
+    this.multipleInheritanceRate = builder.multipleInheritanceRate;
+    this.maxSynonyms = builder.maxSynonyms;
+    this.restrictionRate = builder.restrictionRate;
+    this.propertyCount = builder.propertyCount;
+    this.equivalenceRate = builder.equivalenceRate;
+    this.cliqueSize = builder.cliqueSize;
+    this.categoryCount = builder.categoryCount;
+    this.curiePrefixes = builder.curiePrefixes;
+    this.seed = builder.seed;
+  }
+
+  String getClassIri(int i) {
+    String prefix = curiePrefixes.get(i % curiePrefixes.size());
+    return format("%s/%s_%07d", baseIri, prefix, i);
+  }
+
+  /***
+   * @return a map of IRI prefixes to CURIE prefixes for the generated classes
+   */
+  public Map<String, String> getCuries() {
+    Map<String, String> curies = new HashMap<>();
+    for (String prefix: curiePrefixes) {
+      curies.put(format("%s/%s_", baseIri, prefix), prefix);
+    }
+    return curies;
+  }
+
+  /***
+   * @return a map of class IRIs to category names for the top level classes
+   */
+  public Map<String, String> getCategories() {
+    Map<String, String> categories = new LinkedHashMap<>();
+    // Classes are numbered breadth first so the lowest numbers are closest to the root
+    for (int i = 1; i <= Math.min(categoryCount, classCount - 1); i++) {
+      categories.put(getClassIri(i), "category " + i);
+    }
+    return categories;
+  }
+
+  static String getWord(Random random) {
+    StringBuilder word = new StringBuilder();
+    int syllables = 2 + random.nextInt(3);
+    for (int i = 0; i < syllables; i++) {
+      word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    return word.toString();
+  }
+
+  static String getLabel(Random random) {
+    List<String> words = new ArrayList<>();
+    int wordCount = 1 + random.nextInt(3);
+    for (int i = 0; i < wordCount; i++) {
+      words.add(getWord(random));
+    }
+    return Joiner.on(' ').join(words);
+  }
+
+  static void addAxiom(OWLOntology ontology, OWLAxiom axiom) {
+    ontology.getOWLOntologyManager().applyChange(new AddAxiom(ontology, axiom));
+  }
+
+  /***
+   * @return the parent of each class in a breadth first tree of bounded depth. The root's parent
+   *         is -1.
+   */
+  int[] getTreeParents(Random random) {
+    int[] parents = new int[classCount];
+    int[] depths = new int[classCount];
+    parents[0] = -1;
+    Queue<Integer> openParents = new ArrayDeque<>();
+    openParents.add(0);
+    int next = 1;
+    while (next < classCount) {
+      Integer parent = openParents.poll();
+      if (null == parent) {
+        // The tree is as deep as it's allowed to be so widen it instead
+        do {
+          parent = random.nextInt(next);
+        } while (depths[parent] >= depth);
+      }
+      // Children counts average to the branching factor
+      int children = 1 + random.nextInt(2 * branchingFactor - 1);
+      for (int i = 0; i < children && next < classCount; i++, next++) {
+        parents[next] = parent;
+        depths[next] = depths[parent] + 1;
+        if (depths[next] < depth) {
+          openParents.add(next);
+        }
+      }
+    }
+    return parents;
+  }
+
+  /***
+   * @return a newly generated ontology
+   * @throws OWLOntologyCreationException
+   */
+  public OWLOntology generate() throws OWLOntologyCreationException {
+    Random random = new Random(seed);
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    OWLOntology ontology = manager.createOntology(IRI.create(baseIri));
+    OWLAnnotationProperty synonymProperty = df.getOWLAnnotationProperty(IRI.create(SYNONYM_PROPERTY));
+
+    List<OWLObjectProperty> properties = new ArrayList<>();
+    for (int i = 0; i < propertyCount; i++) {
+      OWLObjectProperty property = df.getOWLObjectProperty(IRI.create(format("%s/property_%d", baseIri, i)));
+      addAxiom(ontology, df.getOWLDeclarationAxiom(property));
+      properties.add(property);
+    }
+
+    OWLClass[] classes = new OWLClass[classCount];
+    int[] parents = getTreeParents(random);
+    for (int i = 0; i < classCount; i++) {
+      classes[i] = df.getOWLClass(IRI.create(getClassIri(i)));
+      addAxiom(ontology, df.getOWLDeclarationAxiom(classes[i]));
+      addAxiom(ontology, df.getOWLAnnotationAssertionAxiom(classes[i].getIRI(),
+          df.getOWLAnnotation(df.getRDFSLabel(), df.getOWLLiteral(getLabel(random)))));
+      int synonyms = random.nextInt(maxSynonyms + 1);
+      for (int j = 0; j < synonyms; j++) {
+        addAxiom(ontology, df.getOWLAnnotationAssertionAxiom(classes[i].getIRI(),
+            df.getOWLAnnotation(synonymProperty, df.getOWLLiteral(getLabel(random)))));
+      }
+      if (i > 0) {
+        addAxiom(ontology, df.getOWLSubClassOfAxiom(classes[i], classes[parents[i]]));
+        // Extra parents are always created earlier so the hierarchy stays acyclic
+        if (i > 2 && random.nextDouble() < multipleInheritanceRate) {
+          int parent = random.nextInt(i);
+          if (parent != parents[i]) {
+            addAxiom(ontology, df.getOWLSubClassOfAxiom(classes[i], classes[parent]));
+          }
+        }
+        if (!properties.isEmpty() && random.nextDouble() < restrictionRate) {
+          OWLObjectProperty property = properties.get(random.nextInt(properties.size()));
+          addAxiom(ontology, df.getOWLSubClassOfAxiom(classes[i],
+              df.getOWLObjectSomeValuesFrom(property, classes[random.nextInt(i)])));
+        }
+      }
+    }
+
+    int cliques = (int) (classCount * equivalenceRate);
+    for (int i = 0; i < cliques; i++) {
+      Set<OWLClass> clique = new HashSet<>();
+      while (clique.size() < Math.min(cliqueSize, classCount)) {
+        clique.add(classes[random.nextInt(classCount)]);
+      }
+      addAxiom(ontology, df.getOWLEquivalentClassesAxiom(clique));
+    }
+
+    return ontology;
+  }
+
+  /***
+   * Generate an ontology and load it directly into a graph, committing every
+   * {@value #DEFAULT_TRANSACTION_BATCH_SIZE} axioms.
+   * 
+   * @param graph
+   * @throws OWLOntologyCreationException
+   */
+  public void generate(Graph<Concept> graph) throws OWLOntologyCreationException {
+    generate(graph, DEFAULT_TRANSACTION_BATCH_SIZE);
+  }
+
+  /***
+   * Generate an ontology and load it directly into a graph.
+   * 
+   * <p>Axioms are walked and committed in batches so that the size of a single transaction does
+   * not grow with the size of the ontology.
+   * 
+   * @param graph
+   * @param transactionBatchSize the number of axioms loaded per transaction
+   * @throws OWLOntologyCreationException
+   */
+  public void generate(Graph<Concept> graph, int transactionBatchSize)
+      throws OWLOntologyCreationException {
+    checkArgument(transactionBatchSize > 0, "transactionBatchSize must be positive");
+    OWLOntology ontology = generate();
+    IRI ontologyIri = ontology.getOntologyID().getOntologyIRI();
+    List<MappedProperty> mappedProperties = ImmutableList.of(
+        new MappedProperty(Concept.SYNONYM, ImmutableList.of(SYNONYM_PROPERTY)));
+    Map<String, String> curies = getCuries();
+    Map<String, String> categories = getCategories();
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    OwlVisitor visitor = null;
+    for (List<OWLAxiom> batch: Iterables.partition(ontology.getAxioms(), transactionBatchSize)) {
+      OWLOntology part = manager.createOntology(ImmutableSet.copyOf(batch), ontologyIri);
+      OWLOntologyWalker walker = new OWLOntologyWalker(Collections.singleton(part));
+      visitor = new OwlVisitor(walker, graph, curies, categories, mappedProperties);
+      Transaction tx = graph.getGraphDb().beginTx();
+      try {
+        walker.walkStructure(visitor);
+        tx.success();
+      } finally {
+        tx.finish();
+      }
+      manager.removeOntology(part);
+    }
+    if (null != visitor) {
+      Transaction tx = graph.getGraphDb().beginTx();
+      try {
+        visitor.postProcess();
+        tx.success();
+      } finally {
+        tx.finish();
+      }
+    }
+  }
+
+  public static class Builder {
+
+    private String baseIri = "http://example.org/synthetic";
+    private int classCount = 1000;
+    private int depth = 10;
+    private int branchingFactor = 4;
+    private double multipleInheritanceRate = 0.1;
+    private int maxSynonyms = 2;
+    private double restrictionRate = 0.1;
+    private int propertyCount = 5;
+    private double equivalenceRate = 0.01;
+    private int cliqueSize = 2;
+    private int categoryCount = 4;
+    private List<String> curiePrefixes = ImmutableList.of("SYN");
+    private long seed = 0;
+
+    public Builder baseIri(String baseIri) {
+      this.baseIri = baseIri;
+      return this;
+    }
+
+    public Builder classCount(int classCount) {
+      checkArgument(classCount > 0, "classCount must be positive");
+      this.classCount = classCount;
+      return this;
+    }
+
+    /***
+     * @param depth the maximum depth of the subclass hierarchy
+     */
+    public Builder depth(int depth) {
+      checkArgument(depth > 0, "depth must be positive");
+      this.depth = depth;
+      return this;
+    }
+
+    /***
+     * @param branchingFactor the average number of direct subclasses per class
+     */
+    public Builder branchingFactor(int branchingFactor) {
+      checkArgument(branchingFactor > 0, "branchingFactor must be positive");
+      this.branchingFactor = branchingFactor;
+      return this;
+    }
+
+    /***
+     * @param rate the fraction of classes with a second parent
+     */
+    public Builder multipleInheritanceRate(double rate) {
+      checkArgument(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+      this.multipleInheritanceRate = rate;
+      return this;
+    }
+
+    /***
+     * @param maxSynonyms each class gets between 0 and maxSynonyms synonyms
+     */
+    public Builder maxSynonyms(int maxSynonyms) {
+      checkArgument(maxSynonyms >= 0, "maxSynonyms must not be negative");
+      this.maxSynonyms = maxSynonyms;
+      return this;
+    }
+
+    /***
+     * @param rate the fraction of classes with an existential restriction
+     */
+    public Builder restrictionRate(double rate) {
+      checkArgument(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+      this.restrictionRate = rate;
+      return this;
+    }
+
+    /***
+     * @param propertyCount the number of object properties used in restrictions
+     */
+    public Builder propertyCount(int propertyCount) {
+      checkArgument(propertyCount >= 0, "propertyCount must not be negative");
+      this.propertyCount = propertyCount;
+      return this;
+    }
+
+    /***
+     * @param rate the number of equivalence cliques as a fraction of the class count
+     */
+    public Builder equivalenceRate(double rate) {
+      checkArgument(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+      this.equivalenceRate = rate;
+      return this;
+    }
+
+    public Builder cliqueSize(int cliqueSize) {
+      checkArgument(cliqueSize > 1, "cliqueSize must be at least 2");
+      this.cliqueSize = cliqueSize;
+      return this;
+    }
+
+    /***
+     * @param categoryCount the number of top level classes that are assigned a category
+     */
+    public Builder categoryCount(int categoryCount) {
+      checkArgument(categoryCount >= 0, "categoryCount must not be negative");
+      this.categoryCount = categoryCount;
+      return this;
+    }
+
+    /***
+     * @param curiePrefixes prefixes assigned to classes in turn
+     */
+    public Builder curiePrefixes(List<String> curiePrefixes) {
+      checkArgument(!curiePrefixes.isEmpty(), "at least one prefix is required");
+      this.curiePrefixes = ImmutableList.copyOf(curiePrefixes);
+      return this;
+    }
+
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public OntologyGenerator build() {
+      return new OntologyGenerator(this);
+    }
+
+  }
+
+  protected static Options getOptions() {
+    Options options = new Options();
+    Option output = new Option("o", "output", true, "The file to write the ontology to");
+    output.setRequired(true);
+    options.addOption(output);
+    options.addOption("n", "classes", true, "The number of classes");
+    options.addOption("d", "depth", true, "The maximum hierarchy depth");
+    options.addOption("b", "branching", true, "The average number of subclasses per class");
+    options.addOption("m", "multipleInheritance", true, "The fraction of classes with two parents");
+    options.addOption("y", "synonyms", true, "The maximum number of synonyms per class");
+    options.addOption("r", "restrictions", true, "The fraction of classes with a restriction");
+    options.addOption("e", "equivalence", true, "The number of equivalence cliques as a fraction of classes");
+    options.addOption("k", "cliqueSize", true, "The number of classes in each equivalence clique");
+    options.addOption("t", "properties", true, "The number of object properties used in restrictions");
+    options.addOption("c", "categories", true, "The number of top level classes assigned a category");
+    options.addOption("i", "baseIri", true, "The IRI of the ontology and prefix of its classes");
+    options.addOption("p", "prefixes", true, "Comma separated CURIE prefixes");
+    options.addOption("s", "seed", true, "The random seed");
+    return options;
+  }
+
+  public static void main(String[] args) throws OWLOntologyCreationException, OWLOntologyStorageException {
+    CommandLineParser parser = new PosixParser();
+    CommandLine cmd = null;
+    try {
+      cmd = parser.parse(getOptions(), args);
+    } catch (ParseException e) {
+      System.err.println(e.getMessage());
+      HelpFormatter formatter = new HelpFormatter();
+      formatter.printHelp("OntologyGenerator", getOptions());
+      System.exit(-1);
+    }
+
+    Builder builder = new Builder();
+    if (cmd.hasOption('n')) {
+      builder.classCount(Integer.parseInt(cmd.getOptionValue('n')));
+    }
+    if (cmd.hasOption('d')) {
+      builder.depth(Integer.parseInt(cmd.getOptionValue('d')));
+    }
+    if (cmd.hasOption('b')) {
+      builder.branchingFactor(Integer.parseInt(cmd.getOptionValue('b')));
+    }
+    if (cmd.hasOption('m')) {
+      builder.multipleInheritanceRate(Double.parseDouble(cmd.getOptionValue('m')));
+    }
+    if (cmd.hasOption('y')) {
+      builder.maxSynonyms(Integer.parseInt(cmd.getOptionValue('y')));
+    }
+    if (cmd.hasOption('r')) {
+      builder.restrictionRate(Double.parseDouble(cmd.getOptionValue('r')));
+    }
+    if (cmd.hasOption('e')) {
+      builder.equivalenceRate(Double.parseDouble(cmd.getOptionValue('e')));
+    }
+    if (cmd.hasOption('k')) {
+      builder.cliqueSize(Integer.parseInt(cmd.getOptionValue('k')));
+    }
+    if (cmd.hasOption('t')) {
+      builder.propertyCount(Integer.parseInt(cmd.getOptionValue('t')));
+    }
+    if (cmd.hasOption('c')) {
+      builder.categoryCount(Integer.parseInt(cmd.getOptionValue('c')));
+    }
+    if (cmd.hasOption('i')) {
+      builder.baseIri(cmd.getOptionValue('i'));
+    }
+    if (cmd.hasOption('p')) {
+      builder.curiePrefixes(ImmutableList.copyOf(cmd.getOptionValue('p').split(",")));
+    }
+    if (cmd.hasOption('s')) {
+      builder.seed(Long.parseLong(cmd.getOptionValue('s')));
+    }
+
+    Stopwatch timer = Stopwatch.createStarted();
+    OntologyGenerator generator = builder.build();
+    OWLOntology ontology = generator.generate();
+    ontology.getOWLOntologyManager().saveOntology(ontology, IRI.create(new File(cmd.getOptionValue('o'))));
+    logger.info(format("Generated %d axioms in %d seconds", ontology.getAxiomCount(),
+        timer.elapsed(TimeUnit.SECONDS)));
+  }
+
+}
@@ -56,6 +56,13 @@ class OwlLoadConfiguration {
     String name;
     List<String> properties;
 
+    public MappedProperty() {}
+
+    MappedProperty(String name, List<String> properties) {
+      this.name = name;
+      this.properties = properties;
+    }
+
     public String getName() {
       return name;
     }
@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.commons.cli.CommandLine;
@@ -53,9 +54,12 @@ import com.google.inject.Injector;
 import com.google.inject.Provides;
 
 import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.internal.facets.FacetIndex;
+import edu.sdsc.scigraph.internal.hierarchy.HierarchyIndex;
 import edu.sdsc.scigraph.neo4j.Graph;
 import edu.sdsc.scigraph.neo4j.Neo4jModule;
 import edu.sdsc.scigraph.neo4j.bindings.IndicatesNeo4j;
+import edu.sdsc.scigraph.vocabulary.VocabularySearchIndex;
 
 public class OwlLoader {
 
@@ -68,6 +72,10 @@ public class OwlLoader {
   @Inject
   Graph<Concept> graph;
 
+  @Inject
+  @Named("neo4j.location")
+  String graphLocation;
+
   @Inject
   OWLOntologyWalker walker;
 
@@ -78,7 +86,7 @@ public class OwlLoader {
     System.setProperty("entityExpansionLimit", Integer.toString(1_000_000));
   }
 
-  void loadOntology() {
+  void loadOntology() throws IOException {
     Stopwatch timer = Stopwatch.createStarted();
     inTransaction.set(true);
     Transaction tx = graph.getGraphDb().beginTx();
@@ -99,6 +107,25 @@ public class OwlLoader {
       tx.finish();
       logger.info(format("Committing took %d seconds", timer.elapsed(TimeUnit.SECONDS)));
     }
+    logger.info("Indexing class hierarchy...");
+    HierarchyIndex hierarchyIndex = new HierarchyIndex(graph.getGraphDb());
+    if (hierarchyIndex.indexExists()) {
+      hierarchyIndex.dropIndex();
+    }
+    hierarchyIndex.createIndex();
+    logger.info("Counting facets...");
+    FacetIndex facetIndex = new FacetIndex(graph.getGraphDb());
+    if (facetIndex.indexExists()) {
+      facetIndex.dropIndex();
+    }
+    facetIndex.createIndex();
+    logger.info("Building vocabulary search index...");
+    VocabularySearchIndex searchIndex = VocabularySearchIndex.open(new File(graphLocation));
+    try {
+      searchIndex.build(graph.getGraphDb(), graph.getVersion());
+    } finally {
+      searchIndex.close();
+    }
     int nodes = size(GlobalGraphOperations.at(graph.getGraphDb()).getAllNodes());
     int edges = size(GlobalGraphOperations.at(graph.getGraphDb()).getAllRelationships());
     graph.shutdown();
@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+import edu.sdsc.scigraph.frames.NodeProperties;
+
+/***
+ * A {@link Vocabulary} that caches concept lookups of another vocabulary.
+ * 
+ * <p>Lookups are keyed by the full {@link Vocabulary.Query}. The cache is bounded by weight where
+ * each entry weighs one plus the number of concepts it holds. Cached results are unmodifiable and
+ * the cache is cleared whenever the graph version changes.
+ */
+public class CachingVocabulary<N extends NodeProperties> implements Vocabulary<N> {
+
+  private static final Logger logger = Logger.getLogger(CachingVocabulary.class.getName());
+
+  private static final Weigher<Lookup, Object> RESULT_WEIGHER = new Weigher<Lookup, Object>() {
+    @Override
+    public int weigh(Lookup key, Object value) {
+      return (value instanceof Collection) ? ((Collection<?>) value).size() + 1 : 1;
+    }
+  };
+
+  enum LookupType {URI, ID, PREFIX, SEARCH, TERM, FUZZY, BATCH}
+
+  static class Lookup {
+    final LookupType type;
+    final Object input;
+
+    Lookup(LookupType type, Object input) {
+      this.type = type;
+      this.input = input;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(type, input);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Lookup)) {
+        return false;
+      }
+      Lookup other = (Lookup) obj;
+      return type == other.type && input.equals(other.input);
+    }
+  }
+
+  private final Vocabulary<N> delegate;
+  private final Cache<Lookup, Object> cache;
+  private final Supplier<Long> graphVersion;
+  private final AtomicLong cachedVersion = new AtomicLong();
+
+  /***
+   * @param delegate the vocabulary to cache
+   * @param maximumWeight the maximum total weight of the cached lookups
+   * @param graphVersion the version of the graph backing delegate
+   */
+  public CachingVocabulary(Vocabulary<N> delegate, long maximumWeight,
+      Supplier<Long> graphVersion) {
+    this.delegate = delegate;
+    this.graphVersion = graphVersion;
+    cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher(RESULT_WEIGHER)
+        .recordStats().build();
+    cachedVersion.set(graphVersion.get());
+    logger.info("Caching vocabulary lookups with a maximum weight of " + maximumWeight);
+  }
+
+  /***
+   * Clears the cache if the graph changed since the last lookup.
+   */
+  public void checkGraphVersion() {
+    long version = graphVersion.get();
+    if (cachedVersion.getAndSet(version) != version) {
+      logger.fine("Graph version changed to " + version + ", invalidating vocabulary cache");
+      cache.invalidateAll();
+    }
+  }
+
+  public Vocabulary<N> getDelegate() {
+    return delegate;
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> T get(Lookup lookup, Callable<T> loader) {
+    checkGraphVersion();
+    try {
+      return (T) cache.get(lookup, loader);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @Override
+  public Optional<N> getConceptFromUri(final String uri) {
+    return get(new Lookup(LookupType.URI, uri), new Callable<Optional<N>>() {
+      @Override
+      public Optional<N> call() {
+        return delegate.getConceptFromUri(uri);
+      }
+    });
+  }
+
+  @Override
+  public Collection<N> getConceptFromId(final Query query) {
+    return get(new Lookup(LookupType.ID, query), new Callable<Collection<N>>() {
+      @Override
+      public Collection<N> call() {
+        return Collections.unmodifiableCollection(delegate.getConceptFromId(query));
+      }
+    });
+  }
+
+  @Override
+  public List<N> getConceptsFromPrefix(final Query query) {
+    return get(new Lookup(LookupType.PREFIX, query), new Callable<List<N>>() {
+      @Override
+      public List<N> call() {
+        return Collections.unmodifiableList(delegate.getConceptsFromPrefix(query));
+      }
+    });
+  }
+
+  @Override
+  public List<N> searchConcepts(final Query query) {
+    return get(new Lookup(LookupType.SEARCH, query), new Callable<List<N>>() {
+      @Override
+      public List<N> call() {
+        return Collections.unmodifiableList(delegate.searchConcepts(query));
+      }
+    });
+  }
+
+  @Override
+  public List<N> getConceptsFromTerm(final Query query) {
+    return get(new Lookup(LookupType.TERM, query), new Callable<List<N>>() {
+      @Override
+      public List<N> call() {
+        return Collections.unmodifiableList(delegate.getConceptsFromTerm(query));
+      }
+    });
+  }
+
+  @Override
+  public List<N> getConceptsFromFuzzyTerm(final Query query) {
+    return get(new Lookup(LookupType.FUZZY, query), new Callable<List<N>>() {
+      @Override
+      public List<N> call() {
+        return Collections.unmodifiableList(delegate.getConceptsFromFuzzyTerm(query));
+      }
+    });
+  }
+
+  /***
+   * Batch results are cached per input so only the uncached inputs are passed to the delegate.
+   */
+  @Override
+  public Map<String, Collection<N>> getConcepts(BatchType type, Collection<String> inputs) {
+    checkGraphVersion();
+    Map<String, Collection<N>> concepts = new LinkedHashMap<>();
+    List<String> misses = new ArrayList<>();
+    for (String input: inputs) {
+      @SuppressWarnings("unchecked")
+      Collection<N> cached = (Collection<N>) cache.getIfPresent(getBatchLookup(type, input));
+      concepts.put(input, cached);
+      if (null == cached) {
+        misses.add(input);
+      }
+    }
+    if (!misses.isEmpty()) {
+      for (Map.Entry<String, Collection<N>> result: delegate.getConcepts(type, misses).entrySet()) {
+        Collection<N> resolved = Collections.unmodifiableCollection(result.getValue());
+        cache.put(getBatchLookup(type, result.getKey()), resolved);
+        concepts.put(result.getKey(), resolved);
+      }
+    }
+    return concepts;
+  }
+
+  static Lookup getBatchLookup(BatchType type, String input) {
+    return new Lookup(LookupType.BATCH, Arrays.asList(type, input));
+  }
+
+  @Override
+  public Set<String> getAllCategories() {
+    return delegate.getAllCategories();
+  }
+
+  @Override
+  public Set<String> getAllOntologies() {
+    return delegate.getAllOntologies();
+  }
+
+  @Override
+  public Map<String, Integer> getCategoryCounts() {
+    return delegate.getCategoryCounts();
+  }
+
+  @Override
+  public Map<String, Integer> getOntologyCounts() {
+    return delegate.getOntologyCounts();
+  }
+
+  @Override
+  public List<String> getSuggestions(String query) {
+    return delegate.getSuggestions(query);
+  }
+
+  @Override
+  public boolean isSuggestionsReady() {
+    return delegate.isSuggestionsReady();
+  }
+
+  @Override
+  public boolean isSuggestionsFailed() {
+    return delegate.isSuggestionsFailed();
+  }
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.apache.lucene.search.suggest.fst.FSTCompletion;
+import org.apache.lucene.search.suggest.fst.FSTCompletion.Completion;
+import org.apache.lucene.search.suggest.fst.FSTCompletionBuilder;
+import org.apache.lucene.search.suggest.fst.InMemorySorter;
+import org.apache.lucene.util.BytesRef;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Stopwatch;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
+/***
+ * An in memory completion automaton over the labels, synonyms, CURIEs, and fragments of a graph.
+ * 
+ * <p>Each entry is the normalized text, its source, and the node id. Entries are weighted by their
+ * source (labels before synonyms before identifiers) and then by length so that short completions
+ * come first. A prefix lookup walks the automaton instead of enumerating index terms.
+ */
+public class CompletionIndex {
+
+  private static final Logger logger = Logger.getLogger(CompletionIndex.class.getName());
+
+  static final char SEPARATOR = '\u001f';
+  static final int LENGTH_BUCKETS = 32;
+
+  enum Source {
+    LABEL('l', 2), SYNONYM('s', 1), CURIE('c', 0), FRAGMENT('f', 0);
+
+    final char code;
+    final int rank;
+
+    Source(char code, int rank) {
+      this.code = code;
+      this.rank = rank;
+    }
+
+    static Source fromCode(char code) {
+      for (Source source: values()) {
+        if (source.code == code) {
+          return source;
+        }
+      }
+      throw new IllegalArgumentException("Unknown completion source: " + code);
+    }
+  }
+
+  private final FSTCompletion completion;
+  private final long version;
+  private final int size;
+
+  CompletionIndex(FSTCompletion completion, long version, int size) {
+    this.completion = completion;
+    this.version = version;
+    this.size = size;
+  }
+
+  /***
+   * @return the graph version this index was built from
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /***
+   * @return the number of entries in the index
+   */
+  public int size() {
+    return size;
+  }
+
+  static String normalize(String text) {
+    return LuceneUtils.normalize(text);
+  }
+
+  static int getBucket(Source source, int length) {
+    return source.rank * LENGTH_BUCKETS + (LENGTH_BUCKETS - 1 - Math.min(LENGTH_BUCKETS - 1, length));
+  }
+
+  /***
+   * @return the values of property, which may be a single string or an array
+   */
+  public static String[] getValues(Node node, String property) {
+    Object value = node.getProperty(property, null);
+    if (value instanceof String[]) {
+      return (String[]) value;
+    } else if (value instanceof String) {
+      return new String[] {(String) value};
+    }
+    return new String[0];
+  }
+
+  /***
+   * Normalized forms stored with the node are used when they are aligned with its values.
+   * 
+   * @return the normalized values of property
+   */
+  static String[] getNormalizedValues(Node node, String property) {
+    String[] values = getValues(node, property);
+    String[] normalized = getValues(node, property + LuceneUtils.NORMALIZED_SUFFIX);
+    if (values.length != normalized.length) {
+      normalized = new String[values.length];
+      for (int i = 0; i < values.length; i++) {
+        normalized[i] = normalize(values[i]);
+      }
+    }
+    return normalized;
+  }
+
+  static void addEntries(Set<String> entries, Node node, String property, Source source) {
+    for (String normalized: getNormalizedValues(node, property)) {
+      addEntry(entries, node, normalized, source);
+    }
+  }
+
+  static void addEntry(Set<String> entries, Node node, String normalized, Source source) {
+    if (!normalized.isEmpty()) {
+      entries.add(normalized + SEPARATOR + source.code + node.getId());
+    }
+  }
+
+  /***
+   * Build a completion index from all nodes in a graph.
+   * 
+   * @param graphDb the graph
+   * @param version the graph version, used to tell when the index is stale
+   * @return the completion index
+   * @throws IOException
+   */
+  public static CompletionIndex build(GraphDatabaseService graphDb, long version) throws IOException {
+    Stopwatch timer = Stopwatch.createStarted();
+    Set<String> entries = new HashSet<>();
+    for (Node node: GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      addEntries(entries, node, NodeProperties.LABEL, Source.LABEL);
+      addEntries(entries, node, Concept.SYNONYM, Source.SYNONYM);
+      addEntries(entries, node, CommonProperties.CURIE, Source.CURIE);
+      addEntries(entries, node, CommonProperties.FRAGMENT, Source.FRAGMENT);
+    }
+    FSTCompletionBuilder builder = new FSTCompletionBuilder(3 * LENGTH_BUCKETS,
+        new InMemorySorter(BytesRef.getUTF8SortedAsUnicodeComparator()), Integer.MAX_VALUE);
+    for (String entry: entries) {
+      Source source = Source.fromCode(entry.charAt(entry.lastIndexOf(SEPARATOR) + 1));
+      builder.add(new BytesRef(entry), getBucket(source, entry.lastIndexOf(SEPARATOR)));
+    }
+    CompletionIndex index = new CompletionIndex(builder.build(), version, entries.size());
+    logger.info("Completion index built in " + timer + " with " + entries.size() + " entries.");
+    return index;
+  }
+
+  /***
+   * Find the best nodes with a label, synonym, CURIE, or fragment starting with prefix.
+   * 
+   * @param prefix the prefix to complete
+   * @param count the maximum number of node ids to return
+   * @param includeSynonyms whether synonyms should be completed
+   * @param filter only node ids accepted by the filter are returned
+   * @return distinct node ids, best first
+   */
+  public List<Long> lookup(String prefix, int count, boolean includeSynonyms, Predicate<Long> filter) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty() || count <= 0) {
+      return new ArrayList<>();
+    }
+    // Entries can be filtered or share a node so fetch more until there are enough
+    int fetch = (int) Math.min(Integer.MAX_VALUE, count * 2L);
+    while (true) {
+      List<Completion> completions = completion.lookup(normalized, fetch);
+      Set<Long> ids = new LinkedHashSet<>();
+      Set<Long> rejected = new HashSet<>();
+      for (Completion hit: completions) {
+        String entry = hit.utf8.utf8ToString();
+        int separator = entry.lastIndexOf(SEPARATOR);
+        Source source = Source.fromCode(entry.charAt(separator + 1));
+        if (Source.SYNONYM == source && !includeSynonyms) {
+          continue;
+        }
+        Long id = Long.valueOf(entry.substring(separator + 2));
+        if (ids.contains(id) || rejected.contains(id)) {
+          continue;
+        }
+        if (filter.apply(id)) {
+          ids.add(id);
+          if (ids.size() == count) {
+            break;
+          }
+        } else {
+          rejected.add(id);
+        }
+      }
+      if (ids.size() == count || completions.size() < fetch) {
+        return new ArrayList<>(ids);
+      }
+      fetch = (int) Math.min(Integer.MAX_VALUE, fetch * 4L);
+    }
+  }
+
+}
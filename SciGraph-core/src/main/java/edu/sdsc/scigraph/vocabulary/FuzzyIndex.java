@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Stopwatch;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+
+/***
+ * An in memory typo tolerant index over the complete labels and synonyms of a graph.
+ * 
+ * <p>Each distinct normalized label or synonym is indexed by its character trigrams. Entries are
+ * numbered in order of length so a lookup only reads the part of each posting list whose entries
+ * are within the allowed number of edits in length. It then verifies at most
+ * {@link #MAX_CANDIDATES} of the entries sharing enough trigrams with the input, preferring those
+ * that share the most. Matches are ranked by edit distance and then by source (labels before
+ * synonyms).
+ */
+public class FuzzyIndex {
+
+  private static final Logger logger = Logger.getLogger(FuzzyIndex.class.getName());
+
+  static final int GRAM_SIZE = 3;
+
+  /*** the maximum number of entries verified by a lookup */
+  static final int MAX_CANDIDATES = 1000;
+
+  private static final char BOUNDARY = '\u0000';
+
+  /*** ordered by length */
+  private final String[] entries;
+  /*** node ids of each entry, shifted left by one with the low bit set for synonyms */
+  private final long[][] references;
+  /*** ascending entry indices for each gram */
+  private final Map<String, int[]> postings;
+  private final long version;
+
+  FuzzyIndex(String[] entries, long[][] references, Map<String, int[]> postings, long version) {
+    this.entries = entries;
+    this.references = references;
+    this.postings = postings;
+    this.version = version;
+  }
+
+  /***
+   * @return the index of the first entry at least length long
+   */
+  int getFirstEntry(int length) {
+    int low = 0;
+    int high = entries.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (entries[middle].length() < length) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /***
+   * @return the position of the first value in sorted which is not less than key
+   */
+  static int getLowerBound(int[] sorted, int key) {
+    int index = Arrays.binarySearch(sorted, key);
+    return (index < 0) ? -index - 1 : index;
+  }
+
+  /***
+   * @return the graph version this index was built from
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /***
+   * @return the number of distinct entries in the index
+   */
+  public int size() {
+    return entries.length;
+  }
+
+  /***
+   * Short inputs allow fewer edits so that they are not matched by unrelated entries.
+   * 
+   * @return the maximum edit distance of a match for an input of length
+   */
+  static int getMaxEdits(int length) {
+    if (length <= 2) {
+      return 0;
+    } else if (length <= 5) {
+      return 1;
+    } else {
+      return 2;
+    }
+  }
+
+  static Set<String> getGrams(String text) {
+    String padded = BOUNDARY + text + BOUNDARY;
+    Set<String> grams = new LinkedHashSet<>();
+    for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+      grams.add(padded.substring(i, i + GRAM_SIZE));
+    }
+    return grams;
+  }
+
+  /***
+   * The optimal string alignment distance: insertions, deletions, substitutions, and adjacent
+   * transpositions each count as one edit.
+   * 
+   * @return the distance between a and b or max + 1 if it is greater than max
+   */
+  static int getDistance(String a, String b, int max) {
+    if (Math.abs(a.length() - b.length()) > max) {
+      return max + 1;
+    }
+    int[] beforePrevious = new int[b.length() + 1];
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMinimum = i;
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+        current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+        if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+          current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+        }
+        rowMinimum = Math.min(rowMinimum, current[j]);
+      }
+      if (rowMinimum > max) {
+        return max + 1;
+      }
+      int[] recycled = beforePrevious;
+      beforePrevious = previous;
+      previous = current;
+      current = recycled;
+    }
+    return Math.min(previous[b.length()], max + 1);
+  }
+
+  static void addReferences(Map<String, Set<Long>> references, Node node, String property, boolean synonym) {
+    for (String normalized: CompletionIndex.getNormalizedValues(node, property)) {
+      if (normalized.isEmpty()) {
+        continue;
+      }
+      Set<Long> nodes = references.get(normalized);
+      if (null == nodes) {
+        nodes = new LinkedHashSet<>();
+        references.put(normalized, nodes);
+      }
+      nodes.add((node.getId() << 1) | (synonym ? 1 : 0));
+    }
+  }
+
+  /***
+   * Build a fuzzy index from all nodes in a graph.
+   * 
+   * @param graphDb the graph
+   * @param version the graph version, used to tell when the index is stale
+   * @return the fuzzy index
+   */
+  public static FuzzyIndex build(GraphDatabaseService graphDb, long version) {
+    Stopwatch timer = Stopwatch.createStarted();
+    Map<String, Set<Long>> entryReferences = new HashMap<>();
+    for (Node node: GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      addReferences(entryReferences, node, NodeProperties.LABEL, false);
+      addReferences(entryReferences, node, Concept.SYNONYM, true);
+    }
+    String[] entries = entryReferences.keySet().toArray(new String[entryReferences.size()]);
+    Arrays.sort(entries, LENGTH_ORDER);
+    long[][] references = new long[entries.length][];
+    Map<String, List<Integer>> gramEntries = new HashMap<>();
+    for (int i = 0; i < entries.length; i++) {
+      references[i] = Longs.toArray(entryReferences.get(entries[i]));
+      for (String gram: getGrams(entries[i])) {
+        List<Integer> indices = gramEntries.get(gram);
+        if (null == indices) {
+          indices = new ArrayList<>();
+          gramEntries.put(gram, indices);
+        }
+        indices.add(i);
+      }
+    }
+    Map<String, int[]> postings = new HashMap<>();
+    for (Map.Entry<String, List<Integer>> gram: gramEntries.entrySet()) {
+      postings.put(gram.getKey(), Ints.toArray(gram.getValue()));
+    }
+    FuzzyIndex index = new FuzzyIndex(entries, references, postings, version);
+    logger.info("Fuzzy index built in " + timer + " with " + entries.length + " entries.");
+    return index;
+  }
+
+  static final Comparator<String> LENGTH_ORDER = new Comparator<String>() {
+    @Override
+    public int compare(String a, String b) {
+      int order = Ints.compare(a.length(), b.length());
+      return (0 == order) ? a.compareTo(b) : order;
+    }
+  };
+
+  static class Match {
+    final long id;
+    final int distance;
+    final boolean synonym;
+    final int length;
+
+    Match(long id, int distance, boolean synonym, int length) {
+      this.id = id;
+      this.distance = distance;
+      this.synonym = synonym;
+      this.length = length;
+    }
+  }
+
+  static final Comparator<Match> MATCH_ORDER = new Comparator<Match>() {
+    @Override
+    public int compare(Match a, Match b) {
+      int order = Ints.compare(a.distance, b.distance);
+      if (0 == order) {
+        order = Boolean.compare(a.synonym, b.synonym);
+      }
+      if (0 == order) {
+        order = Ints.compare(a.length, b.length);
+      }
+      return (0 == order) ? Longs.compare(a.id, b.id) : order;
+    }
+  };
+
+  /***
+   * Find the best nodes with a label or synonym within a few edits of input.
+   * 
+   * <p>An edit changes at most {@code GRAM_SIZE + 1} trigrams so entries sharing fewer trigrams
+   * with the input are not verified. Inputs too short for that bound to apply must share at least
+   * one trigram with a match. If more than {@link #MAX_CANDIDATES} entries remain only those
+   * sharing the most trigrams are verified.
+   * 
+   * @param input the possibly misspelled term
+   * @param count the maximum number of node ids to return
+   * @param includeSynonyms whether synonyms should be matched
+   * @param filter only node ids accepted by the filter are returned
+   * @return distinct node ids, best first
+   */
+  public List<Long> lookup(String input, int count, boolean includeSynonyms, Predicate<Long> filter) {
+    String normalized = CompletionIndex.normalize(input);
+    if (normalized.isEmpty() || count <= 0) {
+      return new ArrayList<>();
+    }
+    int maxEdits = getMaxEdits(normalized.length());
+    Set<String> grams = getGrams(normalized);
+    int minimumShared = Math.max(1, grams.size() - (GRAM_SIZE + 1) * maxEdits);
+    // Only entries within maxEdits in length can match
+    int first = getFirstEntry(normalized.length() - maxEdits);
+    int last = getFirstEntry(normalized.length() + maxEdits + 1);
+    int[][] gramPostings = new int[grams.size()][];
+    int[] from = new int[grams.size()];
+    int[] to = new int[grams.size()];
+    int hitCount = 0;
+    int gramCount = 0;
+    for (String gram: grams) {
+      int[] indices = postings.get(gram);
+      if (null != indices) {
+        gramPostings[gramCount] = indices;
+        from[gramCount] = getLowerBound(indices, first);
+        to[gramCount] = getLowerBound(indices, last);
+        hitCount += to[gramCount] - from[gramCount];
+        gramCount++;
+      }
+    }
+    int[] hits = new int[hitCount];
+    int offset = 0;
+    for (int i = 0; i < gramCount; i++) {
+      System.arraycopy(gramPostings[i], from[i], hits, offset, to[i] - from[i]);
+      offset += to[i] - from[i];
+    }
+    // Sorting the hits groups the grams each entry shares with the input
+    Arrays.sort(hits);
+    long[] candidates = new long[hitCount];
+    int candidateCount = 0;
+    for (int i = 0; i < hitCount;) {
+      int j = i + 1;
+      while (j < hitCount && hits[j] == hits[i]) {
+        j++;
+      }
+      if (j - i >= minimumShared) {
+        // Ascending order is by most shared grams first and then by entry
+        candidates[candidateCount++] = ((long) (grams.size() - (j - i)) << 32) | hits[i];
+      }
+      i = j;
+    }
+    if (candidateCount > MAX_CANDIDATES) {
+      Arrays.sort(candidates, 0, candidateCount);
+      candidateCount = MAX_CANDIDATES;
+    }
+    List<Match> matches = new ArrayList<>();
+    for (int i = 0; i < candidateCount; i++) {
+      int candidate = (int) candidates[i];
+      String entry = entries[candidate];
+      int distance = getDistance(normalized, entry, maxEdits);
+      if (distance > maxEdits) {
+        continue;
+      }
+      for (long reference: references[candidate]) {
+        boolean synonym = (reference & 1) == 1;
+        if (!synonym || includeSynonyms) {
+          matches.add(new Match(reference >>> 1, distance, synonym, entry.length()));
+        }
+      }
+    }
+    Collections.sort(matches, MATCH_ORDER);
+    Set<Long> ids = new LinkedHashSet<>();
+    Set<Long> rejected = new HashSet<>();
+    for (Match match: matches) {
+      if (ids.contains(match.id) || rejected.contains(match.id)) {
+        continue;
+      }
+      if (filter.apply(match.id)) {
+        ids.add(match.id);
+        if (ids.size() == count) {
+          break;
+        }
+      } else {
+        rejected.add(match.id);
+      }
+    }
+    return new ArrayList<>(ids);
+  }
+
+}
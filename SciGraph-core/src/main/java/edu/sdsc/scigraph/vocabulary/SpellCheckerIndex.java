@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.search.spell.LuceneDictionary;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
+/***
+ * A spell checker over the exact labels of the node auto index.
+ * 
+ * <p>The spell checker is persisted next to the node index and tagged with a fingerprint of the
+ * labels it was built from. It is only rebuilt, in the background, when the labels change.
+ * Suggestions are empty until the spell checker is ready, and stay empty if building it fails.
+ */
+class SpellCheckerIndex {
+
+  private static final Logger logger = Logger.getLogger(SpellCheckerIndex.class.getName());
+
+  static final String SOURCE_INDEX = "index/lucene/node/node_auto_index";
+  static final String SPELLCHECKER_INDEX = "index/lucene/spellchecker";
+  static final String FINGERPRINT_FILE = "index/lucene/spellchecker.fingerprint";
+
+  static final String LABEL_FIELD = NodeProperties.LABEL + LuceneUtils.EXACT_SUFFIX;
+
+  private final File sourceLocation;
+  private final File spellLocation;
+  private final File fingerprintFile;
+
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile SpellChecker spellChecker;
+  private volatile Throwable failure;
+
+  SpellCheckerIndex(File neo4jLocation) {
+    sourceLocation = new File(neo4jLocation, SOURCE_INDEX);
+    spellLocation = new File(neo4jLocation, SPELLCHECKER_INDEX);
+    fingerprintFile = new File(neo4jLocation, FINGERPRINT_FILE);
+  }
+
+  /***
+   * @return a hash of the exact labels in reader, which only changes when the labels do
+   */
+  static long getFingerprint(IndexReader reader) throws IOException {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    TermEnum terms = reader.terms(new Term(LABEL_FIELD));
+    try {
+      do {
+        Term term = terms.term();
+        if (null == term || !LABEL_FIELD.equals(term.field())) {
+          break;
+        }
+        hasher.putString(term.text(), Charsets.UTF_8).putByte((byte) 0);
+      } while (terms.next());
+    } finally {
+      terms.close();
+    }
+    return hasher.hash().asLong();
+  }
+
+  /***
+   * Opens the persisted spell checker if it matches the current labels or starts rebuilding it in
+   * the background.
+   * 
+   * @throws IOException if the node index cannot be read
+   */
+  void start() throws IOException {
+    Directory sourceDirectory = FSDirectory.open(sourceLocation);
+    Directory spellDirectory = FSDirectory.open(spellLocation);
+    long fingerprint;
+    try (IndexReader reader = IndexReader.open(sourceDirectory)) {
+      fingerprint = getFingerprint(reader);
+    }
+    Optional<Long> builtFingerprint = readFingerprint();
+    if (builtFingerprint.isPresent() && builtFingerprint.get() == fingerprint
+        && IndexReader.indexExists(spellDirectory)) {
+      logger.info("Reusing spell checker built from labels " + Long.toHexString(fingerprint));
+      publish(new SpellChecker(spellDirectory));
+    } else {
+      logger.info("Building spell checker from labels " + Long.toHexString(fingerprint));
+      new SpellCheckerBuilder(sourceDirectory, spellDirectory).start();
+    }
+  }
+
+  boolean isReady() {
+    return null != spellChecker;
+  }
+
+  /***
+   * @return the reason the spell checker couldn't be built, if it failed
+   */
+  Optional<Throwable> getFailure() {
+    return Optional.fromNullable(failure);
+  }
+
+  /***
+   * @return true if the spell checker is ready, false if building it failed or timed out
+   */
+  boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+    return done.await(timeout, unit) && isReady();
+  }
+
+  List<String> suggestSimilar(String query, int count) throws IOException {
+    SpellChecker checker = spellChecker;
+    if (null == checker) {
+      return Collections.emptyList();
+    }
+    String[] suggestions = checker.suggestSimilar(query, count);
+    List<String> result = new ArrayList<>(suggestions.length);
+    Collections.addAll(result, suggestions);
+    return result;
+  }
+
+  Optional<Long> readFingerprint() {
+    if (!fingerprintFile.exists()) {
+      return Optional.absent();
+    }
+    try {
+      return Optional.of(Long.parseLong(Files.toString(fingerprintFile, Charsets.UTF_8).trim()));
+    } catch (IOException | NumberFormatException e) {
+      logger.log(Level.WARNING, "Failed to read spell checker fingerprint from " + fingerprintFile, e);
+      return Optional.absent();
+    }
+  }
+
+  private void publish(SpellChecker checker) {
+    spellChecker = checker;
+    done.countDown();
+  }
+
+  private void fail(Throwable cause) {
+    failure = cause;
+    done.countDown();
+  }
+
+  class SpellCheckerBuilder extends Thread {
+
+    private final Directory sourceDirectory;
+    private final Directory spellDirectory;
+
+    SpellCheckerBuilder(Directory sourceDirectory, Directory spellDirectory) {
+      super("spellchecker-builder");
+      this.sourceDirectory = sourceDirectory;
+      this.spellDirectory = spellDirectory;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try (IndexReader reader = IndexReader.open(sourceDirectory)) {
+        // Invalidate the old fingerprint before touching the spell checker index
+        fingerprintFile.delete();
+        long fingerprint = getFingerprint(reader);
+        SpellChecker checker = new SpellChecker(spellDirectory);
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36, new KeywordAnalyzer());
+        checker.indexDictionary(new LuceneDictionary(reader, LABEL_FIELD), config, true);
+        Files.write(Long.toString(fingerprint), fingerprintFile, Charsets.UTF_8);
+        logger.info("Built spell checker from labels " + Long.toHexString(fingerprint));
+        publish(checker);
+      } catch (Throwable e) {
+        logger.log(Level.SEVERE, "Failed to build spell checker", e);
+        fail(e);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.util.Collection;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CachingWrapperFilter;
+import org.apache.lucene.search.CachingWrapperFilter.DeletesMode;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.TermQuery;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/***
+ * Reusable filters for single terms such as categories and ontologies.
+ * 
+ * <p>Each filter caches its document set per index segment, so a set is computed once and reused
+ * until its segment is merged away. Deletions are applied as documents are visited.
+ */
+final class TermFilterCache {
+
+  private static final int MAXIMUM_SIZE = 10_000;
+
+  private final LoadingCache<Term, Filter> filters = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE).build(new CacheLoader<Term, Filter>() {
+        @Override
+        public Filter load(Term term) {
+          return new CachingWrapperFilter(new QueryWrapperFilter(new TermQuery(term)),
+              DeletesMode.DYNAMIC);
+        }
+      });
+
+  Filter getFilter(Term term) {
+    return filters.getUnchecked(term);
+  }
+
+  /***
+   * @return a query matching documents with any of values in field. The query does not
+   * contribute to the score of a document.
+   */
+  org.apache.lucene.search.Query getAnyValueQuery(String field, Collection<String> values) {
+    BooleanQuery query = new BooleanQuery();
+    for (String value: values) {
+      query.add(new ConstantScoreQuery(getFilter(new Term(field, value))), Occur.SHOULD);
+    }
+    query.setBoost(0);
+    return query;
+  }
+
+}
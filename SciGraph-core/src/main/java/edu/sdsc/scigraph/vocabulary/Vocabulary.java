@@ -15,13 +15,16 @@
  */
 package edu.sdsc.scigraph.vocabulary;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 
 import edu.sdsc.scigraph.frames.NodeProperties;
@@ -92,6 +95,17 @@ public interface Vocabulary<N> {
    */
   public List<N> getConceptsFromTerm(Query query);
 
+  /***
+   * Matches the complete label of a concept while tolerating a few typos.
+   * <p>Unlike {@link #getSuggestions(String)} the result is ranked concepts rather than terms and
+   * multi-word labels are matched as a whole (ie: "parkinsons desease" would return "Parkinson's
+   * Disease"). Closer matches are returned first.
+   * 
+   * @param query  a {@link Query} with the possibly misspelled term as input
+   * @return a list of matching concepts
+   */
+  public List<N> getConceptsFromFuzzyTerm(Query query);
+
   /***
    * @return a set of categories in the vocabulary
    */
@@ -102,6 +116,16 @@ public interface Vocabulary<N> {
    */
   public Set<String> getAllOntologies();
 
+  /***
+   * @return the number of concepts in each category, sorted by category
+   */
+  public Map<String, Integer> getCategoryCounts();
+
+  /***
+   * @return the number of concepts in each ontology, sorted by ontology
+   */
+  public Map<String, Integer> getOntologyCounts();
+
   /***
    * Provides "did you mean" functionality based on the labels of concepts in the vocabulary.
    * @param query  a query string
@@ -109,12 +133,48 @@ public interface Vocabulary<N> {
    */
   public List<String> getSuggestions(String query);
 
+  /***
+   * Suggestions are empty until the spell checker has been built or loaded.
+   * @return true if {@link #getSuggestions(String)} is backed by a spell checker
+   */
+  public boolean isSuggestionsReady();
+
+  /***
+   * Suggestions stay empty if the spell checker could not be built.
+   * @return true if building the spell checker failed
+   */
+  public boolean isSuggestionsFailed();
+
+  /***
+   * The kinds of input accepted by {@link Vocabulary#getConcepts(BatchType, Collection)}.
+   */
+  public enum BatchType {
+    /*** inputs are matched as with {@link Vocabulary#getConceptFromUri(String)} */
+    URI,
+    /*** inputs are matched as with {@link Vocabulary#getConceptFromId(Query)} */
+    ID,
+    /*** inputs are matched as with {@link Vocabulary#getConceptsFromTerm(Query)} */
+    TERM
+  }
+
+  /***
+   * Resolve many URIs, IDs, or terms at once.
+   * <p>Implementations should prefer resolving the inputs together over one lookup per input.
+   * 
+   * @param type  the kind of inputs
+   * @param inputs  the inputs to resolve
+   * @return each distinct input, in iteration order, mapped to its concepts. 
+   * Inputs which could not be resolved are mapped to an empty collection.
+   */
+  public Map<String, Collection<N>> getConcepts(BatchType type, Collection<String> inputs);
+
   /***
    * A builder class with common query refinement options.
    */
   public static class Query {
     private final String input;
     private final int limit;
+    private final int offset;
     private final boolean includeSynonyms;
     private final boolean includeAcronyms;
     private final boolean includeAbbreviations;
@@ -124,6 +184,7 @@ public interface Vocabulary<N> {
     public static class Builder {
       private final String input;
       private int limit = 1000;
+      private int offset = 0;
       private boolean includeSynonyms = true;
       private boolean includeAcronyms = false;
       private boolean includeAbbreviations = false;
@@ -142,11 +203,23 @@ public interface Vocabulary<N> {
       /***
        * @param limit  the maximum number results to return
        * @return the builder
+       * @throws IllegalArgumentException if limit is negative
        */
       public Builder limit(int limit) {
+        checkArgument(limit >= 0, "limit must not be negative");
         this.limit = limit; return this;
       }
 
+      /***
+       * @param offset  the number of results to skip before collecting results
+       * @return the builder
+       * @throws IllegalArgumentException if offset is negative
+       */
+      public Builder offset(int offset) {
+        checkArgument(offset >= 0, "offset must not be negative");
+        this.offset = offset; return this;
+      }
+
       public Builder includeSynonyms(boolean include) {
         this.includeSynonyms = include; return this;
       }
@@ -187,6 +260,7 @@ public interface Vocabulary<N> {
     private Query(Builder builder) {
       this.input = builder.input;
       this.limit = builder.limit;
+      this.offset = builder.offset;
       this.includeSynonyms = builder.includeSynonyms;
       this.includeAcronyms = builder.includeAcronyms;
       this.includeAbbreviations = builder.includeAbbreviations;
@@ -202,6 +276,10 @@ public interface Vocabulary<N> {
       return limit;
     }
 
+    public int getOffset() {
+      return offset;
+    }
+
     public boolean isIncludeSynonyms() {
       return includeSynonyms;
     }
@@ -222,6 +300,25 @@ public interface Vocabulary<N> {
       return categories;
     }
 
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(input, limit, offset, includeSynonyms, includeAcronyms,
+          includeAbbreviations, ontologies, categories);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Query)) {
+        return false;
+      }
+      Query other = (Query) obj;
+      return Objects.equal(input, other.input) && limit == other.limit && offset == other.offset
+          && includeSynonyms == other.includeSynonyms && includeAcronyms == other.includeAcronyms
+          && includeAbbreviations == other.includeAbbreviations
+          && Objects.equal(ontologies, other.ontologies)
+          && Objects.equal(categories, other.categories);
+    }
+
   }
 
 }
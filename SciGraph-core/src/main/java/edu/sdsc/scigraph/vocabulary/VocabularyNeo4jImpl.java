@@ -16,18 +16,22 @@
 package edu.sdsc.scigraph.vocabulary;
 
 import static com.google.common.collect.Iterables.limit;
+import static com.google.common.collect.Iterables.skip;
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Lists.transform;
-import static java.lang.String.format;
+import static com.google.common.collect.Lists.partition;
+import static com.google.common.collect.Sets.newLinkedHashSet;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,98 +40,304 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.lucene.analysis.KeywordAnalyzer;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.queryParser.ParseException;
-import org.apache.lucene.queryParser.QueryParser;
-import org.apache.lucene.queryParser.analyzing.AnalyzingQueryParser;
-import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.spell.LuceneDictionary;
-import org.apache.lucene.search.spell.SpellChecker;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.util.Version;
-import org.neo4j.cypher.javacompat.ExecutionResult;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.index.IndexHits;
+import org.neo4j.index.lucene.QueryContext;
 
-import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
-import com.google.common.base.Supplier;
-import com.google.common.base.Suppliers;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 
 import edu.sdsc.scigraph.frames.CommonProperties;
 import edu.sdsc.scigraph.frames.Concept;
 import edu.sdsc.scigraph.frames.NodeProperties;
-import edu.sdsc.scigraph.lucene.LuceneUtils;
+import edu.sdsc.scigraph.internal.facets.FacetIndex;
 import edu.sdsc.scigraph.lucene.VocabularyQueryAnalyzer;
 import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.neo4j.VersionedIndex;
 
 public class VocabularyNeo4jImpl<N extends NodeProperties> implements Vocabulary<N> {
 
   private static final Logger logger = Logger.getLogger(VocabularyNeo4jImpl.class.getName());
 
+  /***
+   * Token streams are reused per thread so a single instance is safe to share.
+   */
+  private static final Analyzer analyzer = new VocabularyQueryAnalyzer();
+
+  /***
+   * Category and ontology filters are shared by all vocabularies since their document sets are
+   * cached per index segment.
+   */
+  private static final TermFilterCache filters = new TermFilterCache();
+
+  static final String BOL = "^";
+  static final String EOL = "$";
+
+  /***
+   * The number of batch inputs resolved by a single index query. Each input contributes at most a
+   * few clauses so this stays well below the default {@link BooleanQuery#getMaxClauseCount()}.
+   */
+  static final int BATCH_SIZE = 256;
+
+  /***
+   * The largest offset + limit collected with a bounded hit queue.
+   */
+  static final int MAX_TOP_HITS = 10_000;
+
+  private static final Joiner TOKEN_JOINER = Joiner.on(' ');
+  private static final Splitter TOKEN_SPLITTER = Splitter.on(' ').omitEmptyStrings();
+
   private final Graph<N> graph;
-  private SpellChecker spellChecker;
-  private final QueryParser parser;
+  private final Optional<SpellCheckerIndex> spellChecker;
+  private final Optional<VocabularySearchIndex> searchIndex;
+  private final VersionedIndex<CompletionIndex> completionIndex;
+  private final VersionedIndex<FuzzyIndex> fuzzyIndex;
+  private volatile boolean searchIndexCurrent = false;
+  private volatile long searchIndexCheckedVersion = -1;
+
+  private final VersionedIndex<FacetIndex.Facets> facets;
 
   @Inject
   public VocabularyNeo4jImpl(Graph<N> graph, @Nullable @Named("neo4j.location") String neo4jLocation)
       throws IOException {
+    this(graph, getSpellChecker(neo4jLocation), getSearchIndex(neo4jLocation));
+  }
+
+  VocabularyNeo4jImpl(final Graph<N> graph, Optional<SpellCheckerIndex> spellChecker,
+      Optional<VocabularySearchIndex> searchIndex) {
     this.graph = graph;
-    if (null != neo4jLocation) {
-      Directory indexDirectory = FSDirectory.open(new File(new File(neo4jLocation),
-          "index/lucene/node/node_auto_index"));
-      Directory spellDirectory = FSDirectory.open(new File(new File(neo4jLocation),
-          "index/lucene/spellchecker"));
-      spellChecker = new SpellChecker(spellDirectory);
-      try (IndexReader reader = IndexReader.open(indexDirectory)) {
-        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36, new KeywordAnalyzer());
-        spellChecker.indexDictionary(new LuceneDictionary(reader, NodeProperties.LABEL
-            + LuceneUtils.EXACT_SUFFIX), config, true);
+    this.spellChecker = spellChecker;
+    this.searchIndex = searchIndex;
+    this.completionIndex = new VersionedIndex<CompletionIndex>(graph) {
+      @Override
+      protected CompletionIndex build(long version) throws IOException {
+        return CompletionIndex.build(graph.getGraphDb(), version);
       }
+    };
+    this.facets = new VersionedIndex<FacetIndex.Facets>(graph) {
+      @Override
+      protected FacetIndex.Facets build(long version) {
+        return new FacetIndex(graph.getGraphDb()).getCurrentFacets();
+      }
+    };
+    this.fuzzyIndex = new VersionedIndex<FuzzyIndex>(graph) {
+      @Override
+      protected FuzzyIndex build(long version) {
+        return FuzzyIndex.build(graph.getGraphDb(), version);
+      }
+    };
+  }
+
+  static Optional<SpellCheckerIndex> getSpellChecker(@Nullable String neo4jLocation) throws IOException {
+    if (null == neo4jLocation) {
+      return Optional.absent();
     }
-    parser = new AnalyzingQueryParser(Version.LUCENE_36, NodeProperties.LABEL,
-        new VocabularyQueryAnalyzer());
+    SpellCheckerIndex index = new SpellCheckerIndex(new File(neo4jLocation));
+    index.start();
+    return Optional.of(index);
   }
 
-  static String formatQuery(String format, Object... args) {
-    return format(format, transform(newArrayList(args), new Function<Object, Object>() {
-      @Override
-      public Object apply(Object input) {
-        return (input instanceof String) ? QueryParser.escape((String) input).replaceAll(" ",
-            "\\\\ ") : input;
+  static Optional<VocabularySearchIndex> getSearchIndex(@Nullable String neo4jLocation) throws IOException {
+    if (null == neo4jLocation) {
+      return Optional.absent();
+    }
+    return Optional.of(VocabularySearchIndex.open(new File(neo4jLocation)));
+  }
+
+  /***
+   * @return the tokens of input as analyzed for field
+   */
+  public static List<String> getTokens(String field, String input) {
+    List<String> tokens = new ArrayList<>();
+    try {
+      TokenStream stream = analyzer.reusableTokenStream(field, new StringReader(input));
+      CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+      stream.reset();
+      while (stream.incrementToken()) {
+        tokens.add(term.toString());
       }
-    }).toArray());
+      stream.end();
+      stream.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to analyze " + input, e);
+    }
+    return tokens;
   }
 
-  static void addCommonConstraints(BooleanQuery indexQuery, Query query) {
-    BooleanQuery categoryQueries = new BooleanQuery();
-    for (String category : query.getCategories()) {
-      categoryQueries.add(new TermQuery(new Term(Concept.CATEGORY, category)), Occur.SHOULD);
+  /***
+   * @return a query matching field values consisting of exactly the tokens of input
+   */
+  static PhraseQuery getExactQuery(String field, String input) {
+    return getExactQuery(field, getTokens(field, input));
+  }
+
+  static PhraseQuery getExactQuery(String field, Iterable<String> tokens) {
+    PhraseQuery query = new PhraseQuery();
+    query.add(new Term(field, BOL));
+    for (String token: tokens) {
+      query.add(new Term(field, token));
     }
-    if (!query.getCategories().isEmpty()) {
-      indexQuery.add(new BooleanClause(categoryQueries, Occur.MUST));
+    query.add(new Term(field, EOL));
+    return query;
+  }
+
+  /***
+   * @return a query matching field values containing any of the tokens of input
+   */
+  static BooleanQuery getAnyTokenQuery(String field, String input) {
+    BooleanQuery query = new BooleanQuery();
+    for (String token: getTokens(field, input)) {
+      query.add(new TermQuery(new Term(field, token)), Occur.SHOULD);
     }
+    return query;
+  }
+
+  static <T extends org.apache.lucene.search.Query> T boost(T query, float boost) {
+    query.setBoost(boost);
+    return query;
+  }
 
-    BooleanQuery ontoloogyQueries = new BooleanQuery();
-    for (String ontology : query.getOntologies()) {
-      ontoloogyQueries.add(new TermQuery(new Term(CommonProperties.ONTOLOGY, ontology)),
-          Occur.SHOULD);
+  static void addCommonConstraints(BooleanQuery indexQuery, Query query) {
+    if (!query.getCategories().isEmpty()) {
+      indexQuery.add(filters.getAnyValueQuery(Concept.CATEGORY, query.getCategories()), Occur.MUST);
     }
     if (!query.getOntologies().isEmpty()) {
-      indexQuery.add(new BooleanClause(ontoloogyQueries, Occur.MUST));
+      indexQuery.add(filters.getAnyValueQuery(CommonProperties.ONTOLOGY, query.getOntologies()),
+          Occur.MUST);
     }
   }
 
-  // TODO: Can this be done in the query?
+  /***
+   * @return offset + limit, saturated at {@link Integer#MAX_VALUE}
+   */
+  static int getTopCount(Query query) {
+    return (int) Math.min(Integer.MAX_VALUE, (long) query.getOffset() + query.getLimit());
+  }
+
+  /***
+   * Only the top offset + limit hits are scored and collected by Lucene.
+   * Lucene sizes its hit queue by that count so larger windows fall back to sorting every hit.
+   */
+  static QueryContext limitQuery(org.apache.lucene.search.Query luceneQuery, Query query) {
+    QueryContext context = new QueryContext(luceneQuery).sortByScore();
+    int top = getTopCount(query);
+    return (top <= MAX_TOP_HITS) ? context.top(top) : context;
+  }
+
   List<N> limitHits(IndexHits<Node> hits, Query query) {
-    return newArrayList(limit(graph.getOrCreateFramedNodes(hits), query.getLimit()));
+    try {
+      return newArrayList(limit(skip(graph.getOrCreateFramedNodes(hits), query.getOffset()),
+          query.getLimit()));
+    } finally {
+      hits.close();
+    }
+  }
+
+  /***
+   * The search index is only used while it was built from the current version of the graph.
+   * It is reopened at most once per graph version.
+   */
+  boolean isSearchIndexCurrent() {
+    if (!searchIndex.isPresent()) {
+      return false;
+    }
+    long version = graph.getVersion();
+    if (searchIndexCheckedVersion != version) {
+      synchronized (searchIndex) {
+        if (searchIndexCheckedVersion != version) {
+          try {
+            searchIndex.get().refresh();
+            searchIndexCurrent = searchIndex.get().getVersion().equals(Optional.of(version));
+          } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to open the vocabulary search index", e);
+            searchIndexCurrent = false;
+          }
+          if (!searchIndexCurrent) {
+            logger.warning("Vocabulary search index is missing or stale, using the node auto index");
+          }
+          searchIndexCheckedVersion = version;
+        }
+      }
+    }
+    return searchIndexCurrent;
+  }
+
+  /***
+   * Ids of nodes deleted since the index was built are skipped since a stale derived index is
+   * served while its replacement is built.
+   */
+  List<N> getConcepts(Iterable<Long> ids) {
+    List<N> concepts = new ArrayList<>();
+    for (Long id: ids) {
+      try {
+        concepts.add(graph.getOrCreateFramedNode(graph.getGraphDb().getNodeById(id)));
+      } catch (NotFoundException e) {
+        logger.fine("Skipping deleted node " + id);
+      }
+    }
+    return concepts;
+  }
+
+  /***
+   * @return the top hits of luceneQuery as limited by query
+   */
+  List<N> search(org.apache.lucene.search.Query luceneQuery, Query query) {
+    if (isSearchIndexCurrent()) {
+      try {
+        List<Long> ids = searchIndex.get().search(luceneQuery, getTopCount(query));
+        return getConcepts(skip(ids, query.getOffset()));
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to search the vocabulary search index", e);
+      }
+    }
+    IndexHits<Node> hits = graph.getNodeAutoIndex().query(limitQuery(luceneQuery, query));
+    return limitHits(hits, query);
+  }
+
+  /***
+   * @return all hits of luceneQuery ordered by score
+   */
+  List<Node> searchAll(org.apache.lucene.search.Query luceneQuery) {
+    List<Node> nodes = new ArrayList<>();
+    if (isSearchIndexCurrent()) {
+      try {
+        for (Long id: searchIndex.get().searchAll(luceneQuery)) {
+          try {
+            nodes.add(graph.getGraphDb().getNodeById(id));
+          } catch (NotFoundException e) {
+            logger.fine("Skipping deleted node " + id);
+          }
+        }
+        return nodes;
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to search the vocabulary search index", e);
+        nodes.clear();
+      }
+    }
+    IndexHits<Node> hits = graph.getNodeAutoIndex().query(new QueryContext(luceneQuery).sortByScore());
+    try {
+      for (Node hit: hits) {
+        nodes.add(hit);
+      }
+    } finally {
+      hits.close();
+    }
+    return nodes;
   }
 
   @Override
@@ -137,134 +347,301 @@ public class VocabularyNeo4jImpl<N extends NodeProperties> implements Vocabulary
 
   @Override
   public Collection<N> getConceptFromId(Query query) {
-    String idQuery = StringUtils.strip(query.getInput(), "\"");
-    idQuery = QueryParser.escape(idQuery);
-    String queryString = format("%s:%s %s:%s", CommonProperties.FRAGMENT, idQuery,
-        CommonProperties.CURIE, idQuery);
-    IndexHits<Node> hits;
-    try {
-      hits = graph.getNodeAutoIndex().query(parser.parse(queryString));
-      return limitHits(hits, query);
-    } catch (ParseException e) {
-      logger.log(Level.WARNING, "Failed to parse an ID query", e);
-      return Collections.emptySet();
+    String id = StringUtils.strip(query.getInput(), "\"");
+    BooleanQuery idQuery = new BooleanQuery();
+    idQuery.add(new TermQuery(new Term(CommonProperties.FRAGMENT, id)), Occur.SHOULD);
+    for (String curie: getTokens(CommonProperties.CURIE, id)) {
+      idQuery.add(new TermQuery(new Term(CommonProperties.CURIE, curie)), Occur.SHOULD);
     }
+    return search(idQuery, query);
+  }
 
+  /***
+   * Builds the completion, fuzzy and facet indexes so the first lookups don't pay for a full scan
+   * of the graph.
+   */
+  public void prewarm() {
+    completionIndex.get();
+    fuzzyIndex.get();
+    facets.get();
   }
 
-  @Override
-  public List<N> getConceptsFromPrefix(Query query) {
-    BooleanQuery finalQuery = new BooleanQuery();
-    try {
-      BooleanQuery subQuery = new BooleanQuery();
-      subQuery.add(parser.parse(formatQuery("%s%s:%s*", NodeProperties.LABEL,
-          LuceneUtils.EXACT_SUFFIX, query.getInput())), Occur.SHOULD);
-      subQuery.add(parser.parse(formatQuery("%s:%s*", NodeProperties.CURIE, query.getInput())),
-          Occur.SHOULD);
-      subQuery.add(parser.parse(formatQuery("%s:%s*", NodeProperties.FRAGMENT, query.getInput())),
-          Occur.SHOULD);
-
-      if (query.isIncludeSynonyms()) {
-        subQuery.add(
-            parser.parse(formatQuery("%s%s:%s*", Concept.SYNONYM, LuceneUtils.EXACT_SUFFIX,
-                query.getInput())), Occur.SHOULD);
+  CompletionIndex getCompletionIndex() {
+    return completionIndex.get();
+  }
+
+  FuzzyIndex getFuzzyIndex() {
+    return fuzzyIndex.get();
+  }
+
+  static boolean hasAny(Object property, Collection<String> values) {
+    if (property instanceof String[]) {
+      for (String value: (String[]) property) {
+        if (values.contains(value)) {
+          return true;
+        }
       }
-      finalQuery.add(subQuery, Occur.MUST);
-    } catch (ParseException e) {
-      logger.log(Level.WARNING, "Failed to parser query", e);
+      return false;
     }
-    addCommonConstraints(finalQuery, query);
-    IndexHits<Node> hits = graph.getNodeAutoIndex().query(finalQuery);
-    return limitHits(hits, query);
+    return values.contains(property);
+  }
+
+  Predicate<Long> getConstraints(final Query query) {
+    if (query.getCategories().isEmpty() && query.getOntologies().isEmpty()) {
+      return Predicates.alwaysTrue();
+    }
+    return new Predicate<Long>() {
+      @Override
+      public boolean apply(Long id) {
+        Node node;
+        try {
+          node = graph.getGraphDb().getNodeById(id);
+        } catch (NotFoundException e) {
+          return false;
+        }
+        return (query.getCategories().isEmpty()
+            || hasAny(node.getProperty(Concept.CATEGORY, null), query.getCategories()))
+            && (query.getOntologies().isEmpty()
+            || hasAny(node.getProperty(CommonProperties.ONTOLOGY, null), query.getOntologies()));
+      }
+    };
+  }
+
+  @Override
+  public List<N> getConceptsFromPrefix(Query query) {
+    List<Long> ids = getCompletionIndex().lookup(query.getInput(),
+        getTopCount(query), query.isIncludeSynonyms(), getConstraints(query));
+    return getConcepts(skip(ids, query.getOffset()));
   }
 
   @Override
   public List<N> searchConcepts(Query query) {
     BooleanQuery finalQuery = new BooleanQuery();
-    try {
-      if (query.isIncludeSynonyms()) {
-        BooleanQuery subQuery = new BooleanQuery();
-        subQuery.add(LuceneUtils.getBoostedQuery(parser, query.getInput(), 10.0f), Occur.SHOULD);
-        subQuery.add(parser.parse(Concept.SYNONYM + ":" + query.getInput()), Occur.SHOULD);
-        finalQuery.add(subQuery, Occur.MUST);
-      } else {
-        finalQuery.add(parser.parse(query.getInput()), Occur.MUST);
-      }
-    } catch (ParseException e) {
-      logger.log(Level.WARNING, "Failed to parser query", e);
+    if (query.isIncludeSynonyms()) {
+      BooleanQuery subQuery = new BooleanQuery();
+      subQuery.add(boost(getAnyTokenQuery(NodeProperties.LABEL, query.getInput()), 10.0f), Occur.SHOULD);
+      subQuery.add(getAnyTokenQuery(Concept.SYNONYM, query.getInput()), Occur.SHOULD);
+      finalQuery.add(subQuery, Occur.MUST);
+    } else {
+      finalQuery.add(getAnyTokenQuery(NodeProperties.LABEL, query.getInput()), Occur.MUST);
     }
     addCommonConstraints(finalQuery, query);
-    IndexHits<Node> hits = graph.getNodeAutoIndex().query(finalQuery);
-    return limitHits(hits, query);
+    return search(finalQuery, query);
   }
 
   @Override
   public List<N> getConceptsFromTerm(Query query) {
-    String exactQuery = String.format("\"\\^ %s $\"", query.getInput());
     BooleanQuery finalQuery = new BooleanQuery();
-    try {
-      if (query.isIncludeSynonyms()) {
-        BooleanQuery subQuery = new BooleanQuery();
-        subQuery.add(LuceneUtils.getBoostedQuery(parser, exactQuery, 10.0f), Occur.SHOULD);
-        subQuery.add(parser.parse(Concept.SYNONYM + ":" + exactQuery), Occur.SHOULD);
-        finalQuery.add(subQuery, Occur.MUST);
-      } else {
-        finalQuery.add(parser.parse(exactQuery), Occur.MUST);
-      }
-    } catch (ParseException e) {
-      logger.log(Level.WARNING, "Failed to parser query", e);
+    if (query.isIncludeSynonyms()) {
+      BooleanQuery subQuery = new BooleanQuery();
+      subQuery.add(boost(getExactQuery(NodeProperties.LABEL, query.getInput()), 10.0f), Occur.SHOULD);
+      subQuery.add(getExactQuery(Concept.SYNONYM, query.getInput()), Occur.SHOULD);
+      finalQuery.add(subQuery, Occur.MUST);
+    } else {
+      finalQuery.add(getExactQuery(NodeProperties.LABEL, query.getInput()), Occur.MUST);
     }
     addCommonConstraints(finalQuery, query);
     logger.finest(finalQuery.toString());
-    IndexHits<Node> hits = graph.getNodeAutoIndex().query(finalQuery);
-    return limitHits(hits, query);
+    return search(finalQuery, query);
   }
 
   @Override
-  public Set<String> getAllCategories() {
-    return Suppliers.memoize(new Supplier<Set<String>>() {
-      @Override
-      public Set<String> get() {
-        ExecutionResult result = graph.getExecutionEngine().execute(
-            "START n = node(*) WHERE has(n.category) RETURN distinct(n.category)");
-        Set<String> categories = new HashSet<>();
-        while (result.iterator().hasNext()) {
-          Map<String, Object> col = result.iterator().next();
-          Object category = col.get("(n.category)");
-          if (category.getClass().isArray()) {
-            for (String cat : (String[]) category) {
-              categories.add(cat);
-            }
-          } else {
-            categories.add((String) col.get("(n.category)"));
+  public List<N> getConceptsFromFuzzyTerm(Query query) {
+    List<Long> ids = getFuzzyIndex().lookup(query.getInput(), getTopCount(query),
+        query.isIncludeSynonyms(), getConstraints(query));
+    return getConcepts(skip(ids, query.getOffset()));
+  }
+
+  /***
+   * @return the index terms that identify a batch input
+   */
+  static Set<Term> getBatchKeys(BatchType type, String input) {
+    Set<Term> keys = newLinkedHashSet();
+    switch (type) {
+      case URI:
+        keys.add(new Term(CommonProperties.URI, input));
+        break;
+      case ID:
+        String id = StringUtils.strip(input, "\"");
+        keys.add(new Term(CommonProperties.FRAGMENT, id));
+        for (String curie: getTokens(CommonProperties.CURIE, id)) {
+          keys.add(new Term(CommonProperties.CURIE, curie));
+        }
+        break;
+      case TERM:
+        keys.add(new Term(NodeProperties.LABEL, TOKEN_JOINER.join(getTokens(NodeProperties.LABEL, input))));
+        keys.add(new Term(Concept.SYNONYM, TOKEN_JOINER.join(getTokens(Concept.SYNONYM, input))));
+        break;
+    }
+    return keys;
+  }
+
+  static org.apache.lucene.search.Query getBatchQuery(Term key) {
+    if (NodeProperties.LABEL.equals(key.field())) {
+      return boost(getExactQuery(key.field(), TOKEN_SPLITTER.split(key.text())), 10.0f);
+    } else if (Concept.SYNONYM.equals(key.field())) {
+      return getExactQuery(key.field(), TOKEN_SPLITTER.split(key.text()));
+    } else {
+      return new TermQuery(key);
+    }
+  }
+
+  /***
+   * @return the keys of node which could have been produced by {@link #getBatchKeys(BatchType, String)}
+   */
+  Set<Term> getBatchKeys(BatchType type, Node node) {
+    Set<Term> keys = newLinkedHashSet();
+    switch (type) {
+      case URI:
+        for (String uri: graph.getProperties(node, CommonProperties.URI, String.class)) {
+          keys.add(new Term(CommonProperties.URI, uri));
+        }
+        break;
+      case ID:
+        for (String fragment: graph.getProperties(node, CommonProperties.FRAGMENT, String.class)) {
+          keys.add(new Term(CommonProperties.FRAGMENT, fragment));
+        }
+        for (String curie: graph.getProperties(node, CommonProperties.CURIE, String.class)) {
+          for (String token: getTokens(CommonProperties.CURIE, curie)) {
+            keys.add(new Term(CommonProperties.CURIE, token));
           }
         }
-        return categories;
+        break;
+      case TERM:
+        for (String field: new String[] {NodeProperties.LABEL, Concept.SYNONYM}) {
+          for (String value: graph.getProperties(node, field, String.class)) {
+            keys.add(new Term(field, TOKEN_JOINER.join(getTokens(field, value))));
+          }
+        }
+        break;
+    }
+    return keys;
+  }
+
+  /***
+   * @return a query matching any of the keys of inputs
+   */
+  static BooleanQuery getBatchQuery(BatchType type, Collection<String> inputs) {
+    Set<Term> keys = newLinkedHashSet();
+    for (String input: inputs) {
+      keys.addAll(getBatchKeys(type, input));
+    }
+    BooleanQuery batchQuery = new BooleanQuery();
+    for (Term key: keys) {
+      batchQuery.add(getBatchQuery(key), Occur.SHOULD);
+    }
+    return batchQuery;
+  }
+
+  /***
+   * Resolves all of inputs with a single index query and maps each hit back to the inputs whose 
+   * keys it shares. Inputs left without hits may still have been matched through analysis
+   * (ie: lemmatization) so they are resolved with {@link #resolveThroughAnalysis}.
+   */
+  Map<String, Collection<N>> resolveBatch(BatchType type, List<String> inputs) {
+    Multimap<Term, String> inputsByKey = HashMultimap.create();
+    for (String input: inputs) {
+      for (Term key: getBatchKeys(type, input)) {
+        inputsByKey.put(key, input);
+      }
+    }
+    Multimap<String, Node> nodes = LinkedHashMultimap.create();
+    List<Node> hits = searchAll(getBatchQuery(type, inputs));
+    for (Node hit: hits) {
+      for (Term key: getBatchKeys(type, hit)) {
+        for (String input: inputsByKey.get(key)) {
+          nodes.put(input, hit);
+        }
+      }
+    }
+    if (!hits.isEmpty()) {
+      List<String> unresolved = new ArrayList<>();
+      for (String input: inputs) {
+        if (!nodes.containsKey(input)) {
+          unresolved.add(input);
+        }
       }
-    }).get();
+      resolveThroughAnalysis(type, unresolved, nodes);
+    }
+    Map<String, Collection<N>> concepts = new LinkedHashMap<>();
+    for (String input: inputs) {
+      concepts.put(input, newArrayList(graph.getOrCreateFramedNodes(nodes.get(input))));
+    }
+    return concepts;
+  }
+
+  /***
+   * Finds which of inputs have hits by halving inputs while their query still returns any.
+   * An input that is left on its own gets all the hits of its query, so inputs without hits cost
+   * a single query between them and only the inputs matched through analysis are queried
+   * individually.
+   */
+  void resolveThroughAnalysis(BatchType type, List<String> inputs, Multimap<String, Node> nodes) {
+    if (inputs.isEmpty()) {
+      return;
+    }
+    List<Node> hits = searchAll(getBatchQuery(type, inputs));
+    if (hits.isEmpty()) {
+      return;
+    } else if (inputs.size() == 1) {
+      nodes.putAll(inputs.get(0), hits);
+    } else {
+      int half = inputs.size() / 2;
+      resolveThroughAnalysis(type, inputs.subList(0, half), nodes);
+      resolveThroughAnalysis(type, inputs.subList(half, inputs.size()), nodes);
+    }
+  }
+
+  @Override
+  public Map<String, Collection<N>> getConcepts(BatchType type, Collection<String> inputs) {
+    Map<String, Collection<N>> concepts = new LinkedHashMap<>();
+    for (List<String> batch: partition(newArrayList(newLinkedHashSet(inputs)), BATCH_SIZE)) {
+      concepts.putAll(resolveBatch(type, batch));
+    }
+    return concepts;
+  }
+
+  @Override
+  public Set<String> getAllCategories() {
+    return getCategoryCounts().keySet();
   }
 
   @Override
   public Set<String> getAllOntologies() {
-    return Suppliers.memoize(new Supplier<Set<String>>() {
-      @Override
-      public Set<String> get() {
-        ExecutionResult result = graph.getExecutionEngine().execute(
-            "START n = node(*) WHERE has(n.ontology) RETURN distinct(n.ontology)");
-        Set<String> ontologies = new HashSet<>();
-        while (result.iterator().hasNext()) {
-          Map<String, Object> col = result.iterator().next();
-          ontologies.add((String) col.get("(n.ontology)"));
-        }
-        return ontologies;
-      }
-    }).get();
+    return getOntologyCounts().keySet();
+  }
+
+  @Override
+  public Map<String, Integer> getCategoryCounts() {
+    return facets.get().getCategories();
+  }
+
+  @Override
+  public Map<String, Integer> getOntologyCounts() {
+    return facets.get().getOntologies();
+  }
+
+  @Override
+  public boolean isSuggestionsReady() {
+    return spellChecker.isPresent() && spellChecker.get().isReady();
+  }
+
+  @Override
+  public boolean isSuggestionsFailed() {
+    return spellChecker.isPresent() && spellChecker.get().getFailure().isPresent();
+  }
+
+  boolean awaitSuggestions(long timeout, TimeUnit unit) throws InterruptedException {
+    return spellChecker.isPresent() && spellChecker.get().awaitReady(timeout, unit);
   }
 
   @Override
   public List<String> getSuggestions(String query) {
+    if (!spellChecker.isPresent()) {
+      return Collections.emptyList();
+    }
     try {
-      return newArrayList(spellChecker.suggestSimilar(query, 5));
+      return spellChecker.get().suggestSimilar(query, 5);
     } catch (IOException e) {
       logger.log(Level.WARNING, "Failed to get spelling suggestions", e);
       return Collections.emptyList();
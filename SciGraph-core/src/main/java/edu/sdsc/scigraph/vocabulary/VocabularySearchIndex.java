@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+import edu.sdsc.scigraph.lucene.VocabularyIndexAnalyzer;
+import edu.sdsc.scigraph.neo4j.Graph;
+
+/***
+ * A Lucene index of the vocabulary properties of each concept, owned by SciGraph rather than by
+ * Neo4j's node auto index.
+ * 
+ * <p>The index is built from the graph after loading, in a single pass with a large RAM buffer,
+ * and merged down to one segment. Each commit records the graph version it was built from so
+ * that readers can tell whether the index is current. Searches return node ids.
+ */
+public class VocabularySearchIndex implements Closeable {
+
+  private static final Logger logger = Logger.getLogger(VocabularySearchIndex.class.getName());
+
+  static final String INDEX_LOCATION = "index/lucene/vocabulary";
+  static final String NODE_ID = "_nodeId";
+  static final String GRAPH_VERSION = "graphVersion";
+
+  private static final double RAM_BUFFER_SIZE_MB = 64;
+
+  private final Directory directory;
+  private SearcherManager searcherManager;
+
+  public VocabularySearchIndex(Directory directory) {
+    this.directory = directory;
+  }
+
+  /***
+   * @param graphLocation the location of the Neo4j graph
+   * @return the search index stored with the graph
+   */
+  public static VocabularySearchIndex open(File graphLocation) throws IOException {
+    return new VocabularySearchIndex(FSDirectory.open(new File(graphLocation, INDEX_LOCATION)));
+  }
+
+  static IndexWriterConfig getWriterConfig() throws IOException {
+    Analyzer analyzer;
+    try {
+      analyzer = new VocabularyIndexAnalyzer();
+    } catch (URISyntaxException e) {
+      throw new IOException("Failed to create the vocabulary analyzer", e);
+    }
+    IndexWriterConfig config = new IndexWriterConfig(LuceneUtils.getVersion(), analyzer);
+    config.setOpenMode(OpenMode.CREATE);
+    config.setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB);
+    config.setMergePolicy(new TieredMergePolicy());
+    return config;
+  }
+
+  static Document getDocument(Node node) {
+    Document document = new Document();
+    document.add(new Field(NODE_ID, Long.toString(node.getId()), Store.YES, Index.NOT_ANALYZED_NO_NORMS));
+    for (String property: Graph.NODE_PROPERTIES_TO_INDEX) {
+      Object value = node.getProperty(property, null);
+      if (value instanceof String[]) {
+        for (String item: (String[]) value) {
+          document.add(new Field(property, item, Store.NO, Index.ANALYZED));
+        }
+      } else if (null != value) {
+        document.add(new Field(property, value.toString(), Store.NO, Index.ANALYZED));
+      }
+    }
+    return document;
+  }
+
+  /***
+   * Replace the contents of the index with the concepts of a graph.
+   * 
+   * @param graphDb the graph to index
+   * @param version the version of the graph
+   */
+  public void build(GraphDatabaseService graphDb, long version) throws IOException {
+    Stopwatch timer = Stopwatch.createStarted();
+    int count = 0;
+    IndexWriter writer = new IndexWriter(directory, getWriterConfig());
+    try {
+      for (Node node: GlobalGraphOperations.at(graphDb).getAllNodes()) {
+        if (node.hasProperty(CommonProperties.URI)) {
+          writer.addDocument(getDocument(node));
+          count++;
+        }
+      }
+      writer.forceMerge(1);
+      writer.commit(ImmutableMap.of(GRAPH_VERSION, Long.toString(version)));
+    } finally {
+      writer.close();
+    }
+    refresh();
+    logger.info("Vocabulary search index built in " + timer + " for " + count + " concepts.");
+  }
+
+  /***
+   * Open the index, or reopen it if it has been rebuilt since it was last opened.
+   */
+  public synchronized void refresh() throws IOException {
+    if (null != searcherManager) {
+      searcherManager.maybeRefresh();
+    } else if (IndexReader.indexExists(directory)) {
+      searcherManager = new SearcherManager(directory, null);
+    }
+  }
+
+  synchronized SearcherManager getSearcherManager() {
+    return searcherManager;
+  }
+
+  /***
+   * @return the graph version the open index was built from, absent if the index is not open
+   */
+  public Optional<Long> getVersion() throws IOException {
+    SearcherManager manager = getSearcherManager();
+    if (null == manager) {
+      return Optional.absent();
+    }
+    IndexSearcher searcher = manager.acquire();
+    try {
+      String version = searcher.getIndexReader().getCommitUserData().get(GRAPH_VERSION);
+      return (null == version) ? Optional.<Long>absent() : Optional.of(Long.valueOf(version));
+    } finally {
+      manager.release(searcher);
+    }
+  }
+
+  /***
+   * @param query the query
+   * @param count the maximum number of hits
+   * @return the node ids of the top hits, ordered by score
+   */
+  public List<Long> search(Query query, int count) throws IOException {
+    List<Long> ids = new ArrayList<>();
+    SearcherManager manager = getSearcherManager();
+    if (null == manager || count < 1) {
+      return ids;
+    }
+    IndexSearcher searcher = manager.acquire();
+    try {
+      for (ScoreDoc hit: searcher.search(query, count).scoreDocs) {
+        ids.add(Long.valueOf(searcher.doc(hit.doc).get(NODE_ID)));
+      }
+    } finally {
+      manager.release(searcher);
+    }
+    return ids;
+  }
+
+  /***
+   * Collects every hit with its score, in the order {@link IndexSearcher#search(Query, int)}
+   * would rank them.
+   */
+  static class AllHitsCollector extends Collector {
+
+    private static final Comparator<ScoreDoc> SCORE_ORDER = new Comparator<ScoreDoc>() {
+      @Override
+      public int compare(ScoreDoc a, ScoreDoc b) {
+        int order = Float.compare(b.score, a.score);
+        return (0 != order) ? order : Integer.compare(a.doc, b.doc);
+      }
+    };
+
+    private final List<ScoreDoc> hits = new ArrayList<>();
+    private Scorer scorer;
+    private int docBase;
+
+    @Override
+    public void setScorer(Scorer scorer) {
+      this.scorer = scorer;
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+      hits.add(new ScoreDoc(docBase + doc, scorer.score()));
+    }
+
+    @Override
+    public void setNextReader(IndexReader reader, int docBase) {
+      this.docBase = docBase;
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+      return true;
+    }
+
+    List<ScoreDoc> getHits() {
+      Collections.sort(hits, SCORE_ORDER);
+      return hits;
+    }
+
+  }
+
+  /***
+   * @param query the query
+   * @return the node ids of all hits, ordered by score
+   */
+  public List<Long> searchAll(Query query) throws IOException {
+    List<Long> ids = new ArrayList<>();
+    SearcherManager manager = getSearcherManager();
+    if (null == manager) {
+      return ids;
+    }
+    IndexSearcher searcher = manager.acquire();
+    try {
+      AllHitsCollector collector = new AllHitsCollector();
+      searcher.search(query, collector);
+      for (ScoreDoc hit: collector.getHits()) {
+        ids.add(Long.valueOf(searcher.doc(hit.doc).get(NODE_ID)));
+      }
+    } finally {
+      manager.release(searcher);
+    }
+    return ids;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (null != searcherManager) {
+      searcherManager.close();
+      searcherManager = null;
+    }
+    directory.close();
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
+
+public class CachingEntityRecognizerTest {
+
+  EntityFormatConfiguration config = mock(EntityFormatConfiguration.class);
+  Concept concept = mock(Concept.class);
+  Vocabulary<Concept> vocabulary;
+  AtomicLong version = new AtomicLong();
+  CachingEntityRecognizer recognizer;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() throws Exception {
+    vocabulary = mock(Vocabulary.class);
+    when(concept.getLabels()).thenReturn(newArrayList("cerebellum"));
+    when(concept.getCategories()).thenReturn(singleton("anatomy"));
+    when(vocabulary.getConceptsFromTerm(any(Query.class))).thenReturn(Collections.<Concept>emptyList());
+    when(vocabulary.getConceptsFromTerm(new Query.Builder("cerebellum").build())).thenReturn(
+        singletonList(concept));
+    when(vocabulary.getConceptsFromTerm(new Query.Builder("Cerebellum").build())).thenReturn(
+        singletonList(concept));
+    recognizer = new CachingEntityRecognizer(vocabulary,
+        100, new Supplier<Long>() {
+      @Override
+      public Long get() {
+        return version.get();
+      }
+    });
+  }
+
+  @Test
+  public void testEquivalentCandidatesShareEntries() {
+    assertThat(recognizer.getEntities("cerebellum", config), contains(new Entity(concept)));
+    assertThat(recognizer.getEntities("Cerebellum,", config), contains(new Entity(concept)));
+    verify(vocabulary, times(1)).getConceptsFromTerm(any(Query.class));
+    assertThat(recognizer.stats().hitCount(), is(1L));
+  }
+
+  @Test
+  public void testMissesAreCached() {
+    assertThat(recognizer.getEntities("observed", config), is(empty()));
+    assertThat(recognizer.getEntities("observed", config), is(empty()));
+    verify(vocabulary, times(1)).getConceptsFromTerm(any(Query.class));
+    assertThat(recognizer.emptyHitCount(), is(1L));
+  }
+
+  @Test
+  public void testConfigurationIsPartOfTheKey() {
+    assertThat(recognizer.getEntities("cerebellum", config), contains(new Entity(concept)));
+    when(config.getExcludeCategories()).thenReturn(singleton("anatomy"));
+    assertThat(recognizer.getEntities("cerebellum", config), is(empty()));
+    verify(vocabulary, times(2)).getConceptsFromTerm(any(Query.class));
+  }
+
+  @Test
+  public void testGraphVersionChangeInvalidates() {
+    recognizer.getEntities("cerebellum", config);
+    version.incrementAndGet();
+    recognizer.getEntities("cerebellum", config);
+    verify(vocabulary, times(2)).getConceptsFromTerm(any(Query.class));
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.util.GraphTestBase;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
+
+public class DictionaryEntityRecognizerTest extends GraphTestBase {
+
+  EntityFormatConfiguration config = mock(EntityFormatConfiguration.class);
+  Graph<Concept> graph;
+  DictionaryEntityRecognizer recognizer;
+  EntityProcessorImpl processor;
+  Entity atrophy;
+  Entity sma;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() throws Exception {
+    graph = new Graph<Concept>(graphDb, Concept.class);
+    Concept concept = graph.getOrCreateFramedNode("http://example.org/#sma");
+    concept.addLabel("Spinal muscular atrophy");
+    concept.addSynonym("SMA");
+    sma = new Entity(concept);
+    concept = graph.getOrCreateFramedNode("http://example.org/#atrophy");
+    concept.addLabel("muscular atrophy");
+    concept.addCategory("disease");
+    atrophy = new Entity(concept);
+    recognizer = new DictionaryEntityRecognizer(mock(Vocabulary.class), graph);
+    processor = new EntityProcessorImpl(recognizer);
+  }
+
+  @Test
+  public void testGetAnnotations() throws Exception {
+    List<EntityAnnotation> annotations =
+        processor.getAnnotations("Sentence about Spinal muscular atrophy (SMA).", config);
+    assertThat(annotations, contains(new EntityAnnotation(atrophy, 22, 38),
+        new EntityAnnotation(sma, 15, 38), new EntityAnnotation(sma, 39, 45)));
+  }
+
+  @Test
+  public void testDeletedNodesAreSkipped() throws Exception {
+    long id = graph.getNode(sma.getId()).get().getId();
+    assertThat(recognizer.getEntities(new long[] {Long.MAX_VALUE, id}, config), contains(sma));
+  }
+
+  @Test
+  public void testExcludedCategories() throws Exception {
+    when(config.getExcludeCategories()).thenReturn(singleton("disease"));
+    List<EntityAnnotation> annotations =
+        processor.getAnnotations("muscular atrophy", config);
+    assertThat(annotations, is(empty()));
+  }
+
+  @Test
+  public void testMinLength() throws Exception {
+    when(config.getMinLength()).thenReturn(4);
+    List<EntityAnnotation> annotations = processor.getAnnotations("SMA", config);
+    assertThat(annotations, is(empty()));
+  }
+
+}
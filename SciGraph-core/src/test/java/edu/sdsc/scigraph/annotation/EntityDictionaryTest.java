@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import com.google.common.primitives.Longs;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.util.GraphTestBase;
+
+public class EntityDictionaryTest extends GraphTestBase {
+
+  Node cerebellum;
+  Node cortex;
+  Node nucleus;
+  Node parkinsons;
+  EntityDictionary dictionary;
+
+  Node createNode(String label, String... synonyms) {
+    Node node = graphDb.createNode();
+    node.setProperty(NodeProperties.LABEL, label);
+    if (synonyms.length > 0) {
+      node.setProperty(Concept.SYNONYM, synonyms);
+    }
+    return node;
+  }
+
+  @Before
+  public void setup() {
+    cerebellum = createNode("Cerebellum", "little brain");
+    cortex = createNode("Cerebellum cortex");
+    nucleus = createNode("Nucleus of the cell");
+    parkinsons = createNode("Parkinson's Disease");
+    dictionary = EntityDictionary.build(graphDb, 0);
+  }
+
+  List<String> getMatches(String text) {
+    List<String> tokens = asList(text.split(" "));
+    List<String> matches = new ArrayList<>();
+    for (EntityDictionary.Match match: dictionary.scan(tokens)) {
+      matches.add(match.getStart() + "-" + match.getEnd() + ":" + Longs.join(",", match.getIds()));
+    }
+    return matches;
+  }
+
+  @Test
+  public void testSize() {
+    assertThat(dictionary.size(), is(5));
+  }
+
+  @Test
+  public void testScanFindsNestedMatches() {
+    assertThat(getMatches("the cerebellum cortex"),
+        contains("1-1:" + cerebellum.getId(), "1-2:" + cortex.getId()));
+  }
+
+  @Test
+  public void testSynonyms() {
+    assertThat(getMatches("a little brain"), contains("1-2:" + cerebellum.getId()));
+  }
+
+  @Test
+  public void testMatchesAreNormalized() {
+    assertThat(getMatches("PARKINSONS disease"), contains("0-1:" + parkinsons.getId()));
+  }
+
+  @Test
+  public void testStopwordsAreSkipped() {
+    assertThat(getMatches("nucleus of a cell"), contains("0-3:" + nucleus.getId()));
+    assertThat(getMatches("nucleus cell"), contains("0-1:" + nucleus.getId()));
+  }
+
+  @Test
+  public void testLookup() {
+    assertThat(Longs.asList(dictionary.lookup(asList("Cerebellum"))), contains(cerebellum.getId()));
+    assertThat(Longs.asList(dictionary.lookup(asList("cerebellum", "of"))), contains(cerebellum.getId()));
+    assertThat(Longs.asList(dictionary.lookup(asList("cortex"))), is(empty()));
+    assertThat(Longs.asList(dictionary.lookup(asList("the"))), is(empty()));
+  }
+
+}
@@ -16,23 +16,49 @@
 package edu.sdsc.scigraph.annotation;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.base.Function;
 
 public class EntityProcessorImplTest {
 
@@ -62,6 +88,7 @@ public class EntityProcessorImplTest {
     when(recognizer.getEntities("cerebellum of", config)).thenReturn(singleton(mockEntity));
     when(recognizer.getEntities("SMA", config)).thenReturn(singleton(mockEntity));
     when(recognizer.getCssClass()).thenReturn("mock");
+    when(recognizer.getAnnotations(anyList(), eq(config))).thenCallRealMethod();
     processor = new EntityProcessorImpl(recognizer);
 
     expectedAnnotations.add(new EntityAnnotation(mockEntity2, 22, 38));
@@ -106,6 +133,17 @@ public class EntityProcessorImplTest {
     assertThat(processor.insertSpans(expectedAnnotations, text, config), is(equalTo(expected)));
   }
 
+  @Test
+  public void testWriteSpans() throws Exception {
+    when(config.isLongestOnly()).thenReturn(true);
+    StringWriter writer = new StringWriter();
+    processor.writeSpans(EntityProcessorImpl.getAnnotationGroups(expectedAnnotations, true),
+        text + " Trailing text.", config, writer);
+    String expected = "Sentence about <span class=\"mock\" data-entity=\"SMA,1,\">Spinal muscular atrophy</span>"
+        + " <span class=\"mock\" data-entity=\"SMA,1,\">(SMA).</span> Trailing text.";
+    assertThat(writer.toString(), is(equalTo(expected)));
+  }
+
   @Test
   public void testGetSeparateAnnotationGroups() {
     EntityAnnotation annot1 = new EntityAnnotation(mockEntity, 0, 4); 
@@ -164,6 +202,153 @@ public class EntityProcessorImplTest {
     assertThat(EntityProcessorImpl.getAnnotationGroups(annotationList, true), contains(group1));
   }
 
+  @Test
+  public void testBulkAnnotation() throws Exception {
+    EntityRecognizer recognizer = mock(EntityRecognizer.class);
+    when(recognizer.getEntities(eq("SMA"), any(EntityFormatConfiguration.class))).thenReturn(
+        singleton(mockEntity));
+    when(recognizer.getCssClass()).thenReturn("mock");
+    when(recognizer.getAnnotations(anyList(), any(EntityFormatConfiguration.class))).thenCallRealMethod();
+    EntityProcessorImpl bulkProcessor = new EntityProcessorImpl(recognizer);
+    final Map<String, Object> results = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      bulkProcessor.annotateEntities(Arrays.asList("about SMA", "nothing", "broken", "SMA").iterator(),
+          new Function<String, EntityFormatConfiguration>() {
+        @Override
+        public EntityFormatConfiguration apply(String document) {
+          Reader reader = "broken".equals(document) ? new BrokenReader() : new StringReader(document);
+          return new EntityFormatConfiguration.Builder(reader).get();
+        }
+      }, executor, 2, new AnnotationCallback<String>() {
+        @Override
+        public void onSuccess(String document, List<EntityAnnotation> annotations) {
+          results.put(document, annotations);
+        }
+
+        @Override
+        public void onFailure(String document, Throwable cause) {
+          results.put(document, cause);
+        }
+      });
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(results.size(), is(4));
+    assertThat(results.get("about SMA"), is((Object) singletonList(new EntityAnnotation(mockEntity, 6, 9))));
+    assertThat(results.get("SMA"), is((Object) singletonList(new EntityAnnotation(mockEntity, 0, 3))));
+    assertThat(results.get("nothing"), is((Object) emptyList()));
+    assertThat(results.get("broken"), is(instanceOf(Exception.class)));
+  }
+
+  @Test(timeout = 10000)
+  public void testBulkAnnotationRespectsMaxConcurrent() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger annotated = new AtomicInteger();
+    final Semaphore finish = new Semaphore(0);
+    final EntityRecognizer recognizer = mock(EntityRecognizer.class);
+    when(recognizer.getEntities(eq("SMA"), any(EntityFormatConfiguration.class))).thenAnswer(
+        new Answer<Collection<Entity>>() {
+          @Override
+          public Collection<Entity> answer(InvocationOnMock invocation) throws Throwable {
+            int current = inFlight.incrementAndGet();
+            int max;
+            while (current > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, current));
+            finish.acquire();
+            inFlight.decrementAndGet();
+            return singleton(mockEntity);
+          }
+        });
+    when(recognizer.getAnnotations(anyList(), any(EntityFormatConfiguration.class))).thenCallRealMethod();
+    when(recognizer.getCssClass()).thenReturn("mock");
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    ExecutorService bulk = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> annotation = bulk.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          new EntityProcessorImpl(recognizer).annotateEntities(
+              Collections.nCopies(8, "SMA").iterator(),
+              new Function<String, EntityFormatConfiguration>() {
+            @Override
+            public EntityFormatConfiguration apply(String document) {
+              return new EntityFormatConfiguration.Builder(new StringReader(document)).get();
+            }
+          }, executor, 2, new AnnotationCallback<String>() {
+            @Override
+            public void onSuccess(String document, List<EntityAnnotation> annotations) {
+              annotated.incrementAndGet();
+            }
+
+            @Override
+            public void onFailure(String document, Throwable cause) {}
+          });
+          return null;
+        }
+      });
+      for (int i = 0; i < 8; i++) {
+        // Give the pool time to start more documents than allowed before one finishes
+        Thread.sleep(50);
+        finish.release();
+      }
+      annotation.get();
+    } finally {
+      bulk.shutdown();
+      executor.shutdown();
+    }
+    assertThat(maxInFlight.get(), is(2));
+    assertThat(annotated.get(), is(8));
+  }
+
+  @Test
+  public void testWriterFailuresPropagate() throws Exception {
+    FailingOnceWriter writer = new FailingOnceWriter();
+    EntityFormatConfiguration configuration =
+        new EntityFormatConfiguration.Builder(new StringReader(text)).writeTo(writer).get();
+    try {
+      processor.annotateEntities(configuration);
+      fail("Writer failures should propagate");
+    } catch (IOException e) {
+      assertThat(e.getMessage(), is("broken"));
+    }
+    assertThat(writer.written.toString(), is(""));
+  }
+
+  static class FailingOnceWriter extends Writer {
+
+    final StringBuilder written = new StringBuilder();
+    boolean failed = false;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      if (!failed) {
+        failed = true;
+        throw new IOException("broken");
+      }
+      written.append(cbuf, off, len);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+  }
+
+  static class BrokenReader extends Reader {
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      throw new IOException("broken");
+    }
+
+    @Override
+    public void close() {}
+
+  }
+
   @Test
   public void testGetBase() throws MalformedURLException {
     assertThat(EntityProcessorImpl.getBase(new URL("http://example.org:9000/foo/bar.html")), is(equalTo("http://example.org:9000/foo/")));
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.annotation;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ForwardingIterator;
+
+public class ShingleIteratorTest {
+
+  Token<String> a = new Token<String>("a", 0, 1);
+  Token<String> b = new Token<String>("b", 2, 3);
+  Token<String> c = new Token<String>("c", 4, 5);
+
+  static List<List<Token<String>>> getShingles(List<Token<String>> tokens, int shingleCount) {
+    List<List<Token<String>>> shingles = new ArrayList<>();
+    Iterator<List<Token<String>>> iterator = new ShingleIterator(tokens.iterator(), shingleCount);
+    while (iterator.hasNext()) {
+      shingles.add(newArrayList(iterator.next()));
+    }
+    return shingles;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testShingles() {
+    List<List<Token<String>>> expected = new ArrayList<>();
+    expected.add(newArrayList(a));
+    expected.add(newArrayList(a, b));
+    expected.add(newArrayList(a, b, c));
+    expected.add(newArrayList(b));
+    expected.add(newArrayList(b, c));
+    expected.add(newArrayList(c));
+    assertThat(getShingles(newArrayList(a, b, c), 4), is(equalTo(expected)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testShingleCount() {
+    List<List<Token<String>>> expected = new ArrayList<>();
+    expected.add(newArrayList(a));
+    expected.add(newArrayList(a, b));
+    expected.add(newArrayList(b));
+    expected.add(newArrayList(b, c));
+    expected.add(newArrayList(c));
+    assertThat(getShingles(newArrayList(a, b, c), 2), is(equalTo(expected)));
+  }
+
+  @Test
+  public void testNoTokens() {
+    assertThat(getShingles(Collections.<Token<String>>emptyList(), 4).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testTokensArePulledAsNeeded() {
+    final List<Token<String>> pulled = new ArrayList<>();
+    final Iterator<Token<String>> tokens = newArrayList(a, b, c).iterator();
+    Iterator<List<Token<String>>> shingles = new ShingleIterator(new ForwardingIterator<Token<String>>() {
+      @Override
+      protected Iterator<Token<String>> delegate() {
+        return tokens;
+      }
+
+      @Override
+      public Token<String> next() {
+        Token<String> token = super.next();
+        pulled.add(token);
+        return token;
+      }
+    }, 2);
+    shingles.next();
+    assertThat(pulled, is(equalTo((List<Token<String>>) newArrayList(a, b))));
+  }
+
+}
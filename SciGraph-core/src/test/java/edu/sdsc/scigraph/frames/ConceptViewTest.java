@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.frames;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.util.GraphTestBase;
+
+public class ConceptViewTest extends GraphTestBase {
+
+  Graph<Concept> graph;
+  Concept frame;
+  Concept view;
+
+  @Before
+  public void setup() {
+    graph = new Graph<Concept>(graphDb, Concept.class);
+    frame = graph.getOrCreateFramedNode("http://example.org/#hippocampus");
+    frame.addLabel("Hippocampus");
+    frame.addSynonym("cornu ammonis");
+    frame.addSynonym("ammon's horn");
+    frame.setCurie("HP:0008");
+    view = graph.getOrCreateFramedNode(graph.getNode(frame));
+  }
+
+  @Test
+  public void testReadPathReturnsView() {
+    assertThat(view, is(instanceOf(ConceptView.class)));
+  }
+
+  @Test
+  public void testSingleValues() {
+    assertThat(view.getUri(), is("http://example.org/#hippocampus"));
+    assertThat(view.getCurie(), is("HP:0008"));
+    assertThat(view.getDefinition(), is(nullValue()));
+    assertThat(view.isAnonymous(), is(false));
+  }
+
+  @Test
+  public void testMultipleValues() {
+    assertThat(view.getLabels(), contains("Hippocampus"));
+    assertThat(view.getSynonyms(), contains("cornu ammonis", "ammon's horn"));
+    assertThat(view.getCategories(), is(emptyIterable()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSingleGetterOnMultipleValues() {
+    frame.addType("a");
+    frame.addType("b");
+    ((ConceptView) view).getSingle(CommonProperties.TYPE);
+  }
+
+  @Test
+  public void testEqualToFrame() {
+    assertThat(view.equals(frame), is(true));
+    assertThat(frame.equals(view), is(true));
+    assertThat(view.hashCode(), is(frame.hashCode()));
+    assertThat(view.toString(), is(frame.toString()));
+  }
+
+  @Test
+  public void testWritesAreDelegated() {
+    view.addCategory("anatomy");
+    assertThat(frame.getCategories(), contains("anatomy"));
+    assertThat(view.getCategories(), contains("anatomy"));
+  }
+
+}
@@ -17,9 +17,14 @@ package edu.sdsc.scigraph.internal;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
 
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.neo4j.graphdb.Node;
@@ -79,4 +84,22 @@ public class GraphApiCategoryTest extends GraphTestBase {
     assertThat(graphApi.getSelfLoops(), contains(r));
   }
 
+  static Entry<Node, Node> pair(Node start, Node end) {
+    return new AbstractMap.SimpleImmutableEntry<>(start, end);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReachablePairs() {
+    assertThat(graphApi.getReachablePairs(Arrays.asList(pair(a, b), pair(b, a), pair(a, c))),
+        contains(pair(a, b)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReachablePairMatrix() {
+    assertThat(graphApi.getReachablePairs(Arrays.asList(a, c), Arrays.asList(a, b)),
+        containsInAnyOrder(pair(a, a), pair(a, b)));
+  }
+
 }
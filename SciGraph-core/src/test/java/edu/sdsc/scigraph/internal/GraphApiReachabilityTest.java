@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map.Entry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.internal.reachability.ReachabilityIndex;
+import edu.sdsc.scigraph.neo4j.EdgeType;
+import edu.sdsc.scigraph.neo4j.Graph;
+
+public class GraphApiReachabilityTest {
+
+  GraphDatabaseService graphDb;
+  Graph<Concept> graph;
+  GraphApi graphApi;
+  Node a;
+  Node b;
+  Node c;
+
+  Node createClass(String uri) {
+    Node node = graph.getOrCreateNode(uri);
+    graph.setProperty(node, NodeProperties.TYPE, "OWLClass");
+    return node;
+  }
+
+  @Before
+  public void setup() throws Exception {
+    graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    graph = new Graph<Concept>(graphDb, Concept.class);
+    Transaction tx = graphDb.beginTx();
+    a = createClass("http://example.org/#a");
+    b = createClass("http://example.org/#b");
+    c = createClass("http://example.org/#c");
+    graph.getOrCreateRelationship(a, b, EdgeType.SUBCLASS_OF);
+    tx.success();
+    tx.finish();
+    new ReachabilityIndex(graphDb).createIndex();
+    graphApi = new GraphApi(graph);
+
+    // Connect a to c after indexing
+    tx = graphDb.beginTx();
+    graph.getOrCreateRelationship(b, c, EdgeType.SUBCLASS_OF);
+    tx.success();
+    tx.finish();
+  }
+
+  @After
+  public void teardown() {
+    graphDb.shutdown();
+  }
+
+  static Entry<Node, Node> pair(Node start, Node end) {
+    return new AbstractMap.SimpleImmutableEntry<>(start, end);
+  }
+
+  @Test
+  public void testStaleIndexIsNotTrusted() {
+    assertThat(graphApi.classIsInCategory(a, c), is(true));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStaleIndexReachablePairs() {
+    assertThat(graphApi.getReachablePairs(Arrays.asList(pair(a, c))), contains(pair(a, c)));
+    assertThat(graphApi.getReachablePairs(Collections.singleton(a), Collections.singleton(c)),
+        contains(pair(a, c)));
+  }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.facets;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+
+public class FacetIndexTest {
+
+  GraphDatabaseService graphDb;
+  Graph<Concept> graph;
+  FacetIndex index;
+
+  @Before
+  public void setup() {
+    graphDb = new TestGraphDatabaseFactory().newImpermanentDatabase();
+    graph = new Graph<Concept>(graphDb, Concept.class);
+    Transaction tx = graphDb.beginTx();
+    Concept a = graph.getOrCreateFramedNode("http://example.org/a");
+    a.addCategory("anatomy");
+    a.addCategory("cell");
+    a.setOntology("http://example.org/o1");
+    Concept b = graph.getOrCreateFramedNode("http://example.org/b");
+    b.addCategory("anatomy");
+    b.setOntology("http://example.org/o1");
+    Concept c = graph.getOrCreateFramedNode("http://example.org/c");
+    c.setOntology("http://example.org/o2");
+    tx.success();
+    tx.finish();
+    index = new FacetIndex(graphDb);
+  }
+
+  @After
+  public void teardown() {
+    graphDb.shutdown();
+  }
+
+  void assertCounts() {
+    Map<String, Integer> categories = index.getCategoryCounts();
+    assertThat(categories.size(), is(2));
+    assertThat(categories, hasEntry("anatomy", 2));
+    assertThat(categories, hasEntry("cell", 1));
+    Map<String, Integer> ontologies = index.getOntologyCounts();
+    assertThat(ontologies.size(), is(2));
+    assertThat(ontologies, hasEntry("http://example.org/o1", 2));
+    assertThat(ontologies, hasEntry("http://example.org/o2", 1));
+  }
+
+  @Test
+  public void testCountsWithoutIndex() {
+    assertThat(index.indexExists(), is(false));
+    assertCounts();
+  }
+
+  @Test
+  public void testCountsFromIndex() {
+    index.createIndex();
+    assertThat(index.indexExists(), is(true));
+    assertCounts();
+  }
+
+  @Test
+  public void testIndexIsStoredNotRecomputed() {
+    index.createIndex();
+    Transaction tx = graphDb.beginTx();
+    graph.getOrCreateFramedNode("http://example.org/d").addCategory("cell");
+    tx.success();
+    tx.finish();
+    assertThat(index.getCategoryCounts(), hasEntry("cell", 1));
+    index.dropIndex();
+    index.createIndex();
+    assertThat(index.getCategoryCounts(), hasEntry("cell", 2));
+  }
+
+  @Test
+  public void testCurrentFacetsFollowTheGraph() {
+    index.createIndex();
+    assertThat(index.isCurrent(), is(true));
+    assertThat(index.getCurrentFacets().getCategories(), hasEntry("cell", 1));
+    Transaction tx = graphDb.beginTx();
+    graph.getOrCreateFramedNode("http://example.org/d").addCategory("cell");
+    tx.success();
+    tx.finish();
+    assertThat(index.isCurrent(), is(false));
+    assertThat(index.getCurrentFacets().getCategories(), hasEntry("cell", 2));
+    assertThat(index.getCurrentFacets().getOntologies(), hasEntry("http://example.org/o1", 2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCreateTwice() {
+    index.createIndex();
+    index.createIndex();
+  }
+
+}
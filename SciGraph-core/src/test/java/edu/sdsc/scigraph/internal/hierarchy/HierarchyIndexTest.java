@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.hierarchy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.Traversal;
+import org.neo4j.kernel.Uniqueness;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import com.google.common.collect.Lists;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.EdgeType;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.owlapi.OntologyGenerator;
+
+public class HierarchyIndexTest {
+
+  static boolean isSubclass(HierarchyIndex.Encoding encoding, int candidate, int parent) {
+    return HierarchyIndex.contains(encoding.intervals[parent], encoding.preorder[candidate]);
+  }
+
+  @Test
+  public void testTree() {
+    // 0 -> 1 -> 2, 0 -> 3
+    HierarchyIndex.Encoding encoding = HierarchyIndex.encode(new int[][] {{1, 3}, {2}, {}, {}});
+    assertThat(isSubclass(encoding, 2, 0), is(true));
+    assertThat(isSubclass(encoding, 2, 1), is(true));
+    assertThat(isSubclass(encoding, 3, 1), is(false));
+    assertThat(isSubclass(encoding, 0, 2), is(false));
+    assertThat(isSubclass(encoding, 1, 1), is(true));
+  }
+
+  @Test
+  public void testMultipleInheritance() {
+    // 0 -> 1 -> 3, 0 -> 2 -> 3, 4 -> 2
+    HierarchyIndex.Encoding encoding = HierarchyIndex.encode(new int[][] {{1, 2}, {3}, {3}, {}, {2}});
+    assertThat(isSubclass(encoding, 3, 1), is(true));
+    assertThat(isSubclass(encoding, 3, 2), is(true));
+    assertThat(isSubclass(encoding, 3, 4), is(true));
+    assertThat(isSubclass(encoding, 1, 4), is(false));
+    assertThat(isSubclass(encoding, 2, 4), is(true));
+  }
+
+  @Test
+  public void testCycle() {
+    // 0 -> 1 -> 2 -> 1, 2 -> 3
+    HierarchyIndex.Encoding encoding = HierarchyIndex.encode(new int[][] {{1}, {2}, {1, 3}, {}});
+    assertThat(isSubclass(encoding, 1, 2), is(true));
+    assertThat(isSubclass(encoding, 2, 1), is(true));
+    assertThat(isSubclass(encoding, 3, 1), is(true));
+    assertThat(isSubclass(encoding, 0, 1), is(false));
+  }
+
+  @Test
+  public void testDetachedCycle() {
+    HierarchyIndex.Encoding encoding = HierarchyIndex.encode(new int[][] {{1}, {0}, {}});
+    assertThat(isSubclass(encoding, 0, 1), is(true));
+    assertThat(isSubclass(encoding, 1, 0), is(true));
+    assertThat(isSubclass(encoding, 2, 0), is(false));
+  }
+
+  @Test
+  public void testMerge() {
+    int[][] intervals = {{5, 6}, {0, 2}, {3, 3}};
+    assertThat(HierarchyIndex.merge(new int[] {8, 9}, new int[] {0, 1, 2}, intervals),
+        is(new int[] {0, 3, 5, 6, 8, 9}));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUncreatedIndex() {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    try {
+      Node n = graphDb.getNodeById(0);
+      new HierarchyIndex(graphDb).isSubclassOf(n, n);
+    } finally {
+      graphDb.shutdown();
+    }
+  }
+
+  @Test
+  public void testStaleIndex() throws Exception {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    Graph<Concept> graph = new Graph<Concept>(graphDb, Concept.class);
+    new OntologyGenerator.Builder().classCount(20).seed(3).build().generate(graph);
+    HierarchyIndex index = new HierarchyIndex(graphDb);
+    assertThat(index.isCurrent(), is(false));
+    index.createIndex();
+    assertThat(index.isCurrent(), is(true));
+
+    Transaction tx = graphDb.beginTx();
+    Node root = graph.getNode("http://example.org/synthetic/SYN_0000000").get();
+    Node leaf = graph.getNode("http://example.org/synthetic/SYN_0000019").get();
+    root.createRelationshipTo(leaf, EdgeType.SUBCLASS_OF);
+    tx.success();
+    tx.finish();
+    assertThat(index.isCurrent(), is(false));
+    graphDb.shutdown();
+  }
+
+  Set<Node> getAncestors(Node node) {
+    Set<Node> ancestors = new HashSet<>();
+    for (Path path: Traversal.description().uniqueness(Uniqueness.NODE_GLOBAL)
+        .relationships(EdgeType.SUBCLASS_OF, Direction.OUTGOING).traverse(node)) {
+      if (HierarchyIndex.isClass(path.endNode())) {
+        ancestors.add(path.endNode());
+      }
+    }
+    return ancestors;
+  }
+
+  @Test
+  public void testAgreesWithTraversal() throws Exception {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    Graph<Concept> graph = new Graph<Concept>(graphDb, Concept.class);
+    new OntologyGenerator.Builder().classCount(150).multipleInheritanceRate(0.3).depth(5)
+        .restrictionRate(0).seed(3).build().generate(graph);
+    HierarchyIndex index = new HierarchyIndex(graphDb);
+    index.createIndex();
+    assertThat(index.indexExists(), is(true));
+
+    List<Node> classes = Lists.newArrayList();
+    for (Node n: GlobalGraphOperations.at(graphDb).getAllNodes()) {
+      if (n.getId() > 0 && HierarchyIndex.isClass(n)) {
+        classes.add(n);
+      }
+    }
+    for (Node candidate: classes) {
+      Set<Node> ancestors = getAncestors(candidate);
+      for (Node parent: classes) {
+        assertThat(candidate.getProperty(CommonProperties.URI) + " < " + parent.getProperty(CommonProperties.URI),
+            index.isSubclassOf(candidate, parent), is(ancestors.contains(parent)));
+      }
+    }
+
+    Transaction tx = graphDb.beginTx();
+    index.dropIndex();
+    tx.success();
+    tx.finish();
+    assertThat(index.indexExists(), is(false));
+    assertThat(index.isIndexed(classes.get(0)), is(false));
+    graphDb.shutdown();
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.internal.reachability;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class HopCoveragesTest {
+
+  static long[] getIds(HopCoverages coverages) {
+    long[] ids = new long[coverages.size()];
+    for (int i = 0; i < coverages.size(); i++) {
+      ids[i] = coverages.getNodeId(i);
+    }
+    return ids;
+  }
+
+  @Test
+  public void testDescendingCoverage() {
+    HopCoverages coverages = HopCoverages.sort(new long[] {1, 2, 3, 4}, new int[] {1, -1, 5, 0});
+    assertThat(getIds(coverages), is(new long[] {3, 1, 4, 2}));
+    assertThat(coverages.getCoverage(0), is(5));
+    assertThat(coverages.getCoverage(3), is(-1));
+  }
+
+  @Test
+  public void testTiesAreOrderedById() {
+    long farId = 1L + Integer.MAX_VALUE * 3L;
+    HopCoverages coverages = HopCoverages.sort(new long[] {1, 2, farId}, new int[] {2, 2, 2});
+    assertThat(getIds(coverages), is(new long[] {1, 2, farId}));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertThat(HopCoverages.sort(new long[0], new int[0]).size(), is(0));
+  }
+
+}
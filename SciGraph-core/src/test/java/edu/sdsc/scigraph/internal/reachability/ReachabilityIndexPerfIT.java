@@ -71,7 +71,7 @@ public class ReachabilityIndexPerfIT extends AbstractBenchmark {
   }
 
   @Test
-  public void testGetHopCoverage() {
+  public void testGetHopCoverage() throws InterruptedException {
     index.getHopCoverages(Predicates.<Node>alwaysTrue());
   }
 
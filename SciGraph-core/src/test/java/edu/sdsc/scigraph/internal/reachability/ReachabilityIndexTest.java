@@ -18,6 +18,10 @@ package edu.sdsc.scigraph.internal.reachability;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.AbstractMap;
+import java.util.Map.Entry;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -111,4 +115,73 @@ public class ReachabilityIndexTest {
     assertThat(index.canReach(a, e), is(false));
   }
 
+  static Entry<Node, Node> pair(Node start, Node end) {
+    return new AbstractMap.SimpleImmutableEntry<>(start, end);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConnectedPairs() {
+    assertThat(index.getConnectedPairs(newArrayList(pair(a, b), pair(b, a), pair(a, c), pair(a, f), pair(d, d))),
+        containsInAnyOrder(pair(a, b), pair(a, c), pair(d, d)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConnectedPairMatrix() {
+    assertThat(index.getConnectedPairs(newArrayList(a, b, c), newArrayList(b, d)),
+        containsInAnyOrder(pair(a, b), pair(b, b), pair(c, b)));
+  }
+
+  @Test
+  public void testHopCoverages() throws InterruptedException {
+    HopCoverages coverages = index.getHopCoverages(new Predicate<Node>() {
+      @Override
+      public boolean apply(Node input) {
+        return !input.equals(e);
+      }
+    });
+    long[] ids = new long[coverages.size()];
+    for (int i = 0; i < coverages.size(); i++) {
+      ids[i] = coverages.getNodeId(i);
+    }
+    assertThat(ids, is(new long[] {a.getId(), c.getId(), b.getId(), f.getId(), d.getId(), e.getId()}));
+    assertThat(coverages.getCoverage(0), is(4));
+    assertThat(coverages.getCoverage(5), is(-1));
+  }
+
+  @Test(expected=IllegalStateException.class)
+  public void testHopCoverageFailuresPropagate() throws InterruptedException {
+    index.getHopCoverages(new Predicate<Node>() {
+      @Override
+      public boolean apply(Node input) {
+        if (input.equals(f)) {
+          throw new IllegalStateException();
+        }
+        return true;
+      }
+    });
+  }
+
+  @Test
+  public void testStaleIndex() throws InterruptedException {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    Transaction tx = graphDb.beginTx();
+    Node start = graphDb.createNode();
+    Node end = graphDb.createNode();
+    tx.success();
+    tx.finish();
+    ReachabilityIndex index = new ReachabilityIndex(graphDb);
+    assertThat(index.isCurrent(), is(false));
+    index.createIndex();
+    assertThat(index.isCurrent(), is(true));
+
+    tx = graphDb.beginTx();
+    start.createRelationshipTo(end, type);
+    tx.success();
+    tx.finish();
+    assertThat(index.isCurrent(), is(false));
+    graphDb.shutdown();
+  }
+
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.lucene;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.WhitespaceTokenizer;
+import org.apache.lucene.analysis.synonym.SynonymFilter;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+
+public class SynonymMapSupplierTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  File dictionary;
+
+  @Before
+  public void setup() throws IOException {
+    dictionary = folder.newFile("lemmas.txt");
+    Files.write("mouse, mice\nfoot, feet,, feet\n", dictionary, Charsets.UTF_8);
+  }
+
+  static List<String> getTokens(SynonymMap map, String text) throws IOException {
+    TokenStream stream = new SynonymFilter(
+        new WhitespaceTokenizer(LuceneUtils.getVersion(), new StringReader(text)), map, true);
+    CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    List<String> tokens = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      tokens.add(term.toString());
+    }
+    stream.close();
+    return tokens;
+  }
+
+  static byte[] serialize(SynonymMap map) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    SynonymMapSupplier.write(map, os);
+    return os.toByteArray();
+  }
+
+  @Test
+  public void testPrebuiltName() {
+    assertThat(SynonymMapSupplier.getPrebuiltName("lemmatization.txt"), is("lemmatization.synonyms"));
+    assertThat(SynonymMapSupplier.getPrebuiltName("dir.d/lemmas"), is("dir.d/lemmas.synonyms"));
+  }
+
+  @Test
+  public void testSwappedDictionary() throws IOException {
+    SynonymMap map = new SynonymMapSupplier(dictionary.getPath()).get();
+    assertThat(getTokens(map, "mice"), contains("mice", "mouse"));
+    assertThat(getTokens(map, "foot"), contains("foot", "feet"));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    SynonymMap map = SynonymMapSupplier.build(dictionary.toURI().toURL());
+    SynonymMap read = SynonymMapSupplier.read(new ByteArrayInputStream(serialize(map)));
+    assertThat(getTokens(read, "feet mouse"), contains("feet", "foot", "mouse", "mice"));
+  }
+
+  @Test
+  public void testPrebuiltMapMatchesDictionary() throws IOException {
+    SynonymMap map = SynonymMapSupplier.build(Resources.getResource(SynonymMapSupplier.DEFAULT_DICTIONARY));
+    byte[] prebuilt = Resources.toByteArray(Resources.getResource(
+        SynonymMapSupplier.getPrebuiltName(SynonymMapSupplier.DEFAULT_DICTIONARY)));
+    assertArrayEquals("lemmatization.synonyms is generated by the process-classes phase", prebuilt,
+        serialize(map));
+  }
+
+}
@@ -16,10 +16,18 @@
 package edu.sdsc.scigraph.lucene;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
@@ -72,6 +80,36 @@ public class VocabularyAnalyzerTest {
     parser = new QueryParser(Version.LUCENE_36, NodeProperties.LABEL, new VocabularyQueryAnalyzer());
   }
 
+  /***
+   * @return the first token at each position, leaving out the synonyms stacked on it
+   */
+  static List<String> analyze(Analyzer analyzer, String field, String text) throws IOException {
+    TokenStream stream = analyzer.reusableTokenStream(field, new StringReader(text));
+    CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    PositionIncrementAttribute increment = stream.addAttribute(PositionIncrementAttribute.class);
+    List<String> tokens = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      if (increment.getPositionIncrement() > 0) {
+        tokens.add(term.toString());
+      }
+    }
+    stream.end();
+    stream.close();
+    return tokens;
+  }
+
+  @Test
+  public void testReusedTokenStreams() throws Exception {
+    Analyzer analyzer = new VocabularyIndexAnalyzer();
+    for (int i = 0; i < 3; i++) {
+      assertThat(analyze(analyzer, NodeProperties.LABEL, "(Parkinson's) disease"),
+          contains("^", "parkinsons", "disease", "$"));
+      assertThat(analyze(analyzer, NodeProperties.LABEL, "formation."),
+          contains("^", "formation", "$"));
+    }
+  }
+
   @Test
   public void testStopWords() throws Exception {
     Query query = parser.parse("\"^ hippocampus structure $\"");
@@ -174,6 +174,29 @@ public class GraphTest extends GraphTestBase {
     assertThat(newArrayList((String)node.getProperty("foo")), contains("bar"));
   }
 
+  @Test
+  public void testNormalizedLabelsAreAligned() {
+    Node node = graph.getOrCreateNode(BASE_URI);
+    graph.addProperty(node, NodeProperties.LABEL, "Hippocampus");
+    graph.addProperty(node, NodeProperties.LABEL, "Hippocampus");
+    graph.addProperty(node, NodeProperties.LABEL, "HIPPOCAMPUS");
+    assertThat(graph.getProperties(node, NodeProperties.LABEL, String.class),
+        contains("Hippocampus", "HIPPOCAMPUS"));
+    assertThat(graph.getProperties(node, NodeProperties.LABEL + LuceneUtils.NORMALIZED_SUFFIX, String.class),
+        contains("hippocampus", "hippocampus"));
+  }
+
+  @Test
+  public void testNormalizedLabelsFollowSetProperty() {
+    Node node = graph.getOrCreateNode(BASE_URI);
+    graph.addProperty(node, NodeProperties.LABEL, "Hippocampus");
+    graph.setProperty(node, NodeProperties.LABEL, new String[] {"Cornu Ammonis", "Ammon's horn"});
+    assertThat(graph.getProperties(node, NodeProperties.LABEL + LuceneUtils.NORMALIZED_SUFFIX, String.class),
+        contains("cornu ammonis", "ammons horn"));
+    graph.setProperty(node, NodeProperties.LABEL, 5);
+    assertThat(node.hasProperty(NodeProperties.LABEL + LuceneUtils.NORMALIZED_SUFFIX), is(false));
+  }
+
   @Test
   public void testWhiteSpaceProperty() {
     Node node = graph.getOrCreateNode(BASE_URI);
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.neo4j;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+public class VersionedIndexTest {
+
+  long version = 1;
+  Queue<Runnable> tasks = new ArrayDeque<>();
+  int builds = 0;
+  boolean fail = false;
+
+  VersionedIndex<String> index = new VersionedIndex<String>(new Supplier<Long>() {
+    @Override
+    public Long get() {
+      return version;
+    }
+  }, new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+  }) {
+    @Override
+    protected String build(long version) {
+      builds++;
+      if (fail) {
+        throw new IllegalStateException();
+      }
+      return "index " + version;
+    }
+  };
+
+  @Test
+  public void testFirstBuildIsSynchronous() {
+    assertThat(index.get(), is("index 1"));
+    assertThat(index.get(), is("index 1"));
+    assertThat(builds, is(1));
+    assertThat(tasks.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testStaleIndexIsServedWhileRebuilding() {
+    index.get();
+    version = 2;
+    assertThat(index.get(), is("index 1"));
+    assertThat(index.get(), is("index 1"));
+    assertThat("Only one rebuild should be scheduled", tasks.size(), is(1));
+    tasks.poll().run();
+    assertThat(index.get(), is("index 2"));
+    assertThat(tasks.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testFailedRebuildKeepsStaleIndex() {
+    index.get();
+    version = 2;
+    fail = true;
+    index.get();
+    tasks.poll().run();
+    assertThat(index.get(), is("index 1"));
+    assertThat("A failed version should not be retried", tasks.isEmpty(), is(true));
+    version = 3;
+    fail = false;
+    index.get();
+    tasks.poll().run();
+    assertThat(index.get(), is("index 3"));
+  }
+
+}
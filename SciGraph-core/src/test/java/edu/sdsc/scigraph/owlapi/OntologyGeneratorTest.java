@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.owlapi;
+
+import static com.google.common.collect.Iterables.size;
+import static java.lang.String.format;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import com.google.common.collect.ImmutableList;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.neo4j.Graph;
+
+public class OntologyGeneratorTest {
+
+  OntologyGenerator.Builder builder = new OntologyGenerator.Builder().classCount(200).seed(7);
+
+  @Test
+  public void testClassCount() throws Exception {
+    OWLOntology ontology = builder.build().generate();
+    assertThat(ontology.getClassesInSignature().size(), is(200));
+  }
+
+  @Test
+  public void testSameSeedIsDeterministic() throws Exception {
+    OWLOntology first = builder.build().generate();
+    OWLOntology second = builder.build().generate();
+    assertThat(first.getAxioms(), is(second.getAxioms()));
+  }
+
+  @Test
+  public void testDepthIsBounded() {
+    OntologyGenerator generator = builder.depth(3).branchingFactor(2).build();
+    int[] parents = generator.getTreeParents(new Random(7));
+    for (int i = 0; i < parents.length; i++) {
+      int depth = 0;
+      for (int parent = parents[i]; parent >= 0; parent = parents[parent]) {
+        depth++;
+      }
+      assertThat(depth, is(lessThanOrEqualTo(3)));
+    }
+  }
+
+  @Test
+  public void testRestrictionsAndEquivalences() throws Exception {
+    OWLOntology ontology = builder.restrictionRate(1).equivalenceRate(0.1).build().generate();
+    assertThat(ontology.getAxiomCount(AxiomType.EQUIVALENT_CLASSES), is(20));
+    assertThat(ontology.getAxiomCount(AxiomType.SUBCLASS_OF), is(greaterThan(2 * 199 - 1)));
+  }
+
+  @Test
+  public void testCuriePrefixes() throws Exception {
+    OntologyGenerator generator = builder.curiePrefixes(ImmutableList.of("A", "B")).build();
+    assertThat(generator.getClassIri(3), is("http://example.org/synthetic/B_0000003"));
+    assertThat(generator.getCuries().get("http://example.org/synthetic/B_"), is("B"));
+  }
+
+  @Test
+  public void testGenerateToGraph() throws Exception {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    Graph<Concept> graph = new Graph<Concept>(graphDb, Concept.class);
+    builder.build().generate(graph);
+    Concept concept = graph.getFramedNode("http://example.org/synthetic/SYN_0000001").get();
+    assertThat(concept.getCurie(), is("SYN:0000001"));
+    assertThat(size(concept.getCategories()), is(1));
+    graphDb.shutdown();
+  }
+
+  @Test
+  public void testGenerateToGraphInBatches() throws Exception {
+    GraphDatabaseService graphDb = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+    Graph<Concept> graph = new Graph<Concept>(graphDb, Concept.class);
+    builder.build().generate(graph, 10);
+    for (int i = 0; i < 200; i++) {
+      assertThat(graph.getNode(format("http://example.org/synthetic/SYN_%07d", i)).isPresent(), is(true));
+    }
+    Concept concept = graph.getFramedNode("http://example.org/synthetic/SYN_0000001").get();
+    assertThat(concept.getCurie(), is("SYN:0000001"));
+    assertThat(size(concept.getCategories()), is(1));
+    graphDb.shutdown();
+  }
+
+}
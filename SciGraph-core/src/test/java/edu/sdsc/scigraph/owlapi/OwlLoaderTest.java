@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.owlapi;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.semanticweb.owlapi.util.OWLOntologyWalker;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.internal.facets.FacetIndex;
+import edu.sdsc.scigraph.internal.hierarchy.HierarchyIndex;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.owlapi.OwlLoadConfiguration.MappedProperty;
+
+public class OwlLoaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testDerivedIndexesAreCurrentAfterLoading() throws Exception {
+    String location = folder.getRoot().getAbsolutePath();
+    OwlLoader loader = new OwlLoader();
+    loader.inTransaction = new AtomicBoolean();
+    loader.graph = new Graph<Concept>(new GraphDatabaseFactory().newEmbeddedDatabase(location),
+        Concept.class);
+    loader.graphLocation = location;
+    loader.walker = new OWLOntologyWalker(singleton(
+        new OntologyGenerator.Builder().classCount(50).seed(5).build().generate()));
+    loader.visitor = new OwlVisitor(loader.walker, loader.graph, new HashMap<String, String>(),
+        new HashMap<String, String>(), new ArrayList<MappedProperty>());
+    loader.loadOntology();
+
+    GraphDatabaseService graphDb = new GraphDatabaseFactory().newEmbeddedDatabase(location);
+    try {
+      assertThat(new HierarchyIndex(graphDb).isCurrent(), is(true));
+      assertThat(new FacetIndex(graphDb).isCurrent(), is(true));
+    } finally {
+      graphDb.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.BatchType;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
+
+public class CachingVocabularyTest {
+
+  @SuppressWarnings("unchecked")
+  Vocabulary<Concept> delegate = mock(Vocabulary.class);
+  Concept hippocampus = mock(Concept.class);
+  Concept cerebellum = mock(Concept.class);
+  AtomicLong version = new AtomicLong();
+  CachingVocabulary<Concept> vocabulary;
+
+  Supplier<Long> versionSupplier = new Supplier<Long>() {
+    @Override
+    public Long get() {
+      return version.get();
+    }
+  };
+
+  @Before
+  public void setup() {
+    when(delegate.getConceptsFromPrefix(new Vocabulary.Query.Builder("hip").build()))
+    .thenReturn(newArrayList(hippocampus));
+    when(delegate.getConceptsFromPrefix(new Vocabulary.Query.Builder("cer").build()))
+    .thenReturn(newArrayList(cerebellum));
+    vocabulary = new CachingVocabulary<>(delegate, 10,
+        versionSupplier);
+  }
+
+  @Test
+  public void testQueryEquality() {
+    Query query = new Vocabulary.Query.Builder("hip").limit(5).categories(newArrayList("a")).build();
+    Query same = new Vocabulary.Query.Builder("hip").limit(5).categories(newArrayList("a")).build();
+    Query other = new Vocabulary.Query.Builder("hip").limit(5).offset(5).categories(newArrayList("a")).build();
+    assertThat(query.equals(same), is(true));
+    assertThat(query.hashCode(), is(same.hashCode()));
+    assertThat(query.equals(other), is(false));
+  }
+
+  @Test
+  public void testRepeatedQueryIsCached() {
+    Query query = new Vocabulary.Query.Builder("hip").build();
+    assertThat(vocabulary.getConceptsFromPrefix(query), contains(hippocampus));
+    assertThat(vocabulary.getConceptsFromPrefix(new Vocabulary.Query.Builder("hip").build()),
+        contains(hippocampus));
+    verify(delegate, times(1)).getConceptsFromPrefix(query);
+    assertThat(vocabulary.stats().hitCount(), is(1L));
+    assertThat(vocabulary.stats().missCount(), is(1L));
+  }
+
+  @Test
+  public void testLookupTypesAreSeparate() {
+    Query query = new Vocabulary.Query.Builder("hip").build();
+    vocabulary.getConceptsFromPrefix(query);
+    vocabulary.searchConcepts(query);
+    verify(delegate).searchConcepts(query);
+  }
+
+  @Test
+  public void testGraphVersionChangeInvalidates() {
+    Query query = new Vocabulary.Query.Builder("hip").build();
+    vocabulary.getConceptsFromPrefix(query);
+    version.incrementAndGet();
+    vocabulary.getConceptsFromPrefix(query);
+    verify(delegate, times(2)).getConceptsFromPrefix(query);
+  }
+
+  @Test
+  public void testWeightBoundedCacheEvicts() {
+    vocabulary = new CachingVocabulary<>(delegate, 2,
+        versionSupplier);
+    Query hip = new Vocabulary.Query.Builder("hip").build();
+    Query cer = new Vocabulary.Query.Builder("cer").build();
+    vocabulary.getConceptsFromPrefix(hip);
+    vocabulary.getConceptsFromPrefix(cer);
+    assertThat(vocabulary.size(), is(1L));
+    assertThat(vocabulary.stats().evictionCount(), is(1L));
+  }
+
+  @Test
+  public void testBatchOnlyResolvesUncachedInputs() {
+    Map<String, Collection<Concept>> first = new LinkedHashMap<>();
+    first.put("HP:1", Collections.singletonList(hippocampus));
+    when(delegate.getConcepts(BatchType.ID, newArrayList("HP:1"))).thenReturn(first);
+    Map<String, Collection<Concept>> second = new LinkedHashMap<>();
+    second.put("HP:2", Collections.<Concept>emptyList());
+    when(delegate.getConcepts(BatchType.ID, newArrayList("HP:2"))).thenReturn(second);
+
+    vocabulary.getConcepts(BatchType.ID, newArrayList("HP:1"));
+    Map<String, Collection<Concept>> concepts =
+        vocabulary.getConcepts(BatchType.ID, newArrayList("HP:1", "HP:2"));
+    assertThat(concepts.keySet(), contains("HP:1", "HP:2"));
+    assertThat(concepts.get("HP:1"), contains(hippocampus));
+    assertThat(concepts.get("HP:2"), is(empty()));
+    verify(delegate, times(1)).getConcepts(BatchType.ID, newArrayList("HP:1"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testCachedResultsAreUnmodifiable() {
+    vocabulary.getConceptsFromPrefix(new Vocabulary.Query.Builder("hip").build()).clear();
+  }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import edu.sdsc.scigraph.frames.CommonProperties;
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.util.GraphTestBase;
+import edu.sdsc.scigraph.vocabulary.CompletionIndex.Source;
+
+public class CompletionIndexTest extends GraphTestBase {
+
+  Node cerebellum;
+  Node cerebellumCortex;
+  Node parkinsons;
+  Node cerebrum;
+  CompletionIndex index;
+
+  Node createNode(String label, String curie) {
+    Node node = graphDb.createNode();
+    node.setProperty(NodeProperties.LABEL, label);
+    node.setProperty(CommonProperties.CURIE, curie);
+    return node;
+  }
+
+  @Before
+  public void setup() throws IOException {
+    cerebellumCortex = createNode("Cerebellum cortex", "BL:2");
+    cerebellum = createNode("Cerebellum", "BL:1");
+    parkinsons = createNode("Parkinson's Disease", "DOID:14330");
+    cerebrum = createNode("Cerebrum", "BL:3");
+    cerebrum.setProperty(Concept.SYNONYM, new String[] {"cerebellum like", "telencephalon"});
+    index = CompletionIndex.build(graphDb, 0);
+  }
+
+  @Test
+  public void testBucketOrder() {
+    assertThat(CompletionIndex.getBucket(Source.LABEL, 10),
+        is(greaterThan(CompletionIndex.getBucket(Source.LABEL, 11))));
+    assertThat(CompletionIndex.getBucket(Source.LABEL, 100),
+        is(greaterThan(CompletionIndex.getBucket(Source.SYNONYM, 1))));
+    assertThat(CompletionIndex.getBucket(Source.SYNONYM, 100),
+        is(greaterThan(CompletionIndex.getBucket(Source.CURIE, 1))));
+  }
+
+  @Test
+  public void testNormalization() {
+    assertThat(CompletionIndex.normalize("Parkinson's Disease"), is("parkinsons disease"));
+  }
+
+  @Test
+  public void testShortLabelsFirst() {
+    assertThat(index.lookup("cereb", 10, false, Predicates.<Long>alwaysTrue()),
+        contains(cerebrum.getId(), cerebellum.getId(), cerebellumCortex.getId()));
+  }
+
+  @Test
+  public void testLabelsBeforeSynonyms() {
+    assertThat(index.lookup("cerebell", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebellum.getId(), cerebellumCortex.getId(), cerebrum.getId()));
+  }
+
+  @Test
+  public void testSynonymsExcluded() {
+    assertThat(index.lookup("telen", 10, false, Predicates.<Long>alwaysTrue()), is(empty()));
+    assertThat(index.lookup("telen", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebrum.getId()));
+  }
+
+  @Test
+  public void testCount() {
+    assertThat(index.lookup("cereb", 1, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebrum.getId()));
+  }
+
+  @Test
+  public void testCurie() {
+    assertThat(index.lookup("doid:", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(parkinsons.getId()));
+  }
+
+  @Test
+  public void testPossessive() {
+    assertThat(index.lookup("Parkinsons dis", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(parkinsons.getId()));
+  }
+
+  @Test
+  public void testFilter() {
+    Predicate<Long> filter = Predicates.not(Predicates.equalTo(cerebrum.getId()));
+    assertThat(index.lookup("cereb", 1, true, filter), contains(cerebellum.getId()));
+  }
+
+}
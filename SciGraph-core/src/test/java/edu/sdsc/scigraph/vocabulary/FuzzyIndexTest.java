@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.util.GraphTestBase;
+
+public class FuzzyIndexTest extends GraphTestBase {
+
+  Node cerebellum;
+  Node cerebellumCortex;
+  Node parkinsons;
+  Node cerebrum;
+  FuzzyIndex index;
+
+  Node createNode(String label) {
+    Node node = graphDb.createNode();
+    node.setProperty(NodeProperties.LABEL, label);
+    return node;
+  }
+
+  @Before
+  public void setup() {
+    cerebellumCortex = createNode("Cerebellum cortex");
+    cerebellum = createNode("Cerebellum");
+    parkinsons = createNode("Parkinson's Disease");
+    cerebrum = createNode("Cerebrum");
+    cerebrum.setProperty(Concept.SYNONYM, new String[] {"cerebellum like", "telencephalon"});
+    index = FuzzyIndex.build(graphDb, 0);
+  }
+
+  @Test
+  public void testDistance() {
+    assertThat(FuzzyIndex.getDistance("cerebellum", "cerebellum", 2), is(0));
+    assertThat(FuzzyIndex.getDistance("cerebelum", "cerebellum", 2), is(1));
+    assertThat(FuzzyIndex.getDistance("cerebellmu", "cerebellum", 2), is(1));
+    assertThat(FuzzyIndex.getDistance("cerebrum", "cerebellum", 2), is(3));
+  }
+
+  @Test
+  public void testMultiWordLabel() {
+    assertThat(index.lookup("parkinsons desease", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(parkinsons.getId()));
+  }
+
+  @Test
+  public void testCloserMatchesFirst() {
+    assertThat(index.lookup("cerebelum", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebellum.getId(), cerebrum.getId()));
+    assertThat(index.lookup("cerebelum cortx", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebellumCortex.getId()));
+  }
+
+  @Test
+  public void testSynonymsExcluded() {
+    assertThat(index.lookup("telencefalon", 10, false, Predicates.<Long>alwaysTrue()), is(empty()));
+    assertThat(index.lookup("telencefalon", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebrum.getId()));
+  }
+
+  @Test
+  public void testLabelsBeforeSynonyms() {
+    Node synonym = graphDb.createNode();
+    synonym.setProperty(NodeProperties.LABEL, "Hindbrain part");
+    synonym.setProperty(Concept.SYNONYM, "Cerebellum");
+    index = FuzzyIndex.build(graphDb, 1);
+    assertThat(index.lookup("cerebellum", 10, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebellum.getId(), synonym.getId()));
+  }
+
+  @Test
+  public void testFilter() {
+    Predicate<Long> filter = Predicates.not(Predicates.equalTo(cerebellum.getId()));
+    assertThat(index.lookup("cerebelum", 10, true, filter), contains(cerebrum.getId()));
+  }
+
+  @Test
+  public void testEntriesAreOrderedByLength() {
+    assertThat(index.getFirstEntry(0), is(0));
+    assertThat(index.getFirstEntry(9), is(1));
+    assertThat(index.getFirstEntry(10), is(1));
+    assertThat(index.getFirstEntry(11), is(2));
+    assertThat(index.getFirstEntry(100), is(index.size()));
+  }
+
+  @Test
+  public void testBestCandidatesAreVerified() {
+    for (int i = 0; i < FuzzyIndex.MAX_CANDIDATES + 100; i++) {
+      createNode(String.format("cerebel%03d", i));
+    }
+    index = FuzzyIndex.build(graphDb, 1);
+    assertThat(index.lookup("cerebelum", 1, true, Predicates.<Long>alwaysTrue()),
+        contains(cerebellum.getId()));
+  }
+
+  @Test
+  public void testShortInputsAreExact() {
+    assertThat(index.lookup("cx", 10, true, Predicates.<Long>alwaysTrue()), is(empty()));
+  }
+
+}
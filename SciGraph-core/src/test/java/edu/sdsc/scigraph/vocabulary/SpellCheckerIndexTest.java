@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Optional;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.lucene.LuceneUtils;
+
+public class SpellCheckerIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  File location;
+
+  void addValues(String field, String... values) throws IOException {
+    IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(FSDirectory.open(new File(location,
+        SpellCheckerIndex.SOURCE_INDEX)), config)) {
+      for (String value : values) {
+        Document document = new Document();
+        document.add(new Field(field, value, Field.Store.NO, Field.Index.NOT_ANALYZED));
+        writer.addDocument(document);
+      }
+    }
+  }
+
+  void addLabels(String... labels) throws IOException {
+    addValues(NodeProperties.LABEL + LuceneUtils.EXACT_SUFFIX, labels);
+  }
+
+  SpellCheckerIndex startIndex() throws Exception {
+    SpellCheckerIndex index = new SpellCheckerIndex(location);
+    index.start();
+    return index;
+  }
+
+  @Before
+  public void setup() throws IOException {
+    location = folder.getRoot();
+    addLabels("hippocampus", "cerebellum");
+  }
+
+  @Test
+  public void testSuggestionsAfterBuild() throws Exception {
+    SpellCheckerIndex index = startIndex();
+    assertThat(index.awaitReady(1, TimeUnit.MINUTES), is(true));
+    assertThat(index.suggestSimilar("hipocampus", 5), contains("hippocampus"));
+    assertThat(index.readFingerprint().isPresent(), is(true));
+  }
+
+  @Test
+  public void testSpellCheckerIsReused() throws Exception {
+    startIndex().awaitReady(1, TimeUnit.MINUTES);
+    SpellCheckerIndex index = startIndex();
+    assertThat("Reused spell checker should be ready at once", index.isReady(), is(true));
+    assertThat(index.suggestSimilar("cerebelum", 5), contains("cerebellum"));
+  }
+
+  @Test
+  public void testSpellCheckerIsRebuiltWhenLabelsChange() throws Exception {
+    startIndex().awaitReady(1, TimeUnit.MINUTES);
+    Optional<Long> fingerprint = new SpellCheckerIndex(location).readFingerprint();
+    addLabels("amygdala");
+    SpellCheckerIndex index = startIndex();
+    assertThat(index.awaitReady(1, TimeUnit.MINUTES), is(true));
+    assertThat(index.readFingerprint(), is(not(fingerprint)));
+    assertThat(index.suggestSimilar("amygdela", 5), contains("amygdala"));
+  }
+
+  @Test
+  public void testSpellCheckerIsReusedWhenOnlyOtherFieldsChange() throws Exception {
+    startIndex().awaitReady(1, TimeUnit.MINUTES);
+    addValues(Concept.DEFINITION, "a brain region");
+    SpellCheckerIndex index = startIndex();
+    assertThat("Reused spell checker should be ready at once", index.isReady(), is(true));
+  }
+
+  @Test
+  public void testFailedBuild() throws Exception {
+    SpellCheckerIndex index = new SpellCheckerIndex(location);
+    Directory spellDirectory = mock(Directory.class);
+    when(spellDirectory.listAll()).thenThrow(new IllegalStateException());
+    index.new SpellCheckerBuilder(FSDirectory.open(new File(location, SpellCheckerIndex.SOURCE_INDEX)),
+        spellDirectory).run();
+    assertThat(index.awaitReady(1, TimeUnit.MINUTES), is(false));
+    assertThat(index.isReady(), is(false));
+    assertThat(index.getFailure().isPresent(), is(true));
+  }
+
+  @Test
+  public void testNoSuggestionsWhileWarming() throws Exception {
+    SpellCheckerIndex index = new SpellCheckerIndex(location);
+    assertThat(index.isReady(), is(false));
+    assertThat(index.suggestSimilar("hipocampus", 5), is(empty()));
+  }
+
+}
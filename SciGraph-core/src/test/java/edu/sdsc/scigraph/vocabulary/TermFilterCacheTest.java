@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.sdsc.scigraph.frames.Concept;
+
+public class TermFilterCacheTest {
+
+  TermFilterCache filters = new TermFilterCache();
+  IndexSearcher searcher;
+
+  void addDocument(IndexWriter writer, String... categories) throws IOException {
+    Document document = new Document();
+    for (String category: categories) {
+      document.add(new Field(Concept.CATEGORY, category, Field.Store.NO, Field.Index.NOT_ANALYZED));
+    }
+    writer.addDocument(document);
+  }
+
+  @Before
+  public void setup() throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      addDocument(writer, "anatomy");
+      addDocument(writer, "anatomy", "cell");
+      addDocument(writer, "disease");
+    }
+    searcher = new IndexSearcher(IndexReader.open(directory));
+  }
+
+  @Test
+  public void testFiltersAreReused() {
+    assertThat(filters.getFilter(new Term(Concept.CATEGORY, "anatomy")),
+        is(sameInstance(filters.getFilter(new Term(Concept.CATEGORY, "anatomy")))));
+  }
+
+  @Test
+  public void testAnyValueQuery() throws IOException {
+    TopDocs hits = searcher.search(filters.getAnyValueQuery(Concept.CATEGORY,
+        newArrayList("cell", "disease")), 10);
+    assertThat(hits.totalHits, is(2));
+  }
+
+  @Test
+  public void testAnyValueQueryDoesNotScore() throws IOException {
+    BooleanQuery query = new BooleanQuery();
+    query.add(new MatchAllDocsQuery(), Occur.MUST);
+    TopDocs unfiltered = searcher.search(query, 10);
+    query.add(filters.getAnyValueQuery(Concept.CATEGORY, newArrayList("anatomy")), Occur.MUST);
+    TopDocs filtered = searcher.search(query, 10);
+    assertThat(filtered.totalHits, is(2));
+    assertThat(filtered.getMaxScore(), is(unfiltered.getMaxScore()));
+  }
+
+}
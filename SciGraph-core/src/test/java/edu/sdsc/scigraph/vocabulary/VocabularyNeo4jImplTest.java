@@ -22,9 +22,13 @@ import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -38,6 +42,7 @@ import edu.sdsc.scigraph.frames.NodeProperties;
 import edu.sdsc.scigraph.lucene.LuceneUtils;
 import edu.sdsc.scigraph.neo4j.Graph;
 import edu.sdsc.scigraph.util.GraphTestBase;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.BatchType;
 import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
 
 /***
@@ -183,7 +188,16 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
   @Test
   public void testGetConceptsFromPrefix() {
     Query query = new Vocabulary.Query.Builder("hip").build();
-    assertThat(vocabulary.getConceptsFromPrefix(query), contains(hippocampus, hippocampusStructure, hippocampalFormation));
+    assertThat(vocabulary.getConceptsFromPrefix(query), contains(hippocampus, hippocampalFormation, hippocampusStructure));
+  }
+
+  @Test
+  public void testDeletedNodesAreSkipped() {
+    long id = graph.getNode(hippocampus).getId();
+    long deletedId = Long.MAX_VALUE;
+    assertThat(vocabulary.getConcepts(newArrayList(deletedId, id)), contains(hippocampus));
+    Query query = new Vocabulary.Query.Builder("hip").categories(newArrayList("foo")).build();
+    assertThat(vocabulary.getConstraints(query).apply(deletedId), is(false));
   }
 
   @Test
@@ -227,7 +241,7 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
   @Test
   public void testGetConceptsFromPrefixWithMultipleCategories() {
     Query query = new Vocabulary.Query.Builder("hip").categories(newArrayList("baz", "foo")).build();
-    assertThat(vocabulary.getConceptsFromPrefix(query), contains(hippocampusStructure, hippocampus));
+    assertThat(vocabulary.getConceptsFromPrefix(query), contains(hippocampus, hippocampusStructure));
   }
 
   @Test
@@ -272,6 +286,20 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
     assertThat(vocabulary.getConceptsFromTerm(query), contains(hippocampus));
   }
 
+  @Test
+  public void testGetConceptsFromFuzzyTerm() {
+    Query query = new Vocabulary.Query.Builder("parkinsons desease").build();
+    assertThat(vocabulary.getConceptsFromFuzzyTerm(query), contains(parkinsons));
+  }
+
+  @Test
+  public void testGetConceptsFromFuzzyTermWithSynonym() {
+    Query query = new Vocabulary.Query.Builder("cornu amonis").build();
+    assertThat(vocabulary.getConceptsFromFuzzyTerm(query), contains(hippocampus));
+    query = new Vocabulary.Query.Builder("cornu amonis").includeSynonyms(false).build();
+    assertThat(vocabulary.getConceptsFromFuzzyTerm(query), is(empty()));
+  }
+
   @Test
   public void testGetAllOntologies() {
     Set<String> ontologies = vocabulary.getAllOntologies();
@@ -284,6 +312,112 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
     assertThat(categories, hasItems("foo", "fizz", "baz"));
   }
 
+  @Test
+  public void testExactQuery() {
+    assertThat(VocabularyNeo4jImpl.getExactQuery(NodeProperties.LABEL, "\"Parkinson's Disease,").toString(),
+        is("label:\"^ parkinsons disease $\""));
+  }
+
+  @Test
+  public void testAnyTokenQueryWithQuerySyntax() {
+    assertThat(VocabularyNeo4jImpl.getAnyTokenQuery(NodeProperties.LABEL, "hippocampus AND (cell").toString(),
+        is("label:hippocampus label:and label:cell"));
+  }
+
+  @Test
+  public void testBatchIds() {
+    Map<String, Collection<Concept>> concepts =
+        vocabulary.getConcepts(BatchType.ID, newArrayList("HP:0008", "cerebellum", "absent"));
+    assertThat(concepts.keySet(), contains("HP:0008", "cerebellum", "absent"));
+    assertThat(concepts.get("HP:0008"), contains(hippocampus));
+    assertThat(concepts.get("cerebellum"), contains(cerebellum));
+    assertThat(concepts.get("absent"), is(empty()));
+  }
+
+  @Test
+  public void testBatchUris() {
+    Map<String, Collection<Concept>> concepts = vocabulary.getConcepts(BatchType.URI,
+        newArrayList("http://example.org/#hippocampus", "http://example.org/absent"));
+    assertThat(concepts.get("http://example.org/#hippocampus"), contains(hippocampus));
+    assertThat(concepts.get("http://example.org/absent"), is(empty()));
+  }
+
+  @Test
+  public void testBatchTerms() {
+    Map<String, Collection<Concept>> concepts = vocabulary.getConcepts(BatchType.TERM,
+        newArrayList("hippocampus", "Parkinson's Disease", "cornu ammonis", "hippo"));
+    assertThat(concepts.get("hippocampus"), contains(hippocampus));
+    assertThat(concepts.get("Parkinson's Disease"), contains(parkinsons));
+    assertThat(concepts.get("cornu ammonis"), contains(hippocampus));
+    assertThat(concepts.get("hippo"), is(empty()));
+  }
+
+  @Test
+  public void testBatchTermsMatchedThroughAnalysis() {
+    List<String> terms = newArrayList("hippocampus", "hippocampi", "hippo", "cerebella");
+    for (int i = 0; i < 20; i++) {
+      terms.add("absent" + i);
+    }
+    Map<String, Collection<Concept>> concepts = vocabulary.getConcepts(BatchType.TERM, terms);
+    assertThat(concepts.get("hippocampus"), contains(hippocampus));
+    assertThat(concepts.get("hippocampi"), contains(hippocampus));
+    assertThat(concepts.get("cerebella"), contains(cerebellum));
+    assertThat(concepts.get("hippo"), is(empty()));
+    assertThat(concepts.get("absent0"), is(empty()));
+  }
+
+  @Test
+  public void testBatchLargerThanOneIndexQuery() {
+    List<String> ids = newArrayList();
+    for (int i = 0; i < VocabularyNeo4jImpl.BATCH_SIZE * 2; i++) {
+      ids.add("absent" + i);
+    }
+    ids.add("HP:0008");
+    Map<String, Collection<Concept>> concepts = vocabulary.getConcepts(BatchType.ID, ids);
+    assertThat(concepts.size(), is(ids.size()));
+    assertThat(concepts.get("HP:0008"), contains(hippocampus));
+  }
+
+  @Test
+  public void testPaging() {
+    List<Concept> concepts = vocabulary.getConceptsFromPrefix(new Vocabulary.Query.Builder("hip").build());
+    assertThat(concepts.size(), is(3));
+    List<Concept> pages = newArrayList();
+    for (int offset = 0; offset < 4; offset += 2) {
+      Query query = new Vocabulary.Query.Builder("hip").offset(offset).limit(2).build();
+      pages.addAll(vocabulary.getConceptsFromPrefix(query));
+    }
+    assertThat(pages, is(concepts));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testNegativeOffset() {
+    new Vocabulary.Query.Builder("hip").offset(-1);
+  }
+
+  @Test
+  public void testLargeOffsetAndLimit() {
+    Query query = new Vocabulary.Query.Builder("hip").offset(Integer.MAX_VALUE).limit(Integer.MAX_VALUE).build();
+    assertThat(vocabulary.getConceptsFromPrefix(query), is(empty()));
+    assertThat(vocabulary.getConceptsFromTerm(query), is(empty()));
+    assertThat(vocabulary.searchConcepts(query), is(empty()));
+    assertThat(vocabulary.getConceptsFromFuzzyTerm(query), is(empty()));
+  }
+
+  @Test
+  public void testGetCategoryCounts() {
+    Map<String, Integer> counts = vocabulary.getCategoryCounts();
+    assertThat(counts, hasEntry("foo", 2));
+    assertThat(counts, hasEntry("baz", 1));
+  }
+
+  @Test
+  public void testGetOntologyCounts() {
+    Map<String, Integer> counts = vocabulary.getOntologyCounts();
+    assertThat(counts, hasEntry("http://foo.org", 1));
+    assertThat(counts, hasEntry("http://bar.org", 1));
+  }
+
   @Test
   public void testPossessives() {
     Query query = new Vocabulary.Query.Builder("parkinsons disease").build();
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.vocabulary;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+
+import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.frames.NodeProperties;
+import edu.sdsc.scigraph.neo4j.Graph;
+import edu.sdsc.scigraph.util.GraphTestBase;
+
+public class VocabularySearchIndexTest extends GraphTestBase {
+
+  Graph<Concept> graph;
+  VocabularySearchIndex index;
+  Concept hippocampus;
+
+  Concept buildConcept(String uri, String label, String curie) {
+    Concept concept = graph.getOrCreateFramedNode(uri);
+    concept.addLabel(label);
+    concept.setCurie(curie);
+    return concept;
+  }
+
+  long getId(Concept concept) {
+    return graph.getNode(concept).getId();
+  }
+
+  @Before
+  public void setupIndex() throws IOException {
+    graph = new Graph<Concept>(graphDb, Concept.class);
+    hippocampus = buildConcept("http://example.org/#hippocampus", "Hippocampus", "HP:0008");
+    buildConcept("http://example.org/#cerebellum", "Cerebellum", "HP:0009");
+    index = new VocabularySearchIndex(new RAMDirectory());
+  }
+
+  @Test
+  public void testUnbuiltIndexIsEmpty() throws IOException {
+    index.refresh();
+    assertThat(index.getVersion().isPresent(), is(false));
+    assertThat(index.search(VocabularyNeo4jImpl.getExactQuery(NodeProperties.LABEL, "hippocampus"), 10),
+        is(empty()));
+  }
+
+  @Test
+  public void testSearchByLabel() throws IOException {
+    index.build(graphDb, graph.getVersion());
+    assertThat(index.search(VocabularyNeo4jImpl.getExactQuery(NodeProperties.LABEL, "hippocampus"), 10),
+        contains(getId(hippocampus)));
+  }
+
+  @Test
+  public void testVersionIsRecorded() throws IOException {
+    index.build(graphDb, 42);
+    assertThat(index.getVersion(), is(Optional.of(42L)));
+  }
+
+  @Test
+  public void testRebuildIsVisible() throws IOException {
+    index.build(graphDb, 1);
+    Concept hippocampalFormation = buildConcept("http://example.org/#birnlex5", "Hippocampal formation", "BL:5");
+    index.build(graphDb, 2);
+    assertThat(index.getVersion(), is(Optional.of(2L)));
+    assertThat(index.searchAll(VocabularyNeo4jImpl.getExactQuery(NodeProperties.LABEL, "hippocampal formation")),
+        contains(getId(hippocampalFormation)));
+  }
+
+  @Test
+  public void testSearchAllIsOrderedByScore() throws IOException {
+    buildConcept("http://example.org/#hippocampalFormation", "Hippocampal formation", "BL:5");
+    Concept hippocampusProper =
+        buildConcept("http://example.org/#hippocampusProper", "Hippocampus proper", "BL:6");
+    index.build(graphDb, graph.getVersion());
+    org.apache.lucene.search.Query query =
+        VocabularyNeo4jImpl.getAnyTokenQuery(NodeProperties.LABEL, "hippocampus proper");
+    List<Long> ids = index.searchAll(query);
+    assertThat(ids, hasItem(getId(hippocampus)));
+    assertThat(ids.get(0), is(getId(hippocampusProper)));
+    assertThat(ids, is(index.search(query, 10)));
+  }
+
+  @Test
+  public void testVocabularyUsesCurrentIndex() throws IOException {
+    index.build(graphDb, graph.getVersion());
+    hippocampus.asVertex().setProperty(NodeProperties.LABEL, "Cornu ammonis");
+    VocabularyNeo4jImpl<Concept> vocabulary = new VocabularyNeo4jImpl<>(graph,
+        Optional.<SpellCheckerIndex>absent(), Optional.of(index));
+    assertThat(vocabulary.getConceptsFromTerm(new Vocabulary.Query.Builder("hippocampus").build()),
+        contains(hippocampus));
+  }
+
+  @Test
+  public void testVocabularyIgnoresStaleIndex() throws IOException {
+    index.build(graphDb, graph.getVersion() - 1);
+    hippocampus.asVertex().setProperty(NodeProperties.LABEL, "Cornu ammonis");
+    VocabularyNeo4jImpl<Concept> vocabulary = new VocabularyNeo4jImpl<>(graph,
+        Optional.<SpellCheckerIndex>absent(), Optional.of(index));
+    assertThat(vocabulary.getConceptsFromTerm(new Vocabulary.Query.Builder("hippocampus").build()),
+        is(empty()));
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package edu.sdsc.scigraph.services;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.collect.Maps.newHashMap;
 import io.dropwizard.Application;
 import io.dropwizard.assets.AssetsBundle;
@@ -25,6 +26,10 @@ import io.dropwizard.setup.Environment;
 
 import java.util.EnumSet;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.servlet.DispatcherType;
 import javax.ws.rs.core.MediaType;
@@ -37,11 +42,17 @@ import org.apache.shiro.realm.jdbc.JdbcRealm;
 import org.apache.shiro.subject.Subject;
 import org.eclipse.jetty.servlet.FilterHolder;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheck;
 import com.google.common.reflect.ClassPath;
 import com.google.common.reflect.ClassPath.ClassInfo;
+import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 import com.wordnik.swagger.config.ConfigFactory;
 import com.wordnik.swagger.config.ScannerFactory;
 import com.wordnik.swagger.config.SwaggerConfig;
@@ -52,7 +63,11 @@ import com.wordnik.swagger.jaxrs.listing.ResourceListingProvider;
 import com.wordnik.swagger.jaxrs.reader.DefaultJaxrsApiReader;
 import com.wordnik.swagger.reader.ClassReaders;
 
+import edu.sdsc.scigraph.annotation.CachingEntityRecognizer;
+import edu.sdsc.scigraph.annotation.DictionaryEntityRecognizer;
 import edu.sdsc.scigraph.annotation.EntityModule;
+import edu.sdsc.scigraph.annotation.EntityRecognizer;
+import edu.sdsc.scigraph.frames.Concept;
 import edu.sdsc.scigraph.lexical.LexicalLibModule;
 import edu.sdsc.scigraph.neo4j.Neo4jModule;
 import edu.sdsc.scigraph.opennlp.OpenNlpModule;
@@ -61,9 +76,14 @@ import edu.sdsc.scigraph.services.auth.BasicAuthenticator;
 import edu.sdsc.scigraph.services.configuration.ApiConfiguration;
 import edu.sdsc.scigraph.services.configuration.ApplicationConfiguration;
 import edu.sdsc.scigraph.services.jersey.CustomMediaTypes;
+import edu.sdsc.scigraph.vocabulary.CachingVocabulary;
+import edu.sdsc.scigraph.vocabulary.Vocabulary;
+import edu.sdsc.scigraph.vocabulary.VocabularyNeo4jImpl;
 
 public class MainApplication extends Application<ApplicationConfiguration> {
 
+  private static final Logger logger = Logger.getLogger(MainApplication.class.getName());
+
   public static void main(String[] args) throws Exception {
     new MainApplication().run(args);
   }
@@ -137,6 +157,85 @@ public class MainApplication extends Application<ApplicationConfiguration> {
     environment.jersey().register(new BasicAuthProvider<Subject>(new BasicAuthenticator(), "SciGraph"));
   }
 
+  void configureCacheMetrics(final CachingVocabulary<Concept> vocabulary, MetricRegistry metrics) {
+    metrics.register(name(CachingVocabulary.class, "hits"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return vocabulary.stats().hitCount(); }
+    });
+    metrics.register(name(CachingVocabulary.class, "misses"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return vocabulary.stats().missCount(); }
+    });
+    metrics.register(name(CachingVocabulary.class, "evictions"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return vocabulary.stats().evictionCount(); }
+    });
+    metrics.register(name(CachingVocabulary.class, "size"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return vocabulary.size(); }
+    });
+  }
+
+  void configureCacheMetrics(final CachingEntityRecognizer recognizer, MetricRegistry metrics) {
+    metrics.register(name(CachingEntityRecognizer.class, "hits"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return recognizer.stats().hitCount(); }
+    });
+    metrics.register(name(CachingEntityRecognizer.class, "emptyHits"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return recognizer.emptyHitCount(); }
+    });
+    metrics.register(name(CachingEntityRecognizer.class, "misses"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return recognizer.stats().missCount(); }
+    });
+    metrics.register(name(CachingEntityRecognizer.class, "evictions"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return recognizer.stats().evictionCount(); }
+    });
+    metrics.register(name(CachingEntityRecognizer.class, "size"), new Gauge<Long>() {
+      @Override
+      public Long getValue() { return recognizer.size(); }
+    });
+  }
+
+  /***
+   * Builds the derived vocabulary and recognition indexes in the background so that the first
+   * requests don't pay for a full scan of the graph.
+   */
+  void prewarmIndexes(Vocabulary<Concept> vocabulary, EntityRecognizer recognizer,
+      ExecutorService executor) {
+    if (vocabulary instanceof CachingVocabulary) {
+      vocabulary = ((CachingVocabulary<Concept>) vocabulary).getDelegate();
+    }
+    if (vocabulary instanceof VocabularyNeo4jImpl) {
+      final VocabularyNeo4jImpl<Concept> indexedVocabulary = (VocabularyNeo4jImpl<Concept>) vocabulary;
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            indexedVocabulary.prewarm();
+          } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to prewarm the vocabulary indexes", e);
+          }
+        }
+      });
+    }
+    if (recognizer instanceof DictionaryEntityRecognizer) {
+      final DictionaryEntityRecognizer dictionaryRecognizer = (DictionaryEntityRecognizer) recognizer;
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            dictionaryRecognizer.prewarm();
+          } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to prewarm the entity dictionary", e);
+          }
+        }
+      });
+    }
+  }
+
   @Override
   public void run(ApplicationConfiguration configuration, Environment environment) throws Exception {
     environment.getApplicationContext().setContextPath("/" + configuration.getApplicationContextPath());
@@ -146,14 +245,40 @@ public class MainApplication extends Application<ApplicationConfiguration> {
       configureAuthentication(configuration.getApiConfiguration().get(), environment);
     }
 
+    final int annotationThreads = configuration.getAnnotationThreads();
+    final ExecutorService annotationExecutor = environment.lifecycle()
+        .executorService("annotation-%d").minThreads(annotationThreads).maxThreads(annotationThreads).build();
+    // Bulk requests are each read on their own thread, so readers are bounded by the server threads
+    final ExecutorService readerExecutor = environment.lifecycle()
+        .executorService("bulk-annotation-reader-%d").workQueue(new SynchronousQueue<Runnable>()).build();
+
     Injector i = Guice.createInjector(
-        new Neo4jModule(configuration.getGraphConfiguration()),
-        new EntityModule(),
+        new Neo4jModule(configuration.getGraphConfiguration(), configuration.getVocabularyCacheWeight()),
+        new EntityModule(configuration.isDictionaryRecognition(),
+            configuration.getRecognitionCacheWeight()),
         new LexicalLibModule(),
-        new OpenNlpModule());
+        new OpenNlpModule(),
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(ExecutorService.class).annotatedWith(Names.named("annotation.executor")).toInstance(annotationExecutor);
+            bindConstant().annotatedWith(Names.named("annotation.threads")).to(annotationThreads);
+            bind(ExecutorService.class).annotatedWith(Names.named("annotation.reader")).toInstance(readerExecutor);
+          }
+        });
     //Add managed objects
     environment.lifecycle().manage(i.getInstance(Neo4jManager.class));
 
+    Vocabulary<Concept> vocabulary = i.getInstance(Key.get(new TypeLiteral<Vocabulary<Concept>>() {}));
+    if (vocabulary instanceof CachingVocabulary) {
+      configureCacheMetrics((CachingVocabulary<Concept>) vocabulary, environment.metrics());
+    }
+    EntityRecognizer recognizer = i.getInstance(EntityRecognizer.class);
+    if (recognizer instanceof CachingEntityRecognizer) {
+      configureCacheMetrics((CachingEntityRecognizer) recognizer, environment.metrics());
+    }
+    prewarmIndexes(vocabulary, recognizer, annotationExecutor);
+
     //Add health checks
     for (ClassInfo classInfo: ClassPath.from(getClass().getClassLoader()).getTopLevelClasses("edu.sdsc.scigraph.services.health")) {
       environment.healthChecks().register("Neo4j health check", (HealthCheck)i.getInstance(classInfo.load()));
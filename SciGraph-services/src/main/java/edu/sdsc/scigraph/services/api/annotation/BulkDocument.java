@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.annotation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * A document of a bulk annotation request.
+ */
+public class BulkDocument {
+
+  @JsonProperty
+  String id;
+
+  @JsonProperty
+  String content = "";
+
+  BulkDocument() {}
+
+  public BulkDocument(String id, String content) {
+    this.id = id;
+    this.content = content;
+  }
+
+  /***
+   * @return the client's identifier of the document, returned with its annotations
+   */
+  public String getId() {
+    return id;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+}
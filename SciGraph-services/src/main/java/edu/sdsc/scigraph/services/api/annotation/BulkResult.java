@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.annotation;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.sdsc.scigraph.annotation.EntityAnnotation;
+
+/***
+ * The annotations of a single document of a bulk annotation request.
+ */
+@JsonInclude(Include.NON_NULL)
+public class BulkResult {
+
+  final String id;
+  final List<EntityAnnotation> entities;
+  final String error;
+
+  BulkResult(String id, List<EntityAnnotation> entities, String error) {
+    this.id = id;
+    this.entities = entities;
+    this.error = error;
+  }
+
+  public static BulkResult success(String id, List<EntityAnnotation> entities) {
+    return new BulkResult(id, entities, null);
+  }
+
+  public static BulkResult failure(String id, String error) {
+    return new BulkResult(id, null, error);
+  }
+
+  @JsonProperty
+  public String getId() {
+    return id;
+  }
+
+  /***
+   * @return the entities of the document, or null if it could not be annotated
+   */
+  @JsonProperty
+  public List<EntityAnnotation> getEntities() {
+    return entities;
+  }
+
+  /***
+   * @return why the document could not be annotated, or null
+   */
+  @JsonProperty
+  public String getError() {
+    return error;
+  }
+
+}
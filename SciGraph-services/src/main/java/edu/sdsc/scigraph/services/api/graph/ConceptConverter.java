@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.graph;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Collection;
+
+import com.google.common.base.Function;
+
+import edu.sdsc.scigraph.frames.Concept;
+
+/***
+ * Converts concepts to their DTOs by calling each getter of the concept once.
+ * 
+ * <p>Multi-valued properties that are already collections are used as is rather than copied.
+ */
+public final class ConceptConverter {
+
+  public static final Function<Concept, ConceptDTO> TO_DTO = new Function<Concept, ConceptDTO>() {
+    @Override
+    public ConceptDTO apply(Concept concept) {
+      return toDto(concept);
+    }
+  };
+
+  public static final Function<Concept, ConceptDTOLite> TO_DTO_LITE =
+      new Function<Concept, ConceptDTOLite>() {
+    @Override
+    public ConceptDTOLite apply(Concept concept) {
+      return toDtoLite(concept);
+    }
+  };
+
+  private ConceptConverter() {}
+
+  static Collection<String> toCollection(Iterable<String> values) {
+    if (null == values || values instanceof Collection) {
+      return (Collection<String>) values;
+    }
+    return newArrayList(values);
+  }
+
+  static void copy(Concept concept, ConceptDTOLite dto) {
+    dto.setUri(concept.getUri());
+    dto.setLabels(toCollection(concept.getLabels()));
+    dto.setFragment(concept.getFragment());
+    dto.setCurie(concept.getCurie());
+    dto.setCategories(toCollection(concept.getCategories()));
+    dto.setSynonyms(toCollection(concept.getSynonyms()));
+    dto.setAcronyms(toCollection(concept.getAcronyms()));
+    dto.setAbbreviations(toCollection(concept.getAbbreviations()));
+  }
+
+  public static ConceptDTOLite toDtoLite(Concept concept) {
+    ConceptDTOLite dto = new ConceptDTOLite();
+    copy(concept, dto);
+    return dto;
+  }
+
+  public static ConceptDTO toDto(Concept concept) {
+    ConceptDTO dto = new ConceptDTO();
+    copy(concept, dto);
+    dto.setDefinition(concept.getDefinition());
+    return dto;
+  }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.graph;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/***
+ * Whether the start node can reach the end node.
+ */
+@XmlRootElement
+public class Reachability {
+
+  final String start;
+  final String end;
+  final boolean reachable;
+
+  Reachability() {
+    this(null, null, false);
+  }
+
+  public Reachability(String start, String end, boolean reachable) {
+    this.start = start;
+    this.end = end;
+    this.reachable = reachable;
+  }
+
+  @XmlAttribute
+  public String getStart() {
+    return start;
+  }
+
+  @XmlAttribute
+  public String getEnd() {
+    return end;
+  }
+
+  @XmlAttribute
+  public boolean isReachable() {
+    return reachable;
+  }
+
+}
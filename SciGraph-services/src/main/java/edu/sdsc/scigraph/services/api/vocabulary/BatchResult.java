@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.vocabulary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import edu.sdsc.scigraph.services.api.graph.ConceptDTO;
+
+/***
+ * The concepts resolved for a single input of a batch request.
+ */
+@XmlRootElement
+public class BatchResult {
+
+  final String input;
+  final List<ConceptDTO> concepts = new ArrayList<>();
+
+  BatchResult() {
+    this(null, new ArrayList<ConceptDTO>());
+  }
+
+  public BatchResult(String input, Collection<ConceptDTO> concepts) {
+    this.input = input;
+    this.concepts.addAll(concepts);
+  }
+
+  @XmlAttribute
+  public String getInput() {
+    return input;
+  }
+
+  /***
+   * @return false if the input could not be resolved
+   */
+  @XmlAttribute
+  public boolean isFound() {
+    return !concepts.isEmpty();
+  }
+
+  @XmlElement(name = "concept")
+  public List<ConceptDTO> getConcepts() {
+    return concepts;
+  }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.vocabulary;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+public class Facet {
+
+  final String name;
+  final int count;
+
+  Facet() {
+    this(null, 0);
+  }
+
+  public Facet(String name, int count) {
+    this.name = name;
+    this.count = count;
+  }
+
+  @XmlAttribute
+  public String getName() {
+    return name;
+  }
+
+  @XmlAttribute
+  public int getCount() {
+    return count;
+  }
+
+}
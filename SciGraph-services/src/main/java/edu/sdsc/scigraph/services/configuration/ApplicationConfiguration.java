@@ -18,6 +18,7 @@ package edu.sdsc.scigraph.services.configuration;
 import io.dropwizard.Configuration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -40,6 +41,19 @@ public class ApplicationConfiguration extends Configuration {
   @JsonProperty(required=false)
   private Optional<ApiConfiguration> apiConfiguration = Optional.absent();
 
+  @JsonProperty(required=false)
+  private Optional<Long> vocabularyCacheWeight = Optional.absent();
+
+  @JsonProperty(required=false)
+  private boolean dictionaryRecognition = false;
+
+  @JsonProperty(required=false)
+  private Optional<Long> recognitionCacheWeight = Optional.absent();
+
+  @Min(1)
+  @JsonProperty(required=false)
+  private int annotationThreads = Runtime.getRuntime().availableProcessors();
+
   public String getApplicationContextPath() {
     return applicationContextPath;
   }
@@ -52,4 +66,34 @@ public class ApplicationConfiguration extends Configuration {
     return apiConfiguration;
   }
 
+  /***
+   * @return the maximum total weight of cached vocabulary lookups, where each lookup weighs one
+   *         plus the number of concepts it holds
+   */
+  public Optional<Long> getVocabularyCacheWeight() {
+    return vocabularyCacheWeight;
+  }
+
+  /***
+   * @return true if annotation should recognize entities with an in memory dictionary
+   */
+  public boolean isDictionaryRecognition() {
+    return dictionaryRecognition;
+  }
+
+  /***
+   * @return the maximum total weight of cached recognized entities, where each candidate weighs
+   *         one plus the number of entities it holds
+   */
+  public Optional<Long> getRecognitionCacheWeight() {
+    return recognitionCacheWeight;
+  }
+
+  /***
+   * @return the number of threads annotating the documents of bulk requests
+   */
+  public int getAnnotationThreads() {
+    return annotationThreads;
+  }
+
 }
@@ -34,4 +34,7 @@ public class CustomMediaTypes {
   public final static String APPLICATION_RIS = "application/x-research-info-systems";
   public final static MediaType APPLICATION_RIS_TYPE = new MediaType("application", "x-research-info-systems");
 
+  public final static String APPLICATION_NDJSON = "application/x-ndjson";
+  public final static MediaType APPLICATION_NDJSON_TYPE = new MediaType("application", "x-ndjson");
+
 }
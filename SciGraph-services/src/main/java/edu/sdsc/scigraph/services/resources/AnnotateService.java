@@ -16,11 +16,13 @@
 package edu.sdsc.scigraph.services.resources;
 
 import static com.google.common.collect.Lists.newArrayList;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.jersey.caching.CacheControl;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -29,13 +31,21 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
@@ -55,13 +65,23 @@ import javax.xml.bind.annotation.XmlRootElement;
 
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
 
+import edu.sdsc.scigraph.annotation.AnnotationCallback;
 import edu.sdsc.scigraph.annotation.EntityAnnotation;
 import edu.sdsc.scigraph.annotation.EntityFormatConfiguration;
 import edu.sdsc.scigraph.annotation.EntityProcessor;
+import edu.sdsc.scigraph.services.api.annotation.BulkDocument;
+import edu.sdsc.scigraph.services.api.annotation.BulkResult;
 import edu.sdsc.scigraph.services.jersey.BaseResource;
 import edu.sdsc.scigraph.services.jersey.CustomMediaTypes;
 import edu.sdsc.scigraph.services.jersey.JaxRsUtil;
@@ -74,9 +94,40 @@ public class AnnotateService extends BaseResource {
 
   private static final Logger logger = Logger.getLogger(AnnotateService.class.getName());
 
+  private static final ObjectMapper objectMapper = Jackson.newObjectMapper();
+
   @Inject
   private EntityProcessor processor;
 
+  @Inject
+  @Named("annotation.executor")
+  private ExecutorService annotationExecutor;
+
+  /***
+   * The maximum number of documents of a bulk request annotated at once.
+   */
+  @Inject
+  @Named("annotation.threads")
+  private int annotationConcurrency;
+
+  /***
+   * Reads the documents of bulk requests, one task per request.
+   */
+  @Inject
+  @Named("annotation.reader")
+  private ExecutorService readerExecutor;
+
+  /***
+   * The maximum number of results of a bulk request waiting for the client to read them.
+   */
+  int bulkQueueCapacity = 1024;
+
+  /***
+   * How long, in milliseconds, a result of a bulk request may wait for room in the queue before
+   * the request fails.
+   */
+  long bulkTimeout = TimeUnit.MINUTES.toMillis(1);
+
   /***
    * This service is designed to annotate shorter fragments of text and for use from 
    * a browser. It does not have the same options for handling markup that
@@ -470,6 +521,265 @@ public class AnnotateService extends BaseResource {
     return JaxRsUtil.wrapJsonp(request, response, callback); 
   }
 
+  /***
+   * Queues the results of a bulk annotation as they arrive from the threads annotating documents,
+   * and writes them from the single thread that owns the response.
+   * <p>
+   * Annotating threads never block on the client: a result that cannot be queued within the
+   * timeout fails the request, which ends with an error line once the client reads again.
+   */
+  static class BulkResultWriter {
+
+    private static final BulkResult END = BulkResult.failure(null, null);
+
+    private final Writer writer;
+    private final BlockingQueue<BulkResult> queue;
+    private final long timeout;
+    private volatile boolean failed = false;
+    private volatile boolean stopped = false;
+
+    BulkResultWriter(Writer writer, int capacity, long timeout) {
+      this.writer = writer;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.timeout = timeout;
+    }
+
+    void write(BulkResult result) {
+      if (failed) {
+        return;
+      }
+      try {
+        if (!queue.offer(result, timeout, TimeUnit.MILLISECONDS)) {
+          logger.warning("Bulk annotation results were not read within " + timeout + "ms");
+          failed = true;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failed = true;
+      }
+    }
+
+    /***
+     * Signals that no more results will be written.
+     */
+    void close() {
+      try {
+        if (!failed && queue.offer(END, timeout, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      failed = true;
+      // Nothing is written once the request failed, so make room for the end of the results
+      queue.clear();
+      queue.offer(END);
+    }
+
+    /***
+     * Writes the queued results until {@link #close()} is called. If the request fails the error
+     * is written right away, and the rest of the results are dropped until {@link #close()}.
+     * 
+     * @throws IOException if the client disconnected
+     */
+    void drain() throws IOException, InterruptedException {
+      boolean drained = false;
+      try {
+        BulkResult result;
+        while (END != (result = queue.take()) && !failed) {
+          writer.write(objectMapper.writeValueAsString(result));
+          writer.write('\n');
+          if (queue.isEmpty()) {
+            writer.flush();
+          }
+        }
+        if (failed) {
+          writer.write(objectMapper.writeValueAsString(BulkResult.failure(null,
+              "Results were not read within " + timeout + "ms; the remaining documents were skipped")));
+          writer.write('\n');
+          writer.flush();
+          while (END != result) {
+            result = queue.take();
+          }
+        }
+        writer.flush();
+        drained = true;
+      } finally {
+        if (!drained) {
+          stopped = true;
+          failed = true;
+          // Make room for annotating threads waiting on the queue
+          queue.clear();
+        }
+      }
+    }
+
+    /***
+     * @return true if a result could not be queued, because the client is not reading results or
+     *         disconnected
+     */
+    boolean isFailed() {
+      return failed;
+    }
+
+    /***
+     * @return true if the response ended before all the results were written, so the rest of the
+     *         request should not be read
+     */
+    boolean isStopped() {
+      return stopped;
+    }
+
+  }
+
+  /***
+   * Annotate many documents in one request.
+   * <p>
+   * Each line of the request is a JSON document with an <em>id</em> and <em>content</em>.
+   * Documents are annotated concurrently on a worker pool shared by all bulk requests, and each
+   * line of the response holds the <em>entities</em> of one document, or an <em>error</em>, as
+   * soon as the document is annotated. Results are therefore not in request order. Documents are
+   * read as workers become available, so requests may be arbitrarily large.
+   * <p>
+   * The request is read on its own thread, so clients may send the whole request before reading
+   * the response, and reading stops if the client disconnects. Results waiting for the client are
+   * bounded, though: clients that send more documents than that before reading should read the
+   * response while sending, or the request ends with an error line once the unread results time
+   * out.
+   * 
+   * @param input The documents to annotate, one JSON object per line
+   * @param includeCategories A set of categories to include
+   * @param excludeCategories A set of categories to exclude
+   * @param minLength The minimum length of annotated entities
+   * @param longestOnly Should only the longest entity be returned for an overlapping group
+   * @param includeAbbrev Should abbreviations be included
+   * @param includeAcronym Should acronyms be included
+   * @param includeNumbers Should numbers be included
+   * @return The entities of each document, one JSON object per line
+   */
+  @POST
+  @Path("/bulk")
+  @Consumes({CustomMediaTypes.APPLICATION_NDJSON, MediaType.TEXT_PLAIN})
+  @Produces(CustomMediaTypes.APPLICATION_NDJSON)
+  @ApiOperation(value = "Annotate many documents", response = BulkResult.class,
+      notes = "The request and the response have one JSON object per line. "
+          + "Results are returned in the order documents finish.")
+  @Timed
+  public Response annotateBulk(
+      final InputStream input,
+      final @QueryParam("includeCat") Set<String> includeCategories,
+      final @QueryParam("excludeCat") Set<String> excludeCategories,
+      final @QueryParam("minLength") @DefaultValue("4") int minLength,
+      final @QueryParam("longestOnly") @DefaultValue("false") boolean longestOnly,
+      final @QueryParam("includeAbbrev") @DefaultValue("false") boolean includeAbbrev,
+      final @QueryParam("includeAcronym") @DefaultValue("false") boolean includeAcronym,
+      final @QueryParam("includeNumbers") @DefaultValue("false") boolean includeNumbers) {
+    StreamingOutput stream = new StreamingOutput() {
+      @Override
+      public void write(OutputStream os) throws IOException, WebApplicationException {
+        final BulkResultWriter results = new BulkResultWriter(
+            new BufferedWriter(new OutputStreamWriter(os, Charsets.UTF_8)), bulkQueueCapacity,
+            bulkTimeout);
+        final BufferedReader reader =
+            new BufferedReader(new InputStreamReader(input, Charsets.UTF_8));
+        final Iterator<BulkDocument> documents = new AbstractIterator<BulkDocument>() {
+          int line = 0;
+
+          @Override
+          protected BulkDocument computeNext() {
+            try {
+              String json;
+              while (!results.isStopped() && !Thread.currentThread().isInterrupted()
+                  && null != (json = reader.readLine())) {
+                line++;
+                if (results.isFailed() || json.trim().isEmpty()) {
+                  // Keep reading a failed request so that the client can read the error
+                  continue;
+                }
+                try {
+                  return objectMapper.readValue(json, BulkDocument.class);
+                } catch (JsonProcessingException e) {
+                  results.write(BulkResult.failure(null,
+                      "Malformed document on line " + line + ": " + e.getOriginalMessage()));
+                }
+              }
+            } catch (IOException e) {
+              logger.log(Level.WARNING, "Failed to read bulk annotation documents", e);
+            }
+            return endOfData();
+          }
+        };
+        final Function<BulkDocument, EntityFormatConfiguration> configurations =
+            new Function<BulkDocument, EntityFormatConfiguration>() {
+          @Override
+          public EntityFormatConfiguration apply(BulkDocument document) {
+            EntityFormatConfiguration.Builder configBuilder = new EntityFormatConfiguration.Builder(
+                new StringReader(Strings.nullToEmpty(document.getContent())));
+            configBuilder.includeCategories(includeCategories);
+            configBuilder.excludeCategories(excludeCategories);
+            configBuilder.includeAbbreviations(includeAbbrev);
+            configBuilder.includeAncronyms(includeAcronym);
+            configBuilder.includeNumbers(includeNumbers);
+            configBuilder.minLength(minLength);
+            configBuilder.longestOnly(longestOnly);
+            return configBuilder.get();
+          }
+        };
+        final AnnotationCallback<BulkDocument> callback = new AnnotationCallback<BulkDocument>() {
+          @Override
+          public void onSuccess(BulkDocument document, List<EntityAnnotation> annotations) {
+            results.write(BulkResult.success(document.getId(), annotations));
+          }
+
+          @Override
+          public void onFailure(BulkDocument document, Throwable cause) {
+            logger.log(Level.WARNING, "Failed to annotate " + document.getId(), cause);
+            results.write(BulkResult.failure(document.getId(),
+                Objects.firstNonNull(cause.getMessage(), cause.getClass().getSimpleName())));
+          }
+        };
+        final AtomicBoolean readerStarted = new AtomicBoolean();
+        final CountDownLatch readerDone = new CountDownLatch(1);
+        Future<?> requestReader = readerExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            if (!readerStarted.compareAndSet(false, true)) {
+              // The response ended before the reader started
+              return;
+            }
+            try {
+              processor.annotateEntities(documents, configurations, annotationExecutor,
+                  annotationConcurrency, callback);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+              logger.log(Level.WARNING, "Failed to annotate bulk documents", e);
+            } finally {
+              results.close();
+              readerDone.countDown();
+            }
+          }
+        });
+        try {
+          results.drain();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          // Unless the reader never started, stop it since the request must not be read once the
+          // response is complete
+          if (!readerStarted.compareAndSet(false, true)) {
+            requestReader.cancel(true);
+            if (!Uninterruptibles.awaitUninterruptibly(readerDone, bulkTimeout,
+                TimeUnit.MILLISECONDS)) {
+              logger.warning("Bulk annotation reader did not stop within " + bulkTimeout + "ms");
+            }
+          }
+        }
+      }
+    };
+    return Response.ok(stream).build();
+  }
+
   /***
    * A utility JAXB class for {@link AnnotateService#getEntitiesAndContent(String, Set, Set, int, boolean, boolean, boolean, boolean, String)}.
    */
@@ -21,16 +21,23 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import io.dropwizard.jersey.caching.CacheControl;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -61,11 +68,13 @@ import com.wordnik.swagger.annotations.ApiParam;
 
 import edu.sdsc.scigraph.frames.CommonProperties;
 import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.internal.GraphApi;
 import edu.sdsc.scigraph.neo4j.Graph;
 import edu.sdsc.scigraph.representations.monarch.GraphPath;
 import edu.sdsc.scigraph.representations.monarch.GraphPath.Edge;
 import edu.sdsc.scigraph.representations.monarch.GraphPath.Vertex;
 import edu.sdsc.scigraph.services.api.graph.ConceptDTO;
+import edu.sdsc.scigraph.services.api.graph.Reachability;
 import edu.sdsc.scigraph.services.jersey.BaseResource;
 import edu.sdsc.scigraph.services.jersey.CustomMediaTypes;
 import edu.sdsc.scigraph.services.jersey.JaxRsUtil;
@@ -79,11 +88,13 @@ public class GraphService extends BaseResource {
 
   private final Vocabulary<Concept> vocabulary;
   private final Graph<Concept> graph;
+  private final GraphApi graphApi;
 
   @Inject
-  GraphService(Vocabulary<Concept> vocabulary, Graph<Concept> graph) {
+  GraphService(Vocabulary<Concept> vocabulary, Graph<Concept> graph, GraphApi graphApi) {
     this.vocabulary = vocabulary;
     this.graph = graph;
+    this.graphApi = graphApi;
   }
 
   GraphPath getGraphPathFromPath(org.neo4j.graphdb.Path path) {
@@ -297,4 +308,99 @@ public class GraphService extends BaseResource {
     return JaxRsUtil.wrapJsonp(request, response, callback);
   }
 
+
+  Node getNodeFromId(String id) {
+    Vocabulary.Query query = new Vocabulary.Query.Builder(id).build();
+    Concept concept = getFirst(vocabulary.getConceptFromId(query), null);
+    if (null == concept) {
+      throw new WebApplicationException(404);
+    }
+    return graph.getOrCreateNode(concept.getUri());
+  }
+
+  List<Reachability> getReachability(List<String> startIds, List<String> endIds, boolean pairwise) {
+    if (pairwise && startIds.size() != endIds.size()) {
+      throw new WebApplicationException(400);
+    }
+    Map<String, Node> nodes = new LinkedHashMap<>();
+    for (String id: startIds) {
+      if (!nodes.containsKey(id)) {
+        nodes.put(id, getNodeFromId(id));
+      }
+    }
+    for (String id: endIds) {
+      if (!nodes.containsKey(id)) {
+        nodes.put(id, getNodeFromId(id));
+      }
+    }
+    List<Entry<String, String>> idPairs = new ArrayList<>();
+    Set<Entry<Node, Node>> reachablePairs;
+    if (pairwise) {
+      List<Entry<Node, Node>> nodePairs = new ArrayList<>();
+      for (int i = 0; i < startIds.size(); i++) {
+        idPairs.add(new AbstractMap.SimpleImmutableEntry<>(startIds.get(i), endIds.get(i)));
+        nodePairs.add(new AbstractMap.SimpleImmutableEntry<>(
+            nodes.get(startIds.get(i)), nodes.get(endIds.get(i))));
+      }
+      reachablePairs = graphApi.getReachablePairs(nodePairs);
+    } else {
+      Set<Node> starts = new HashSet<>();
+      Set<Node> ends = new HashSet<>();
+      for (String startId: startIds) {
+        starts.add(nodes.get(startId));
+        for (String endId: endIds) {
+          idPairs.add(new AbstractMap.SimpleImmutableEntry<>(startId, endId));
+        }
+      }
+      for (String endId: endIds) {
+        ends.add(nodes.get(endId));
+      }
+      reachablePairs = graphApi.getReachablePairs(starts, ends);
+    }
+    List<Reachability> reachability = new ArrayList<>();
+    for (Entry<String, String> idPair: idPairs) {
+      Entry<Node, Node> nodePair = new AbstractMap.SimpleImmutableEntry<>(
+          nodes.get(idPair.getKey()), nodes.get(idPair.getValue()));
+      reachability.add(new Reachability(idPair.getKey(), idPair.getValue(),
+          reachablePairs.contains(nodePair)));
+    }
+    return reachability;
+  }
+
+  @GET
+  @Path("/reachable")
+  @ApiOperation(value = "Check if start nodes can reach end nodes", response = Reachability.class)
+  @Timed
+  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
+  public Object getReachable(
+      @ApiParam( value = "Start node IDs", required = true )
+      @QueryParam("start") List<String> startIds,
+      @ApiParam( value = "End node IDs", required = true )
+      @QueryParam("end") List<String> endIds,
+      @ApiParam( value = "Pair the nth start with the nth end instead of checking every combination", required = false )
+      @QueryParam("pairwise") @DefaultValue("false") boolean pairwise,
+      @ApiParam( value = "JSONP callback", required = false )
+      @QueryParam("callback") @DefaultValue("fn") String callback) {
+    List<Reachability> reachability = getReachability(startIds, endIds, pairwise);
+    GenericEntity<List<Reachability>> response = new GenericEntity<List<Reachability>>(reachability){};
+    return JaxRsUtil.wrapJsonp(request, response, callback);
+  }
+
+  @POST
+  @Path("/reachable")
+  @Consumes("application/x-www-form-urlencoded")
+  @ApiOperation(value = "Check if start nodes can reach end nodes", response = Reachability.class)
+  @Timed
+  public Object postReachable(
+      @ApiParam( value = "Start node IDs", required = true )
+      @FormParam("start") List<String> startIds,
+      @ApiParam( value = "End node IDs", required = true )
+      @FormParam("end") List<String> endIds,
+      @ApiParam( value = "Pair the nth start with the nth end instead of checking every combination", required = false )
+      @FormParam("pairwise") @DefaultValue("false") boolean pairwise,
+      @ApiParam( value = "JSONP callback", required = false )
+      @FormParam("callback") @DefaultValue("fn") String callback) {
+    return getReachable(startIds, endIds, pairwise, callback);
+  }
+
 }
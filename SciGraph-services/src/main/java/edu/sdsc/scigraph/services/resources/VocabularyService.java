@@ -16,21 +16,33 @@
 package edu.sdsc.scigraph.services.resources;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.partition;
 import static com.google.common.collect.Lists.transform;
+import static com.google.common.collect.Sets.newLinkedHashSet;
 import static java.util.Collections.sort;
 import io.dropwizard.jersey.caching.CacheControl;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.jersey.params.IntParam;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -38,15 +50,20 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 
-import org.apache.commons.lang.StringUtils;
-import org.apache.lucene.analysis.Analyzer;
-import org.dozer.DozerBeanMapper;
-
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.Iterables;
@@ -57,15 +74,18 @@ import com.wordnik.swagger.annotations.ApiResponse;
 import com.wordnik.swagger.annotations.ApiResponses;
 
 import edu.sdsc.scigraph.frames.Concept;
-import edu.sdsc.scigraph.lucene.ExactAnalyzer;
 import edu.sdsc.scigraph.lucene.LuceneUtils;
+import edu.sdsc.scigraph.services.api.graph.ConceptConverter;
 import edu.sdsc.scigraph.services.api.graph.ConceptDTO;
 import edu.sdsc.scigraph.services.api.graph.ConceptDTOLite;
+import edu.sdsc.scigraph.services.api.vocabulary.BatchResult;
 import edu.sdsc.scigraph.services.api.vocabulary.Completion;
+import edu.sdsc.scigraph.services.api.vocabulary.Facet;
 import edu.sdsc.scigraph.services.jersey.BaseResource;
 import edu.sdsc.scigraph.services.jersey.CustomMediaTypes;
 import edu.sdsc.scigraph.services.jersey.JaxRsUtil;
 import edu.sdsc.scigraph.vocabulary.Vocabulary;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.BatchType;
 import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
 
 @Path("/vocabulary") 
@@ -75,32 +95,21 @@ import edu.sdsc.scigraph.vocabulary.Vocabulary.Query;
 public class VocabularyService extends BaseResource {
 
   private final Vocabulary<Concept> vocabulary;
-  private final DozerBeanMapper mapper;
-
-  private static final Analyzer analyzer = new ExactAnalyzer();
-
-  private Function<Concept, ConceptDTO> conceptDtoTransformer = new Function<Concept, ConceptDTO>() {
-
-    @Override
-    public ConceptDTO apply(Concept input) {
-      return mapper.map(input, ConceptDTO.class);
-    }
 
-  };
+  private static final ObjectMapper objectMapper = Jackson.newObjectMapper();
 
-  private Function<Concept, ConceptDTOLite> conceptDtoLiteTransformer = new Function<Concept, ConceptDTOLite>() {
+  /***
+   * The number of batch inputs resolved before results are written to the client.
+   */
+  static final int BATCH_CHUNK_SIZE = 1000;
 
-    @Override
-    public ConceptDTOLite apply(Concept input) {
-      return mapper.map(input, ConceptDTOLite.class);
-    }
+  private static final Function<Concept, ConceptDTO> conceptDtoTransformer = ConceptConverter.TO_DTO;
 
-  };
+  private static final Function<Concept, ConceptDTOLite> conceptDtoLiteTransformer = ConceptConverter.TO_DTO_LITE;
 
   @Inject
-  VocabularyService(Vocabulary<Concept> vocabulary, DozerBeanMapper mapper) {
+  VocabularyService(Vocabulary<Concept> vocabulary) {
     this.vocabulary = vocabulary;
-    this.mapper = mapper;
   }
 
   @GET
@@ -119,7 +128,7 @@ public class VocabularyService extends BaseResource {
       @QueryParam("callback") @DefaultValue("fn") String callback) throws Exception {
     Optional<Concept> concept = vocabulary.getConceptFromUri(uri);
     if (concept.isPresent()) {
-      GenericEntity<ConceptDTO> response = new GenericEntity<ConceptDTO>(mapper.map(concept.get(), ConceptDTO.class)){};
+      GenericEntity<ConceptDTO> response = new GenericEntity<ConceptDTO>(ConceptConverter.toDto(concept.get())){};
       return JaxRsUtil.wrapJsonp(request, response, callback);
     } else {
       throw new WebApplicationException(404);
@@ -157,40 +166,104 @@ public class VocabularyService extends BaseResource {
     }
   }
 
-  static Set<String> getMatchingCompletions(String prefix, Iterable<String> candidates) {
-    Set<String> matches = new HashSet<>();
+  @POST
+  @Path("/batch")
+  @Consumes("application/x-www-form-urlencoded")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Find concepts for many IDs, URIs, or terms",
+  notes = "Inputs are resolved together and results are streamed back as a JSON array "
+      + "with one entry per distinct input, in request order. "
+      + "Inputs which could not be resolved have \"found\": false.",
+      response = BatchResult.class)
+  @ApiResponses({
+    @ApiResponse(code = 400, message = "Unknown input type")
+  })
+  @Timed
+  public Response findBatch(
+      @ApiParam( value = "The kind of inputs: id, uri, or term", required = false )
+      @FormParam("type") @DefaultValue("id") String type,
+      @ApiParam( value = "The inputs to resolve", required = true )
+      @FormParam("input") List<String> inputs) {
+    final BatchType batchType;
+    try {
+      batchType = BatchType.valueOf(type.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(Status.BAD_REQUEST);
+    }
+    final List<String> batchInputs = newArrayList(newLinkedHashSet(inputs));
+    StreamingOutput stream = new StreamingOutput() {
+      @Override
+      public void write(OutputStream os) throws IOException, WebApplicationException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(os, JsonEncoding.UTF8);
+        generator.writeStartArray();
+        for (List<String> chunk: partition(batchInputs, BATCH_CHUNK_SIZE)) {
+          for (Entry<String, Collection<Concept>> result: vocabulary.getConcepts(batchType, chunk).entrySet()) {
+            objectMapper.writeValue(generator, new BatchResult(result.getKey(),
+                transform(newArrayList(result.getValue()), conceptDtoTransformer)));
+          }
+          generator.flush();
+        }
+        generator.writeEndArray();
+        generator.close();
+      }
+    };
+    return Response.ok(stream).build();
+  }
 
-    String tokenizedPrefix = LuceneUtils.getTokenization(analyzer, prefix);
+  /***
+   * A negative offset or limit is a client error rather than a server failure.
+   */
+  static void setPage(Vocabulary.Query.Builder builder, int offset, int limit) {
+    try {
+      builder.offset(offset).limit(limit);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(Status.BAD_REQUEST);
+    }
+  }
 
-    for (String candidate: candidates) {
-      String tokenizedCandidate = LuceneUtils.getTokenization(analyzer, candidate);
-      if (StringUtils.startsWithIgnoreCase(tokenizedCandidate, tokenizedPrefix)) {
-        matches.add(candidate);
+  /***
+   * Normalized forms stored with the concept are used when they are aligned with candidates
+   * so that only the prefix has to be analyzed per request.
+   * 
+   * @return candidates whose normalized form starts with normalizedPrefix
+   */
+  static Set<String> getMatchingCompletions(String normalizedPrefix, Iterable<String> candidates,
+      @Nullable Iterable<String> normalizedCandidates) {
+    List<String> values = newArrayList(candidates);
+    List<String> normalized = (null == normalizedCandidates) ?
+        Collections.<String>emptyList() : newArrayList(normalizedCandidates);
+    boolean aligned = values.size() == normalized.size();
+    Set<String> matches = new LinkedHashSet<>();
+    for (int i = 0; i < values.size(); i++) {
+      String candidate = aligned ? normalized.get(i) : LuceneUtils.normalize(values.get(i));
+      if (candidate.startsWith(normalizedPrefix)) {
+        matches.add(values.get(i));
       }
     }
     return matches;
   }
 
   static List<String> getCompletion(Query query, Concept result) {
+    String prefix = LuceneUtils.normalize(query.getInput());
     List<String> completions = new ArrayList<>();
-    completions.addAll(getMatchingCompletions(query.getInput(), result.getLabels()));
+    completions.addAll(getMatchingCompletions(prefix, result.getLabels(), result.getNormalizedLabels()));
     if (query.isIncludeSynonyms()) {
-      completions.addAll(getMatchingCompletions(query.getInput(), result.getSynonyms()));
+      completions.addAll(getMatchingCompletions(prefix, result.getSynonyms(), result.getNormalizedSynonyms()));
     }
     return completions;
   }
 
   List<Completion> getCompletions(Query query, List<Concept> concepts) {
+    String prefix = LuceneUtils.normalize(query.getInput());
     List<Completion> completions = new ArrayList<>();
     for (Concept concept : concepts) {
-      for (String completion : getMatchingCompletions(query.getInput(), concept.getLabels())) {
-        completions.add(new Completion(completion, "label", conceptDtoLiteTransformer
-            .apply(concept)));
+      ConceptDTOLite dto = conceptDtoLiteTransformer.apply(concept);
+      for (String completion : getMatchingCompletions(prefix, concept.getLabels(), concept.getNormalizedLabels())) {
+        completions.add(new Completion(completion, "label", dto));
       }
       if (query.isIncludeSynonyms()) {
-        for (String completion : getMatchingCompletions(query.getInput(), concept.getSynonyms())) {
-          completions.add(new Completion(completion, "synonym", conceptDtoLiteTransformer
-              .apply(concept)));
+        for (String completion : getMatchingCompletions(prefix, concept.getSynonyms(), concept.getNormalizedSynonyms())) {
+          completions.add(new Completion(completion, "synonym", dto));
         }
       }
     }
@@ -210,6 +283,8 @@ public class VocabularyService extends BaseResource {
       @PathParam("prefix") String prefix,
       @ApiParam( value = "Result count limit", required = false )
       @QueryParam("limit") @DefaultValue("20") IntParam limit,
+      @ApiParam( value = "Number of results to skip", required = false )
+      @QueryParam("offset") @DefaultValue("0") int offset,
       @ApiParam( value = "Should synonyms be matched", required = false )
       @QueryParam("searchSynonyms") @DefaultValue("true") boolean searchSynonyms,
       @ApiParam( value = "Categories to search (defaults to all)", required = false )
@@ -221,8 +296,8 @@ public class VocabularyService extends BaseResource {
     Vocabulary.Query.Builder builder = new Vocabulary.Query.Builder(prefix).
         categories(categories).
         ontologies(ontologies).
-        includeSynonyms(searchSynonyms).
-        limit(limit.get());
+        includeSynonyms(searchSynonyms);
+    setPage(builder, offset, limit.get());
     List<Concept> concepts = vocabulary.getConceptsFromPrefix(builder.build());
     List<Completion> completions = getCompletions(builder.build(), concepts);
     CompletionWrapper wrapper = new CompletionWrapper(completions);
@@ -246,6 +321,8 @@ public class VocabularyService extends BaseResource {
       @PathParam("term") String term,
       @ApiParam( value = "Result count limit", required = false )
       @QueryParam("limit") @DefaultValue("20") int limit,
+      @ApiParam( value = "Number of results to skip", required = false )
+      @QueryParam("offset") @DefaultValue("0") int offset,
       @ApiParam( value = "Should synonyms be matched", required = false )
       @QueryParam("searchSynonyms") @DefaultValue("true") boolean searchSynonyms,
       @ApiParam( value = "Categories to search (defaults to all)", required = false )
@@ -257,8 +334,8 @@ public class VocabularyService extends BaseResource {
     Vocabulary.Query.Builder builder = new Vocabulary.Query.Builder(term).
         categories(categories).
         ontologies(ontologies).
-        includeSynonyms(searchSynonyms).
-        limit(limit);
+        includeSynonyms(searchSynonyms);
+    setPage(builder, offset, limit);
     List<Concept> concepts = vocabulary.getConceptsFromTerm(builder.build());
     if (concepts.isEmpty()) {
       throw new WebApplicationException(404);
@@ -269,6 +346,47 @@ public class VocabularyService extends BaseResource {
     }
   }
 
+  @GET
+  @Path("/fuzzy/{term}")
+  @ApiOperation(value = "Find a concept from a misspelled term",
+  notes = "Matches complete labels within a few typos of the term, closest matches first. " + 
+      "Fragments of labels are not matched. Results are not guarenteed to be unique.",
+      response = Concept.class)
+  @ApiResponses({
+    @ApiResponse(code = 404, message = "Concept with term could not be found")
+  })
+  @Timed
+  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
+  public Object findByFuzzyTerm(
+      @ApiParam( value = "Term to find", required = true )
+      @PathParam("term") String term,
+      @ApiParam( value = "Result count limit", required = false )
+      @QueryParam("limit") @DefaultValue("20") int limit,
+      @ApiParam( value = "Number of results to skip", required = false )
+      @QueryParam("offset") @DefaultValue("0") int offset,
+      @ApiParam( value = "Should synonyms be matched", required = false )
+      @QueryParam("searchSynonyms") @DefaultValue("true") boolean searchSynonyms,
+      @ApiParam( value = "Categories to search (defaults to all)", required = false )
+      @QueryParam("category") List<String> categories,
+      @ApiParam( value = "Ontologies to search (defaults to all)", required = false )
+      @QueryParam("ontology") List<String> ontologies,
+      @ApiParam( value = "JSONP callback", required = false )
+      @QueryParam("callback") @DefaultValue("fn") String callback) {
+    Vocabulary.Query.Builder builder = new Vocabulary.Query.Builder(term).
+        categories(categories).
+        ontologies(ontologies).
+        includeSynonyms(searchSynonyms);
+    setPage(builder, offset, limit);
+    List<Concept> concepts = vocabulary.getConceptsFromFuzzyTerm(builder.build());
+    if (concepts.isEmpty()) {
+      throw new WebApplicationException(404);
+    } else {
+      ConceptWrapper wrapper = new ConceptWrapper(transform(concepts, conceptDtoTransformer));
+      GenericEntity<ConceptWrapper> response = new GenericEntity<ConceptWrapper>(wrapper){};
+      return JaxRsUtil.wrapJsonp(request, response, callback);
+    }
+  }
+
   @GET
   @Path("/search/{term}")
   @ApiOperation(value = "Find a concept from a term fragment",
@@ -285,6 +403,8 @@ public class VocabularyService extends BaseResource {
       @PathParam("term") String term,
       @ApiParam( value = "Result count limit", required = false )
       @QueryParam("limit") @DefaultValue("20") int limit,
+      @ApiParam( value = "Number of results to skip", required = false )
+      @QueryParam("offset") @DefaultValue("0") int offset,
       @ApiParam( value = "Should synonyms be matched", required = false )
       @QueryParam("searchSynonyms") @DefaultValue("true") boolean searchSynonyms,
       @ApiParam( value = "Categories to search (defaults to all)", required = false )
@@ -296,8 +416,8 @@ public class VocabularyService extends BaseResource {
     Vocabulary.Query.Builder builder = new Vocabulary.Query.Builder(term).
         categories(categories).
         ontologies(ontologies).
-        includeSynonyms(searchSynonyms).
-        limit(limit);
+        includeSynonyms(searchSynonyms);
+    setPage(builder, offset, limit);
     List<Concept> concepts = vocabulary.searchConcepts(builder.build());
     if (concepts.isEmpty()) {
       throw new WebApplicationException(404);
@@ -311,10 +431,11 @@ public class VocabularyService extends BaseResource {
   @GET
   @Path("/suggestions/{term}")
   @ApiOperation(value = "Suggest terms",
-  notes = "Suggests terms based on a mispelled or mistyped term.",
+  notes = "Suggests terms based on a mispelled or mistyped term. "
+      + "The status is \"warming\" and the suggestions are empty while the spell checker is built. "
+      + "It is \"failed\" if the spell checker could not be built.",
   response = String.class)
   @Timed
-  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
   public Object suggestFromTerm(
       @ApiParam( value = "Mispelled term", required = true )
       @PathParam("term") String term,
@@ -322,10 +443,25 @@ public class VocabularyService extends BaseResource {
       @QueryParam("limit") @DefaultValue("1") int limit,
       @ApiParam( value = "JSONP callback", required = false )
       @QueryParam("callback") @DefaultValue("fn") String callback) {
+    if (limit < 0) {
+      throw new WebApplicationException(Status.BAD_REQUEST);
+    }
+    boolean ready = vocabulary.isSuggestionsReady();
     List<String> suggestions = newArrayList(Iterables.limit(vocabulary.getSuggestions(term), limit));
-    SuggestionWrapper wrapper = new SuggestionWrapper(suggestions);
+    String status = ready ? "ready" : vocabulary.isSuggestionsFailed() ? "failed" : "warming";
+    SuggestionWrapper wrapper = new SuggestionWrapper(suggestions, status);
     GenericEntity<SuggestionWrapper> response = new GenericEntity<SuggestionWrapper>(wrapper){};
-    return JaxRsUtil.wrapJsonp(request, response, callback);
+    Object entity = JaxRsUtil.wrapJsonp(request, response, callback);
+    // Warming responses must not be cached for as long as the real suggestions
+    javax.ws.rs.core.CacheControl cacheControl = new javax.ws.rs.core.CacheControl();
+    if (ready) {
+      cacheControl.setMaxAge((int) TimeUnit.HOURS.toSeconds(2));
+    } else {
+      cacheControl.setNoCache(true);
+    }
+    ResponseBuilder builder = (entity instanceof Response) ?
+        Response.fromResponse((Response) entity) : Response.ok(entity);
+    return builder.cacheControl(cacheControl).build();
   }
 
   @GET
@@ -358,6 +494,30 @@ public class VocabularyService extends BaseResource {
     return JaxRsUtil.wrapJsonp(request, response, callback);
   }
 
+  @GET
+  @Path("/facets")
+  @ApiOperation(value = "Get concept counts for all categories and ontologies",
+  notes = "Facets can be used to build result filters",
+  response = Facet.class)
+  @Timed
+  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
+  public Object getFacets(
+      @ApiParam( value = "JSONP callback", required = false )
+      @QueryParam("callback") @DefaultValue("fn") String callback) {
+    FacetWrapper facets = new FacetWrapper(toFacets(vocabulary.getCategoryCounts()),
+        toFacets(vocabulary.getOntologyCounts()));
+    GenericEntity<FacetWrapper> response = new GenericEntity<FacetWrapper>(facets){};
+    return JaxRsUtil.wrapJsonp(request, response, callback);
+  }
+
+  static List<Facet> toFacets(Map<String, Integer> counts) {
+    List<Facet> facets = new ArrayList<>();
+    for (Entry<String, Integer> count: counts.entrySet()) {
+      facets.add(new Facet(count.getKey(), count.getValue()));
+    }
+    return facets;
+  }
+
   @XmlRootElement(name="concepts")
   private static class ConceptWrapper {
     @XmlElement(name="concept")
@@ -392,11 +552,37 @@ public class VocabularyService extends BaseResource {
     @JsonProperty
     List<String> list = new ArrayList<>();
 
+    @XmlAttribute
+    @JsonProperty
+    String status;
+
     @SuppressWarnings("unused")
     SuggestionWrapper() {}
 
-    SuggestionWrapper(Collection<String> items) {
+    SuggestionWrapper(Collection<String> items, String status) {
       list.addAll(items);
+      this.status = status;
+    }
+  }
+
+  @XmlRootElement(name="facets")
+  private static class FacetWrapper {
+    @XmlElementWrapper(name="categories")
+    @XmlElement(name="category")
+    @JsonProperty
+    List<Facet> categories = new ArrayList<>();
+
+    @XmlElementWrapper(name="ontologies")
+    @XmlElement(name="ontology")
+    @JsonProperty
+    List<Facet> ontologies = new ArrayList<>();
+
+    @SuppressWarnings("unused")
+    FacetWrapper() {}
+
+    FacetWrapper(Collection<Facet> categories, Collection<Facet> ontologies) {
+      this.categories.addAll(categories);
+      this.ontologies.addAll(ontologies);
     }
   }
 
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.api.graph;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import edu.sdsc.scigraph.frames.Concept;
+
+public class ConceptConverterTest {
+
+  Concept concept = mock(Concept.class);
+  List<String> labels = newArrayList("Hippocampus");
+
+  @Before
+  public void setup() {
+    when(concept.getUri()).thenReturn("http://example.org/#hippocampus");
+    when(concept.getCurie()).thenReturn("HP:0008");
+    when(concept.getLabels()).thenReturn(labels);
+    when(concept.getSynonyms()).thenReturn(ImmutableSet.of("cornu ammonis"));
+    when(concept.getDefinition()).thenReturn("A brain region");
+  }
+
+  @Test
+  public void testDto() {
+    ConceptDTO dto = ConceptConverter.toDto(concept);
+    assertThat(dto.getUri(), is("http://example.org/#hippocampus"));
+    assertThat(dto.getCurie(), is("HP:0008"));
+    assertThat(dto.getDefinition(), is("A brain region"));
+    assertThat(dto.getSynonyms(), contains("cornu ammonis"));
+    assertThat(dto.getCategories(), is(nullValue()));
+  }
+
+  @Test
+  public void testCollectionsAreNotCopied() {
+    assertThat(ConceptConverter.toDtoLite(concept).getLabels(),
+        is(sameInstance((Collection<String>) labels)));
+  }
+
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.sdsc.scigraph.services.resources;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.io.CharStreams;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+import edu.sdsc.scigraph.annotation.AnnotationCallback;
+import edu.sdsc.scigraph.annotation.Entity;
+import edu.sdsc.scigraph.annotation.EntityAnnotation;
+import edu.sdsc.scigraph.annotation.EntityFormatConfiguration;
+import edu.sdsc.scigraph.annotation.EntityProcessor;
+
+public class AnnotateServiceTest {
+
+  /***
+   * Annotates the whole content of a document, and fails documents containing "fail".
+   */
+  static class StubProcessor implements EntityProcessor {
+
+    @Override
+    public List<EntityAnnotation> annotateEntities(EntityFormatConfiguration configuration)
+        throws IOException {
+      String content = CharStreams.toString(configuration.getReader());
+      if (content.contains("fail")) {
+        throw new IOException("failed");
+      } else if (content.isEmpty()) {
+        return Collections.emptyList();
+      }
+      return singletonList(new EntityAnnotation(new Entity(content, "1"), 0, content.length()));
+    }
+
+    @Override
+    public <T> void annotateEntities(Iterator<T> documents,
+        Function<? super T, EntityFormatConfiguration> configurations, Executor executor,
+        int maxConcurrent, AnnotationCallback<? super T> callback) {
+      while (documents.hasNext()) {
+        T document = documents.next();
+        try {
+          callback.onSuccess(document, annotateEntities(configurations.apply(document)));
+        } catch (IOException e) {
+          callback.onFailure(document, e);
+        }
+      }
+    }
+
+  }
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  ExecutorService executor = Executors.newSingleThreadExecutor();
+  ExecutorService readerExecutor = Executors.newCachedThreadPool();
+  AnnotateService service;
+
+  @Before
+  public void setup() {
+    service = Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(EntityProcessor.class).toInstance(new StubProcessor());
+        bind(ExecutorService.class).annotatedWith(Names.named("annotation.executor")).toInstance(executor);
+        bindConstant().annotatedWith(Names.named("annotation.threads")).to(1);
+        bind(ExecutorService.class).annotatedWith(Names.named("annotation.reader")).toInstance(readerExecutor);
+      }
+    }).getInstance(AnnotateService.class);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdown();
+    readerExecutor.shutdown();
+  }
+
+  @Test
+  public void testBulkAnnotation() throws Exception {
+    String request = "{\"id\": \"a\", \"content\": \"cerebellum\"}\n"
+        + "\n"
+        + "not json\n"
+        + "{\"id\": \"b\", \"content\": \"fail\"}\n"
+        + "{\"id\": \"c\"}\n";
+    StreamingOutput output = (StreamingOutput) service.annotateBulk(
+        new ByteArrayInputStream(request.getBytes(Charsets.UTF_8)), Collections.<String>emptySet(),
+        Collections.<String>emptySet(), 4, false, false, false, false).getEntity();
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    output.write(os);
+    Map<String, JsonNode> results = new HashMap<>();
+    for (String line: Splitter.on('\n').omitEmptyStrings().split(os.toString("UTF-8"))) {
+      JsonNode result = objectMapper.readTree(line);
+      results.put(result.path("id").asText(), result);
+    }
+    assertThat(results.keySet(), containsInAnyOrder("a", "b", "c", ""));
+    JsonNode annotation = results.get("a").get("entities").get(0);
+    assertThat(annotation.get("start").asInt(), is(0));
+    assertThat(annotation.get("end").asInt(), is(10));
+    assertThat(annotation.get("token").get("id").asText(), is("1"));
+    assertThat(results.get("b").get("error").asText(), is("failed"));
+    assertThat(results.get("c").get("entities").size(), is(0));
+    assertThat(results.get("").get("error").asText(), startsWith("Malformed document on line 3"));
+  }
+
+  /***
+   * Sends every document before reading any result, through pipes much smaller than the request.
+   */
+  List<JsonNode> annotateBeforeReading(final int documentCount) throws Exception {
+    final PipedOutputStream request = new PipedOutputStream();
+    PipedInputStream input = new PipedInputStream(request, 1024);
+    final PipedInputStream response = new PipedInputStream(1024);
+    PipedOutputStream output = new PipedOutputStream(response);
+    ExecutorService client = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<JsonNode>> results = client.submit(new Callable<List<JsonNode>>() {
+        @Override
+        public List<JsonNode> call() throws Exception {
+          try (Writer writer = new OutputStreamWriter(request, Charsets.UTF_8)) {
+            for (int i = 0; i < documentCount; i++) {
+              writer.write("{\"id\": \"" + i + "\", \"content\": \"cerebellum\"}\n");
+            }
+          }
+          List<JsonNode> results = new ArrayList<>();
+          try (BufferedReader reader =
+              new BufferedReader(new InputStreamReader(response, Charsets.UTF_8))) {
+            String line;
+            while (null != (line = reader.readLine())) {
+              results.add(objectMapper.readTree(line));
+            }
+          }
+          return results;
+        }
+      });
+      StreamingOutput stream = (StreamingOutput) service.annotateBulk(input,
+          Collections.<String>emptySet(), Collections.<String>emptySet(), 4, false, false, false,
+          false).getEntity();
+      try (OutputStream os = output) {
+        stream.write(os);
+      }
+      return results.get();
+    } finally {
+      client.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testBulkAnnotationLargerThanBuffers() throws Exception {
+    List<JsonNode> results = annotateBeforeReading(1000);
+    assertThat(results.size(), is(1000));
+    for (JsonNode result : results) {
+      assertThat(result.get("entities").size(), is(1));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testUnreadBulkResultsFailTheRequest() throws Exception {
+    service.bulkQueueCapacity = 2;
+    service.bulkTimeout = 100;
+    List<JsonNode> results = annotateBeforeReading(1000);
+    assertThat(results.size(), is(lessThan(1000)));
+    assertThat(results.get(results.size() - 1).get("error").asText(),
+        startsWith("Results were not read within 100ms"));
+  }
+
+  @Test(timeout = 10000)
+  public void testDisconnectedClientStopsReadingTheRequest() throws Exception {
+    final byte[] document = "{\"id\": \"a\", \"content\": \"cerebellum\"}\n".getBytes(Charsets.UTF_8);
+    final AtomicInteger position = new AtomicInteger();
+    InputStream endlessRequest = new InputStream() {
+      @Override
+      public int read() {
+        return document[position.getAndIncrement() % document.length];
+      }
+    };
+    OutputStream disconnected = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    };
+    StreamingOutput stream = (StreamingOutput) service.annotateBulk(endlessRequest,
+        Collections.<String>emptySet(), Collections.<String>emptySet(), 4, false, false, false,
+        false).getEntity();
+    try {
+      stream.write(disconnected);
+      fail("The response should not be written");
+    } catch (IOException e) {
+      assertThat(e.getMessage(), is("Broken pipe"));
+    }
+    int read = position.get();
+    Thread.sleep(100);
+    assertThat(position.get(), is(read));
+    readerExecutor.shutdown();
+    assertThat(readerExecutor.awaitTermination(1, TimeUnit.SECONDS), is(true));
+  }
+
+}
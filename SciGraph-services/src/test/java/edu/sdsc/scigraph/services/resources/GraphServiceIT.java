@@ -26,6 +26,7 @@ import org.junit.Test;
 import com.google.common.base.Optional;
 
 import edu.sdsc.scigraph.frames.Concept;
+import edu.sdsc.scigraph.internal.GraphApi;
 import edu.sdsc.scigraph.neo4j.Graph;
 import edu.sdsc.scigraph.vocabulary.Vocabulary;
 
@@ -35,12 +36,13 @@ public class GraphServiceIT {
   private static final Vocabulary<Concept> vocabulary = mock(Vocabulary.class);
   @SuppressWarnings("unchecked")
   private static final Graph<Concept> graph = mock(Graph.class);
+  private static final GraphApi graphApi = mock(GraphApi.class);
 
   private final Concept foo = mock(Concept.class);
 
   @ClassRule
   public static final ResourceTestRule resources = ResourceTestRule.builder()
-      .addResource(new GraphService(vocabulary, graph)).build();
+      .addResource(new GraphService(vocabulary, graph, graphApi)).build();
 
   @Before
   public void setup() {
@@ -69,4 +69,15 @@ public class VocabularyServiceCompletionTest {
     assertThat(completionStrings, contains("Hippocampus", "Hippocampal region"));
   }
 
+  @Test
+  public void testStoredNormalizedForms() {
+    when(result.getSynonyms()).thenReturn(newArrayList("Amon's horn", "Cornu ammonis"));
+    when(result.getNormalizedLabels()).thenReturn(newArrayList("hippocampus"));
+    when(result.getNormalizedSynonyms()).thenReturn(newArrayList("amons horn", "cornu ammonis"));
+    Query query = new Vocabulary.Query.Builder("Cornu").build();
+    assertThat(VocabularyService.getCompletion(query, result), contains("Cornu ammonis"));
+    query = new Vocabulary.Query.Builder("Amons h").build();
+    assertThat(VocabularyService.getCompletion(query, result), contains("Amon's horn"));
+  }
+
 }
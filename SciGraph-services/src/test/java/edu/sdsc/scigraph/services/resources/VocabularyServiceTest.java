@@ -18,6 +18,7 @@ package edu.sdsc.scigraph.services.resources;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -25,19 +26,27 @@ import io.dropwizard.testing.FixtureHelpers;
 import io.dropwizard.testing.junit.ResourceTestRule;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 
-import org.dozer.DozerBeanMapper;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSortedMap;
+import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.UniformInterfaceException;
+import com.sun.jersey.core.util.MultivaluedMapImpl;
 
 import edu.sdsc.scigraph.frames.Concept;
 import edu.sdsc.scigraph.vocabulary.Vocabulary;
+import edu.sdsc.scigraph.vocabulary.Vocabulary.BatchType;
 
 public class VocabularyServiceTest {
 
@@ -48,7 +57,7 @@ public class VocabularyServiceTest {
 
   @ClassRule
   public static final ResourceTestRule resources = ResourceTestRule.builder()
-  .addResource(new VocabularyService(vocabulary, new DozerBeanMapper()))
+  .addResource(new VocabularyService(vocabulary))
   .build();
 
   @Before
@@ -69,6 +78,78 @@ public class VocabularyServiceTest {
     assertThat(response, is(equalTo(FixtureHelpers.fixture("fixtures/hippocampus.json"))));
   }
   
+  @Test
+  public void testFacetsJson() {
+    when(vocabulary.getCategoryCounts()).thenReturn(ImmutableSortedMap.of("anatomy", 2, "cell", 1));
+    when(vocabulary.getOntologyCounts()).thenReturn(ImmutableSortedMap.of("http://example.org/o", 3));
+    String response = resources.client().resource("/vocabulary/facets").accept(MediaType.APPLICATION_JSON).get(String.class);
+    assertThat(response, is(equalTo("{\"categories\":[{\"name\":\"anatomy\",\"count\":2},"
+        + "{\"name\":\"cell\",\"count\":1}],"
+        + "\"ontologies\":[{\"name\":\"http://example.org/o\",\"count\":3}]}")));
+  }
+
+  @Test
+  public void testWarmingSuggestions() {
+    when(vocabulary.isSuggestionsReady()).thenReturn(false);
+    when(vocabulary.getSuggestions("hipocampus")).thenReturn(Collections.<String>emptyList());
+    ClientResponse response = resources.client().resource("/vocabulary/suggestions/hipocampus")
+        .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+    assertThat(response.getHeaders().getFirst("Cache-Control"), startsWith("no-cache"));
+    assertThat(response.getEntity(String.class), is("{\"list\":[],\"status\":\"warming\"}"));
+  }
+
+  @Test
+  public void testFailedSuggestions() {
+    when(vocabulary.isSuggestionsReady()).thenReturn(false);
+    when(vocabulary.isSuggestionsFailed()).thenReturn(true);
+    when(vocabulary.getSuggestions("hipocampus")).thenReturn(Collections.<String>emptyList());
+    ClientResponse response = resources.client().resource("/vocabulary/suggestions/hipocampus")
+        .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+    assertThat(response.getHeaders().getFirst("Cache-Control"), startsWith("no-cache"));
+    assertThat(response.getEntity(String.class), is("{\"list\":[],\"status\":\"failed\"}"));
+  }
+
+  @Test
+  public void testBatchJson() {
+    Map<String, Collection<Concept>> concepts = new LinkedHashMap<>();
+    concepts.put("HP:1", Collections.singletonList(hippocampus));
+    concepts.put("absent", Collections.<Concept>emptyList());
+    when(vocabulary.getConcepts(BatchType.ID, newArrayList("HP:1", "absent"))).thenReturn(concepts);
+    MultivaluedMap<String, String> form = new MultivaluedMapImpl();
+    form.add("input", "HP:1");
+    form.add("input", "absent");
+    form.add("input", "HP:1");
+    String response = resources.client().resource("/vocabulary/batch")
+        .type(MediaType.APPLICATION_FORM_URLENCODED).accept(MediaType.APPLICATION_JSON)
+        .post(String.class, form);
+    assertThat(response, is("[{\"input\":\"HP:1\",\"concepts\":[{\"labels\":[\"Hippocampus\"]}],\"found\":true},"
+        + "{\"input\":\"absent\",\"concepts\":[],\"found\":false}]"));
+  }
+
+  @Test
+  public void testBatchUnknownType() {
+    MultivaluedMap<String, String> form = new MultivaluedMapImpl();
+    form.add("type", "label");
+    form.add("input", "HP:1");
+    ClientResponse response = resources.client().resource("/vocabulary/batch")
+        .type(MediaType.APPLICATION_FORM_URLENCODED).post(ClientResponse.class, form);
+    assertThat(response.getStatus(), is(400));
+  }
+
+  @Test
+  public void testNegativeOffset() {
+    ClientResponse response = resources.client().resource("/vocabulary/term/hippocampus")
+        .queryParam("offset", "-1").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+    assertThat(response.getStatus(), is(400));
+  }
+
+  @Test
+  public void testNegativeLimit() {
+    ClientResponse response = resources.client().resource("/vocabulary/search/hippocampus")
+        .queryParam("limit", "-1").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+    assertThat(response.getStatus(), is(400));
+  }
+
   @Test
   public void testKnownIdJson() throws IOException {
     /*when(vocabulary.getConceptFromId(any())).thenReturn(newArrayList(hippocampus));